@@ -0,0 +1,80 @@
+package com.ash.projects.redisclone.command;
+
+import com.ash.projects.redisclone.network.RespCommand;
+
+/**
+ * Arguments of a command call, with the name and the optional @region stripped.
+ *
+ * Index 0 is the first real argument, e.g. the key for "GET @users alice".
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public final class CommandArgs {
+
+    private final RespCommand command;
+    private final String region;
+    private final int offset;
+
+    private CommandArgs(RespCommand command, String region, int offset) {
+        this.command = command;
+        this.region = region;
+        this.offset = offset;
+    }
+
+    public static CommandArgs of(RespCommand command) {
+        if (command.argCount() > 1 && command.startsWith(1, '@')) {
+            return new CommandArgs(command, command.getString(1).substring(1), 2);
+        }
+        return new CommandArgs(command, null, 1);
+    }
+
+    public RespCommand getCommand() {
+        return command;
+    }
+
+    /**
+     * @return the region named by "@region", or null for the default region
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    public int size() {
+        return command.argCount() - offset;
+    }
+
+    public String getString(int index) {
+        return command.getString(offset + index);
+    }
+
+    /**
+     * @return the argument as a value to store, see {@link RespCommand#getUtf8String(int)}
+     */
+    public String getValue(int index) {
+        return command.getUtf8String(offset + index);
+    }
+
+    public byte[] getBytes(int index) {
+        return command.getBytes(offset + index);
+    }
+
+    public long getLong(int index) {
+        try {
+            return Long.parseLong(getString(index));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("value is not an integer or out of range");
+        }
+    }
+
+    /**
+     * @return the arguments from {@code from} to the end as a new array
+     */
+    public String[] getStrings(int from) {
+        String[] values = new String[Math.max(0, size() - from)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getString(from + i);
+        }
+        return values;
+    }
+}
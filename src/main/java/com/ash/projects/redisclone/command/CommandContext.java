@@ -0,0 +1,217 @@
+package com.ash.projects.redisclone.command;
+
+import com.ash.projects.redisclone.network.RespCommand;
+import com.ash.projects.redisclone.network.RespReply;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Per-caller state seen by command handlers.
+ *
+ * A network connection keeps one context for its whole lifetime; the web layer
+ * creates a short-lived, non-persistent one per request. Commands flagged
+ * CONNECTION are rejected on non-persistent contexts.
+ *
+ * Calls from one connection are executed in order, so the mutable state here
+ * is only touched by one thread at a time.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class CommandContext {
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    /**
+     * Client classes, each with its own output buffer limit (see network.server.output.buffer.limit.*).
+     */
+    public enum ClientType {
+        NORMAL, PUBSUB, REPLICA
+    }
+
+    private final long id;
+    private final boolean persistent;
+    private final boolean readOnly;
+
+    private volatile int protocolVersion = RespReply.RESP2;
+    private volatile String clientName;
+    private volatile String clientAddress;
+    private volatile ClientType clientType = ClientType.NORMAL;
+    private boolean closeRequested;
+
+    // Delivers out-of-band messages (e.g. tracking invalidations); set by the transport
+    private volatile Consumer<String> pushHandler;
+    private volatile boolean tracking;
+    private volatile boolean closed;
+
+    // Writes a bulk reply straight into the reply buffer of the running command; set by the transport
+    private Consumer<ByteBuffer> bulkReplyWriter;
+
+    // Commands queued between MULTI and EXEC; null outside a transaction
+    private List<RespCommand> transactionQueue;
+    private boolean transactionDirty;
+
+    public CommandContext(boolean persistent, boolean readOnly) {
+        this.id = NEXT_ID.incrementAndGet();
+        this.persistent = persistent;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * @return a process-wide unique client id (as reported by HELLO)
+     */
+    public long getId() {
+        return id;
+    }
+
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    /**
+     * @return true if WRITE and ADMIN commands must be refused for this caller
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public int getProtocolVersion() {
+        return protocolVersion;
+    }
+
+    public void setProtocolVersion(int protocolVersion) {
+        this.protocolVersion = protocolVersion;
+    }
+
+    public String getClientName() {
+        return clientName;
+    }
+
+    public void setClientName(String clientName) {
+        this.clientName = clientName;
+    }
+
+    /**
+     * @return the peer as "host:port" (set by the transport), or null if unknown
+     */
+    public String getClientAddress() {
+        return clientAddress;
+    }
+
+    public void setClientAddress(String clientAddress) {
+        this.clientAddress = clientAddress;
+    }
+
+    public ClientType getClientType() {
+        return clientType;
+    }
+
+    public void setClientType(ClientType clientType) {
+        this.clientType = clientType;
+    }
+
+    /**
+     * Ask the transport to close the connection once the current reply is flushed.
+     */
+    public void requestClose() {
+        this.closeRequested = true;
+    }
+
+    public boolean isCloseRequested() {
+        return closeRequested;
+    }
+
+    // ========== PUSH MESSAGES ==========
+
+    public void setPushHandler(Consumer<String> pushHandler) {
+        this.pushHandler = pushHandler;
+    }
+
+    /**
+     * Send an out-of-band message to the client. May be called from any thread;
+     * ignored once the connection is closed or if the transport cannot push.
+     */
+    public void push(String message) {
+        Consumer<String> handler = pushHandler;
+        if (handler != null && !closed) {
+            handler.accept(message);
+        }
+    }
+
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    public void setTracking(boolean tracking) {
+        this.tracking = tracking;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void markClosed() {
+        this.closed = true;
+    }
+
+    // ========== DIRECT REPLIES ==========
+
+    public void setBulkReplyWriter(Consumer<ByteBuffer> bulkReplyWriter) {
+        this.bulkReplyWriter = bulkReplyWriter;
+    }
+
+    /**
+     * A handler that writes its bulk reply through this returns RespReply.WRITTEN.
+     *
+     * @return the writer, or null when the reply must be returned as a String
+     *         (web requests, commands replayed by EXEC)
+     */
+    public Consumer<ByteBuffer> getBulkReplyWriter() {
+        return bulkReplyWriter;
+    }
+
+    // ========== TRANSACTION STATE ==========
+
+    public boolean isInTransaction() {
+        return transactionQueue != null;
+    }
+
+    public void beginTransaction() {
+        transactionQueue = new ArrayList<>();
+        transactionDirty = false;
+    }
+
+    public void queue(RespCommand command) {
+        transactionQueue.add(command);
+    }
+
+    /**
+     * Mark the transaction as failed (e.g. a queued command had bad arity), so EXEC aborts it.
+     */
+    public void markTransactionDirty() {
+        transactionDirty = true;
+    }
+
+    public boolean isTransactionDirty() {
+        return transactionDirty;
+    }
+
+    public int getQueuedCommandCount() {
+        return transactionQueue != null ? transactionQueue.size() : 0;
+    }
+
+    /**
+     * Leave transaction mode.
+     *
+     * @return the queued commands, or null if no transaction was active
+     */
+    public List<RespCommand> endTransaction() {
+        List<RespCommand> queued = transactionQueue;
+        transactionQueue = null;
+        return queued;
+    }
+}
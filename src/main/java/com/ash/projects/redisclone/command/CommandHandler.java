@@ -0,0 +1,16 @@
+package com.ash.projects.redisclone.command;
+
+/**
+ * Executes one command. Arity has already been checked by the registry.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+
+    /**
+     * @return the complete RESP reply (see RespReply)
+     */
+    String execute(CommandContext context, CommandArgs args) throws Exception;
+}
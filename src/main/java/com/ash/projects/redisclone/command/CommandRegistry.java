@@ -0,0 +1,244 @@
+package com.ash.projects.redisclone.command;
+
+import com.ash.projects.redisclone.network.RespCommand;
+import com.ash.projects.redisclone.network.RespReply;
+import com.ash.projects.redisclone.repository.RepositoryAccess;
+import com.ash.projects.redisclone.service.ClientTrackingService;
+import com.ash.projects.redisclone.service.LatencyStatsService;
+import com.ash.projects.redisclone.service.SlowLogService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Command table and the single dispatch point for every caller
+ * (network connections, MULTI/EXEC and the web layer).
+ *
+ * Lookup is case-insensitive and allocation-free: names are hashed with ASCII
+ * case folding straight from the request bytes (or chars, for inline commands)
+ * into an open-addressed table, so "get", "GET" and "Get" resolve without
+ * creating an upper-cased copy.
+ *
+ * Command groups register themselves at startup; the table is rebuilt on each
+ * registration and published through a volatile field, so lookups never lock.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+@Component
+public class CommandRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandRegistry.class);
+
+    private static final String QUEUED = "+QUEUED\r\n";
+
+    @Autowired
+    private ClientTrackingService trackingService;
+
+    @Autowired
+    private SlowLogService slowLog;
+
+    @Autowired
+    private LatencyStatsService latencyStats;
+
+    // Registered commands by lower-case name; guarded by this
+    private final Map<String, CommandSpec> commands = new TreeMap<>();
+
+    // Open-addressed lookup table (power-of-two size, linear probing)
+    private volatile CommandSpec[] table = new CommandSpec[16];
+
+    public void register(String name, int arity, int flags, int firstKey, int lastKey, int step,
+                         CommandHandler handler) {
+        register(new CommandSpec(name, arity, flags, firstKey, lastKey, step, handler));
+    }
+
+    public synchronized void register(CommandSpec spec) {
+        if (commands.put(spec.getName(), spec) != null) {
+            logger.warn("Command '{}' registered twice, keeping the latest handler", spec.getName());
+        }
+
+        int size = Integer.highestOneBit(Math.max(16, commands.size() * 4) - 1) << 1;
+        CommandSpec[] newTable = new CommandSpec[size];
+        for (CommandSpec existing : commands.values()) {
+            byte[] name = existing.getUpperName();
+            int index = hash(name, name.length) & (size - 1);
+            while (newTable[index] != null) {
+                index = (index + 1) & (size - 1);
+            }
+            newTable[index] = existing;
+        }
+        table = newTable;
+    }
+
+    public CommandSpec lookup(RespCommand command) {
+        return command.isRaw(0) ? lookup(command.getBytes(0)) : lookup(command.getString(0));
+    }
+
+    public CommandSpec lookup(byte[] name) {
+        CommandSpec[] current = table;
+        int mask = current.length - 1;
+        int index = hash(name, name.length) & mask;
+
+        CommandSpec spec;
+        while ((spec = current[index]) != null) {
+            if (matches(spec.getUpperName(), name)) {
+                return spec;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public CommandSpec lookup(CharSequence name) {
+        CommandSpec[] current = table;
+        int mask = current.length - 1;
+        int index = hash(name) & mask;
+
+        CommandSpec spec;
+        while ((spec = current[index]) != null) {
+            if (matches(spec.getUpperName(), name)) {
+                return spec;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public synchronized Collection<CommandSpec> getCommands() {
+        return new ArrayList<>(commands.values());
+    }
+
+    /**
+     * Resolve, validate and run a command, or queue it if the caller is inside MULTI.
+     *
+     * @return the complete RESP reply
+     */
+    public String dispatch(CommandContext context, RespCommand command) {
+        CommandSpec spec = lookup(command);
+        CommandArgs args = CommandArgs.of(command);
+        String error = validate(spec, context, command, args);
+        if (error != null) {
+            if (context.isInTransaction()) {
+                context.markTransactionDirty();
+            }
+            return error;
+        }
+
+        if (context.isInTransaction() && !spec.hasFlag(CommandSpec.NO_QUEUE)) {
+            context.queue(command);
+            return QUEUED;
+        }
+
+        return invoke(spec, context, args);
+    }
+
+    /**
+     * Resolve, validate and run a command immediately, ignoring transaction state.
+     * Used by EXEC to replay the queued commands.
+     */
+    public String execute(CommandContext context, RespCommand command) {
+        CommandSpec spec = lookup(command);
+        CommandArgs args = CommandArgs.of(command);
+        String error = validate(spec, context, command, args);
+        return error != null ? error : invoke(spec, context, args);
+    }
+
+    private String validate(CommandSpec spec, CommandContext context, RespCommand command, CommandArgs args) {
+        if (spec == null) {
+            return RespReply.error("unknown command '" + command.getString(0) + "'");
+        }
+
+        String error = null;
+        if (!spec.acceptsArgCount(args.size() + 1)) {
+            error = RespReply.error("wrong number of arguments for '" + spec.getName() + "' command");
+        } else if (!context.isPersistent() && spec.hasFlag(CommandSpec.CONNECTION)) {
+            error = RespReply.error("'" + spec.getName() + "' requires a persistent connection");
+        } else if (context.isReadOnly() && spec.hasFlag(CommandSpec.WRITE | CommandSpec.ADMIN)) {
+            error = RespReply.error("NOPERM this user has no permissions to run the '" + spec.getName() + "' command");
+        }
+
+        if (error != null) {
+            latencyStats.recordRejected(spec.getName());
+        }
+        return error;
+    }
+
+    private String invoke(CommandSpec spec, CommandContext context, CommandArgs args) {
+        if (context.isTracking() && spec.hasFlag(CommandSpec.READONLY)) {
+            // Track before reading, so a write racing with this read still invalidates it
+            trackingService.track(context, args.getRegion(), spec.getKeys(args));
+        }
+
+        long start = System.nanoTime();
+        int repositoryCalls = RepositoryAccess.count();
+
+        String reply;
+        try {
+            reply = spec.getHandler().execute(context, args);
+        } catch (IllegalArgumentException e) {
+            reply = RespReply.error(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error executing command '{}'", spec.getName(), e);
+            reply = RespReply.error(e.getMessage());
+        }
+
+        long durationMicros = (System.nanoTime() - start) / 1000;
+        latencyStats.recordCommand(spec.getName(), durationMicros, reply != null && reply.startsWith("-"));
+        if (slowLog.isSlow(durationMicros)) {
+            slowLog.record(context, args.getCommand(), durationMicros, RepositoryAccess.count() - repositoryCalls);
+        }
+        return reply;
+    }
+
+    // ========== CASE-FOLDED HASHING ==========
+
+    private static int hash(byte[] name, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + upper(name[i]);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(CharSequence name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + upper(name.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(byte[] upperName, byte[] name) {
+        if (upperName.length != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (upperName[i] != upper(name[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(byte[] upperName, CharSequence name) {
+        if (upperName.length != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < upperName.length; i++) {
+            if (upperName[i] != upper(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int upper(int c) {
+        return c >= 'a' && c <= 'z' ? c - 32 : c;
+    }
+}
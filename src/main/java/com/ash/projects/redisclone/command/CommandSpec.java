@@ -0,0 +1,123 @@
+package com.ash.projects.redisclone.command;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Static description of a command: name, arity, flags, key positions and handler.
+ *
+ * Arity follows the Redis convention and counts the command name but not the
+ * optional @region argument: a positive value is an exact argument count, a
+ * negative value is a minimum (e.g. -3 means "at least 3").
+ *
+ * Key positions are indexes into the arguments after the name and region,
+ * starting at 1; lastKey -1 means "up to the last argument". A firstKey of 0
+ * means the command takes no keys.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public final class CommandSpec {
+
+    /** Modifies the dataset */
+    public static final int WRITE = 1;
+    /** Only reads the dataset */
+    public static final int READONLY = 1 << 1;
+    /** Server administration, never allowed for read-only callers */
+    public static final int ADMIN = 1 << 2;
+    /** O(1) or O(log N) command */
+    public static final int FAST = 1 << 3;
+    /** Executed immediately even inside MULTI (MULTI, EXEC, DISCARD, QUIT...) */
+    public static final int NO_QUEUE = 1 << 4;
+    /** Changes per-connection state, so it needs a persistent connection */
+    public static final int CONNECTION = 1 << 5;
+
+    private final String name;
+    private final byte[] upperName;
+    private final int arity;
+    private final int flags;
+    private final int firstKey;
+    private final int lastKey;
+    private final int step;
+    private final CommandHandler handler;
+
+    public CommandSpec(String name, int arity, int flags, int firstKey, int lastKey, int step,
+                       CommandHandler handler) {
+        this.name = name.toLowerCase(Locale.ROOT);
+        this.upperName = name.toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        this.arity = arity;
+        this.flags = flags;
+        this.firstKey = firstKey;
+        this.lastKey = lastKey;
+        this.step = step;
+        this.handler = handler;
+    }
+
+    /**
+     * Check the number of arguments (name included, region excluded) against the arity.
+     */
+    public boolean acceptsArgCount(int count) {
+        return arity >= 0 ? count == arity : count >= -arity;
+    }
+
+    /**
+     * Extract the keys of a call according to the declared key positions.
+     */
+    public String[] getKeys(CommandArgs args) {
+        if (firstKey <= 0 || args.size() < firstKey) {
+            return new String[0];
+        }
+
+        int last = lastKey < 0 ? args.size() + 1 + lastKey : Math.min(lastKey, args.size());
+        int count = last >= firstKey ? (last - firstKey) / step + 1 : 0;
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = args.getString(firstKey - 1 + i * step);
+        }
+        return keys;
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public boolean isWrite() {
+        return hasFlag(WRITE);
+    }
+
+    public boolean isMultiKey() {
+        return firstKey > 0 && lastKey != firstKey;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    byte[] getUpperName() {
+        return upperName;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public int getFirstKey() {
+        return firstKey;
+    }
+
+    public int getLastKey() {
+        return lastKey;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    public CommandHandler getHandler() {
+        return handler;
+    }
+}
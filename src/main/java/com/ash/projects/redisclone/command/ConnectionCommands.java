@@ -0,0 +1,129 @@
+package com.ash.projects.redisclone.command;
+
+import com.ash.projects.redisclone.network.RespReply;
+import com.ash.projects.redisclone.service.ClientTrackingService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.ash.projects.redisclone.command.CommandSpec.*;
+
+/**
+ * Connection commands: PING, ECHO, HELLO, QUIT, CLIENT
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+@Component
+public class ConnectionCommands {
+
+    @Autowired
+    private CommandRegistry registry;
+
+    @Autowired
+    private ClientTrackingService trackingService;
+
+    @PostConstruct
+    public void registerCommands() {
+        registry.register("PING", -1, FAST, 0, 0, 0, this::ping);
+        registry.register("ECHO", 2, FAST, 0, 0, 0, this::echo);
+        registry.register("HELLO", -1, FAST | NO_QUEUE | CONNECTION, 0, 0, 0, this::hello);
+        registry.register("QUIT", -1, FAST | NO_QUEUE | CONNECTION, 0, 0, 0, this::quit);
+        registry.register("CLIENT", -2, CONNECTION, 0, 0, 0, this::client);
+    }
+
+    private String ping(CommandContext context, CommandArgs args) {
+        return args.size() > 0 ? RespReply.bulk(args.getString(0)) : RespReply.simple("PONG");
+    }
+
+    private String echo(CommandContext context, CommandArgs args) {
+        return RespReply.bulk(args.getString(0));
+    }
+
+    /**
+     * HELLO [protover [AUTH username password] [SETNAME clientname]]
+     * Negotiates RESP2/RESP3 and returns server properties.
+     */
+    private String hello(CommandContext context, CommandArgs args) {
+        int protocol = context.getProtocolVersion();
+
+        if (args.size() > 0) {
+            try {
+                protocol = Integer.parseInt(args.getString(0));
+            } catch (NumberFormatException e) {
+                return RespReply.error("Protocol version is not an integer or out of range");
+            }
+            if (protocol != RespReply.RESP2 && protocol != RespReply.RESP3) {
+                return RespReply.error("NOPROTO unsupported protocol version");
+            }
+        }
+
+        for (int i = 1; i < args.size(); i++) {
+            String option = args.getString(i);
+            if ("AUTH".equalsIgnoreCase(option) && i + 2 < args.size()) {
+                // The network endpoint is unauthenticated; accept and ignore credentials
+                i += 2;
+            } else if ("SETNAME".equalsIgnoreCase(option) && i + 1 < args.size()) {
+                context.setClientName(args.getString(++i));
+            } else {
+                return RespReply.error("syntax error in HELLO option '" + option + "'");
+            }
+        }
+
+        context.setProtocolVersion(protocol);
+
+        Map<String, Object> hello = new LinkedHashMap<>();
+        hello.put("server", "ashredis");
+        hello.put("version", "1.0.0");
+        hello.put("proto", protocol);
+        hello.put("id", context.getId());
+        hello.put("mode", "standalone");
+        hello.put("role", "master");
+        hello.put("modules", List.of());
+        return RespReply.map(hello, protocol);
+    }
+
+    /**
+     * CLIENT ID | GETNAME | SETNAME name | TRACKING ON|OFF
+     */
+    private String client(CommandContext context, CommandArgs args) {
+        String subcommand = args.getString(0);
+
+        if ("ID".equalsIgnoreCase(subcommand) && args.size() == 1) {
+            return RespReply.integer(context.getId());
+        }
+        if ("GETNAME".equalsIgnoreCase(subcommand) && args.size() == 1) {
+            return RespReply.bulk(context.getClientName());
+        }
+        if ("SETNAME".equalsIgnoreCase(subcommand) && args.size() == 2) {
+            context.setClientName(args.getString(1));
+            return RespReply.OK;
+        }
+        if ("TRACKING".equalsIgnoreCase(subcommand) && args.size() == 2) {
+            String mode = args.getString(1);
+            if ("ON".equalsIgnoreCase(mode)) {
+                trackingService.enable(context);
+                return RespReply.OK;
+            }
+            if ("OFF".equalsIgnoreCase(mode)) {
+                trackingService.disable(context);
+                return RespReply.OK;
+            }
+            return RespReply.error("syntax error");
+        }
+
+        return RespReply.error("unknown subcommand or wrong number of arguments for '" + subcommand + "'");
+    }
+
+    /**
+     * QUIT - the connection is closed once the reply has been flushed
+     */
+    private String quit(CommandContext context, CommandArgs args) {
+        context.requestClose();
+        return RespReply.OK;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ash.projects.redisclone.command;
+
+import com.ash.projects.redisclone.network.RespReply;
+import com.ash.projects.redisclone.service.CacheService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import static com.ash.projects.redisclone.command.CommandSpec.*;
+
+/**
+ * Generic key commands: DEL, EXISTS, EXPIRE, TTL, PERSIST, KEYS
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+@Component
+public class KeyCommands {
+
+    @Autowired
+    private CommandRegistry registry;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @PostConstruct
+    public void registerCommands() {
+        registry.register("DEL", -2, WRITE, 1, -1, 1, this::del);
+        registry.register("EXISTS", -2, READONLY | FAST, 1, -1, 1, this::exists);
+        registry.register("EXPIRE", 3, WRITE | FAST, 1, 1, 1, this::expire);
+        registry.register("TTL", 2, READONLY | FAST, 1, 1, 1, this::ttl);
+        registry.register("PERSIST", 2, WRITE | FAST, 1, 1, 1, this::persist);
+        registry.register("KEYS", 2, READONLY, 0, 0, 0, this::keys);
+    }
+
+    private String del(CommandContext context, CommandArgs args) {
+        return RespReply.integer(cacheService.del(args.getRegion(), args.getStrings(0)));
+    }
+
+    private String exists(CommandContext context, CommandArgs args) {
+        return RespReply.integer(cacheService.exists(args.getRegion(), args.getStrings(0)));
+    }
+
+    private String expire(CommandContext context, CommandArgs args) {
+        boolean result = cacheService.expire(args.getRegion(), args.getString(0), args.getLong(1));
+        return RespReply.integer(result ? 1 : 0);
+    }
+
+    private String ttl(CommandContext context, CommandArgs args) {
+        return RespReply.integer(cacheService.ttl(args.getRegion(), args.getString(0)));
+    }
+
+    private String persist(CommandContext context, CommandArgs args) {
+        boolean result = cacheService.persist(args.getRegion(), args.getString(0));
+        return RespReply.integer(result ? 1 : 0);
+    }
+
+    private String keys(CommandContext context, CommandArgs args) {
+        return RespReply.bulkArray(cacheService.keys(args.getRegion(), args.getString(0)));
+    }
+}
@@ -0,0 +1,134 @@
+package com.ash.projects.redisclone.command;
+
+import com.ash.projects.redisclone.network.RespReply;
+import com.ash.projects.redisclone.service.PubSubService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ash.projects.redisclone.command.CommandSpec.*;
+
+/**
+ * Pub/Sub commands: SUBSCRIBE, UNSUBSCRIBE, PSUBSCRIBE, PUNSUBSCRIBE, PUBLISH, PUBSUB
+ *
+ * Subscription confirmations are one ["subscribe", channel, count] message per
+ * channel, sent as RESP3 pushes or RESP2 arrays. Published messages reach the
+ * connection asynchronously through PubSubService's delivery queues.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+@Component
+public class PubSubCommands {
+
+    @Autowired
+    private CommandRegistry registry;
+
+    @Autowired
+    private PubSubService pubSubService;
+
+    @PostConstruct
+    public void registerCommands() {
+        registry.register("SUBSCRIBE", -2, CONNECTION, 0, 0, 0, this::subscribe);
+        registry.register("UNSUBSCRIBE", -1, CONNECTION, 0, 0, 0, this::unsubscribe);
+        registry.register("PSUBSCRIBE", -2, CONNECTION, 0, 0, 0, this::psubscribe);
+        registry.register("PUNSUBSCRIBE", -1, CONNECTION, 0, 0, 0, this::punsubscribe);
+        registry.register("PUBLISH", 3, WRITE | FAST, 0, 0, 0, this::publish);
+        registry.register("PUBSUB", -2, 0, 0, 0, 0, this::pubsub);
+    }
+
+    private String subscribe(CommandContext context, CommandArgs args) {
+        return subscribe(context, args, false);
+    }
+
+    private String psubscribe(CommandContext context, CommandArgs args) {
+        return subscribe(context, args, true);
+    }
+
+    private String unsubscribe(CommandContext context, CommandArgs args) {
+        return unsubscribe(context, args, false);
+    }
+
+    private String punsubscribe(CommandContext context, CommandArgs args) {
+        return unsubscribe(context, args, true);
+    }
+
+    private String subscribe(CommandContext context, CommandArgs args, boolean pattern) {
+        StringBuilder reply = new StringBuilder();
+        for (int i = 0; i < args.size(); i++) {
+            String channel = args.getString(i);
+            int count = pubSubService.subscribe(context, channel, pattern);
+            appendConfirmation(reply, context, pattern ? "psubscribe" : "subscribe", channel, count);
+        }
+        return reply.toString();
+    }
+
+    /**
+     * Without arguments, drops every channel (or pattern) of the connection.
+     */
+    private String unsubscribe(CommandContext context, CommandArgs args, boolean pattern) {
+        String kind = pattern ? "punsubscribe" : "unsubscribe";
+        List<String> channels = new ArrayList<>();
+        for (int i = 0; i < args.size(); i++) {
+            channels.add(args.getString(i));
+        }
+        if (channels.isEmpty()) {
+            channels = pubSubService.getSubscriptions(context, pattern);
+        }
+
+        StringBuilder reply = new StringBuilder();
+        if (channels.isEmpty()) {
+            appendConfirmation(reply, context, kind, null, 0);
+            return reply.toString();
+        }
+        for (String channel : channels) {
+            int count = pubSubService.unsubscribe(context, channel, pattern);
+            appendConfirmation(reply, context, kind, channel, count);
+        }
+        return reply.toString();
+    }
+
+    /**
+     * PUBLISH channel message
+     * Replies with the number of receivers the message was queued for.
+     */
+    private String publish(CommandContext context, CommandArgs args) {
+        return RespReply.integer(pubSubService.publish(args.getString(0), args.getString(1)));
+    }
+
+    /**
+     * PUBSUB CHANNELS [pattern] | NUMSUB [channel ...] | NUMPAT
+     */
+    private String pubsub(CommandContext context, CommandArgs args) {
+        String subcommand = args.getString(0);
+
+        if ("CHANNELS".equalsIgnoreCase(subcommand) && args.size() <= 2) {
+            return RespReply.bulkArray(pubSubService.getActiveChannels(args.size() == 2 ? args.getString(1) : null));
+        }
+        if ("NUMSUB".equalsIgnoreCase(subcommand)) {
+            StringBuilder reply = new StringBuilder(RespReply.arrayHeader((args.size() - 1) * 2));
+            for (int i = 1; i < args.size(); i++) {
+                String channel = args.getString(i);
+                reply.append(RespReply.bulk(channel))
+                        .append(RespReply.integer(pubSubService.getSubscriberCount(channel)));
+            }
+            return reply.toString();
+        }
+        if ("NUMPAT".equalsIgnoreCase(subcommand) && args.size() == 1) {
+            return RespReply.integer(pubSubService.getPatternCount());
+        }
+
+        return RespReply.error("unknown subcommand or wrong number of arguments for '" + subcommand + "'");
+    }
+
+    private static void appendConfirmation(StringBuilder reply, CommandContext context, String kind,
+                                           String channel, int count) {
+        reply.append(RespReply.pushHeader(3, context.getProtocolVersion()))
+                .append(RespReply.bulk(kind))
+                .append(channel != null ? RespReply.bulk(channel) : RespReply.NULL_BULK)
+                .append(RespReply.integer(count));
+    }
+}
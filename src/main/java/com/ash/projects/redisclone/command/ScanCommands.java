@@ -0,0 +1,144 @@
+package com.ash.projects.redisclone.command;
+
+import com.ash.projects.redisclone.model.DataType;
+import com.ash.projects.redisclone.network.RespReply;
+import com.ash.projects.redisclone.service.CacheService;
+import com.ash.projects.redisclone.service.ExtendedCacheService;
+import com.ash.projects.redisclone.service.RedisCommandService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import static com.ash.projects.redisclone.command.CommandSpec.*;
+
+/**
+ * Incremental iteration: SCAN, HSCAN, SSCAN, ZSCAN
+ *
+ * All reply with [next cursor, elements]; a next cursor of 0 ends the scan.
+ * COUNT is the number of keys / elements visited per call (default 10), not
+ * the number returned, since MATCH and TYPE filter the visited ones.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+@Component
+public class ScanCommands {
+
+    private static final int DEFAULT_COUNT = 10;
+
+    @Autowired
+    private CommandRegistry registry;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private ExtendedCacheService extendedCacheService;
+
+    @PostConstruct
+    public void registerCommands() {
+        registry.register("SCAN", -2, READONLY, 0, 0, 0, this::scan);
+        registry.register("HSCAN", -3, READONLY, 1, 1, 1, this::hscan);
+        registry.register("SSCAN", -3, READONLY, 1, 1, 1, this::sscan);
+        registry.register("ZSCAN", -3, READONLY, 1, 1, 1, this::zscan);
+    }
+
+    /**
+     * SCAN cursor [MATCH pattern] [COUNT count] [TYPE type]
+     */
+    private String scan(CommandContext context, CommandArgs args) {
+        ScanOptions options = ScanOptions.parse(args, 0, true);
+        return reply(cacheService.scan(args.getRegion(), options.cursor, options.pattern, options.count, options.type));
+    }
+
+    /**
+     * HSCAN key cursor [MATCH pattern] [COUNT count]
+     */
+    private String hscan(CommandContext context, CommandArgs args) {
+        ScanOptions options = ScanOptions.parse(args, 1, false);
+        return reply(extendedCacheService.hscan(regionOf(args), args.getString(0),
+                options.cursor, options.pattern, options.count));
+    }
+
+    /**
+     * SSCAN key cursor [MATCH pattern] [COUNT count]
+     */
+    private String sscan(CommandContext context, CommandArgs args) {
+        ScanOptions options = ScanOptions.parse(args, 1, false);
+        return reply(extendedCacheService.sscan(regionOf(args), args.getString(0),
+                options.cursor, options.pattern, options.count));
+    }
+
+    /**
+     * ZSCAN key cursor [MATCH pattern] [COUNT count]
+     */
+    private String zscan(CommandContext context, CommandArgs args) {
+        ScanOptions options = ScanOptions.parse(args, 1, false);
+        return reply(extendedCacheService.zscan(regionOf(args), args.getString(0),
+                options.cursor, options.pattern, options.count));
+    }
+
+    private String regionOf(CommandArgs args) {
+        return args.getRegion() != null ? args.getRegion() : cacheService.getDefaultRegion();
+    }
+
+    private static String reply(RedisCommandService.ScanResult result) {
+        return RespReply.arrayHeader(2)
+                + RespReply.bulk(Long.toString(result.getCursor()))
+                + RespReply.bulkArray(result.getKeys());
+    }
+
+    /**
+     * Cursor and options of a SCAN family command, starting at argument {@code cursorIndex}.
+     */
+    private static final class ScanOptions {
+        private long cursor;
+        private String pattern;
+        private int count = DEFAULT_COUNT;
+        private DataType type;
+
+        static ScanOptions parse(CommandArgs args, int cursorIndex, boolean allowType) {
+            ScanOptions options = new ScanOptions();
+            try {
+                options.cursor = Long.parseLong(args.getString(cursorIndex));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            if (options.cursor < 0) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+
+            for (int i = cursorIndex + 1; i < args.size(); i += 2) {
+                String option = args.getString(i);
+                if (i + 1 >= args.size()) {
+                    throw new IllegalArgumentException("syntax error");
+                }
+                if ("MATCH".equalsIgnoreCase(option)) {
+                    options.pattern = args.getString(i + 1);
+                } else if ("COUNT".equalsIgnoreCase(option)) {
+                    long count = args.getLong(i + 1);
+                    if (count < 1) {
+                        throw new IllegalArgumentException("syntax error");
+                    }
+                    options.count = (int) Math.min(count, Integer.MAX_VALUE);
+                } else if ("TYPE".equalsIgnoreCase(option) && allowType) {
+                    options.type = parseType(args.getString(i + 1));
+                } else {
+                    throw new IllegalArgumentException("syntax error");
+                }
+            }
+            return options;
+        }
+
+        private static DataType parseType(String name) {
+            switch (name.toLowerCase()) {
+                case "string": return DataType.STRING;
+                case "hash": return DataType.HASH;
+                case "list": return DataType.LIST;
+                case "set": return DataType.SET;
+                case "zset": return DataType.SORTED_SET;
+                default: throw new IllegalArgumentException("unknown type name '" + name + "'");
+            }
+        }
+    }
+}
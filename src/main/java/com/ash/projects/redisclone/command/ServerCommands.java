@@ -0,0 +1,254 @@
+package com.ash.projects.redisclone.command;
+
+import com.ash.projects.redisclone.network.NetworkServer;
+import com.ash.projects.redisclone.network.RespReply;
+import com.ash.projects.redisclone.repository.CacheRepository;
+import com.ash.projects.redisclone.service.ClientTrackingService;
+import com.ash.projects.redisclone.service.LatencyStatsService;
+import com.ash.projects.redisclone.service.PubSubService;
+import com.ash.projects.redisclone.service.RedisCommandService;
+import com.ash.projects.redisclone.service.SlowLogService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.ash.projects.redisclone.command.CommandSpec.*;
+
+/**
+ * Server commands: INFO, COMMAND, SLOWLOG, LATENCY
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+@Component
+public class ServerCommands {
+
+    @Autowired
+    private CommandRegistry registry;
+
+    @Autowired
+    private RedisCommandService commandService;
+
+    @Autowired
+    private ClientTrackingService trackingService;
+
+    @Autowired
+    private SlowLogService slowLog;
+
+    @Autowired
+    private PubSubService pubSubService;
+
+    @Autowired
+    private LatencyStatsService latencyStats;
+
+    @Autowired
+    private CacheRepository cacheRepository;
+
+    // Absent when network.server.enabled=false
+    @Autowired(required = false)
+    private NetworkServer networkServer;
+
+    @PostConstruct
+    public void registerCommands() {
+        registry.register("INFO", -1, 0, 0, 0, 0, this::info);
+        registry.register("COMMAND", -1, 0, 0, 0, 0, this::command);
+        registry.register("SLOWLOG", -2, ADMIN, 0, 0, 0, this::slowlog);
+        registry.register("LATENCY", -2, ADMIN, 0, 0, 0, this::latency);
+    }
+
+    /**
+     * INFO [section]
+     * The commandstats and latencystats sections are only included when asked
+     * for by name or with "all" / "everything", as in Redis.
+     */
+    private String info(CommandContext context, CommandArgs args) {
+        String section = args.size() > 0 ? args.getString(0) : null;
+        var info = commandService.info(section);
+        StringBuilder response = new StringBuilder();
+
+        for (var entry : info.entrySet()) {
+            response.append(entry.getKey()).append(":").append(entry.getValue()).append("\r\n");
+        }
+        for (var entry : trackingService.getStats().entrySet()) {
+            response.append(entry.getKey()).append(":").append(entry.getValue()).append("\r\n");
+        }
+        for (var entry : pubSubService.getStats().entrySet()) {
+            response.append(entry.getKey()).append(":").append(entry.getValue()).append("\r\n");
+        }
+        for (var entry : cacheRepository.getPersistenceStats().entrySet()) {
+            response.append(entry.getKey()).append(":").append(entry.getValue()).append("\r\n");
+        }
+        if (networkServer != null) {
+            for (var entry : networkServer.getStats().entrySet()) {
+                response.append(entry.getKey()).append(":").append(entry.getValue()).append("\r\n");
+            }
+        }
+
+        boolean all = "all".equalsIgnoreCase(section) || "everything".equalsIgnoreCase(section);
+        if (all || "commandstats".equalsIgnoreCase(section)) {
+            response.append("# Commandstats\r\n");
+            for (var entry : latencyStats.getCommandStats().entrySet()) {
+                LatencyStatsService.CallStats stats = entry.getValue();
+                response.append("cmdstat_").append(entry.getKey().toLowerCase())
+                        .append(":calls=").append(stats.getCalls())
+                        .append(",usec=").append(stats.getHistogram().getTotalMicros())
+                        .append(",usec_per_call=").append(String.format("%.2f", stats.getHistogram().getMeanMicros()))
+                        .append(",rejected_calls=").append(stats.getRejectedCalls())
+                        .append(",failed_calls=").append(stats.getFailedCalls())
+                        .append("\r\n");
+            }
+        }
+        if (all || "latencystats".equalsIgnoreCase(section)) {
+            response.append("# Latencystats\r\n");
+            appendLatencyStats(response, "latency_percentiles_usec_", latencyStats.getCommandStats());
+            appendLatencyStats(response, "repository_latency_percentiles_usec_", latencyStats.getRepositoryStats());
+        }
+
+        return RespReply.bulk(response.toString());
+    }
+
+    private void appendLatencyStats(StringBuilder response, String prefix,
+                                    Map<String, LatencyStatsService.CallStats> stats) {
+        for (var entry : stats.entrySet()) {
+            LatencyStatsService.CallStats callStats = entry.getValue();
+            if (callStats.getCalls() == 0) {
+                continue;
+            }
+            response.append(prefix).append(entry.getKey().toLowerCase())
+                    .append(":p50=").append(callStats.getP50())
+                    .append(",p99=").append(callStats.getP99())
+                    .append(",p99.9=").append(callStats.getP999())
+                    .append(",max=").append(callStats.getMax())
+                    .append("\r\n");
+        }
+    }
+
+    /**
+     * COMMAND [COUNT | INFO name...]
+     * Replies with name, arity and first/last/step key positions for each command.
+     */
+    private String command(CommandContext context, CommandArgs args) {
+        if (args.size() > 0 && "COUNT".equalsIgnoreCase(args.getString(0))) {
+            return RespReply.integer(registry.getCommands().size());
+        }
+
+        StringBuilder reply = new StringBuilder();
+        int count = 0;
+        if (args.size() > 0 && "INFO".equalsIgnoreCase(args.getString(0))) {
+            for (int i = 1; i < args.size(); i++) {
+                CommandSpec spec = registry.lookup(args.getString(i));
+                appendCommandInfo(reply, spec);
+                count++;
+            }
+        } else if (args.size() > 0) {
+            return RespReply.error("unknown subcommand '" + args.getString(0) + "'");
+        } else {
+            for (CommandSpec spec : registry.getCommands()) {
+                appendCommandInfo(reply, spec);
+                count++;
+            }
+        }
+
+        return RespReply.arrayHeader(count) + reply;
+    }
+
+    /**
+     * SLOWLOG GET [count] | LEN | RESET
+     * Each GET entry: id, unix time, duration (us), arguments, client address,
+     * client name, repository calls (0 = served from memory).
+     */
+    private String slowlog(CommandContext context, CommandArgs args) {
+        String subcommand = args.getString(0);
+
+        if ("GET".equalsIgnoreCase(subcommand) && args.size() <= 2) {
+            int count = args.size() == 2 ? (int) args.getLong(1) : 10;
+            List<SlowLogService.Entry> entries = slowLog.get(count);
+
+            StringBuilder reply = new StringBuilder(RespReply.arrayHeader(entries.size()));
+            for (SlowLogService.Entry entry : entries) {
+                reply.append(RespReply.arrayHeader(7))
+                        .append(RespReply.integer(entry.getId()))
+                        .append(RespReply.integer(entry.getTimestamp()))
+                        .append(RespReply.integer(entry.getDurationMicros()))
+                        .append(RespReply.bulkArray(Arrays.asList(entry.getArgs())))
+                        .append(RespReply.bulk(entry.getClientAddress() != null ? entry.getClientAddress() : ""))
+                        .append(RespReply.bulk(entry.getClientName() != null ? entry.getClientName() : ""))
+                        .append(RespReply.integer(entry.getRepositoryCalls()));
+            }
+            return reply.toString();
+        }
+        if ("LEN".equalsIgnoreCase(subcommand) && args.size() == 1) {
+            return RespReply.integer(slowLog.length());
+        }
+        if ("RESET".equalsIgnoreCase(subcommand) && args.size() == 1) {
+            slowLog.reset();
+            return RespReply.OK;
+        }
+
+        return RespReply.error("unknown subcommand or wrong number of arguments for '" + subcommand + "'");
+    }
+
+    /**
+     * LATENCY HISTOGRAM [command ...] | RESET
+     * HISTOGRAM replies with a map of command -> {calls, histogram_usec}, where
+     * histogram_usec maps power-of-two bucket bounds to cumulative call counts.
+     */
+    private String latency(CommandContext context, CommandArgs args) {
+        String subcommand = args.getString(0);
+
+        if ("HISTOGRAM".equalsIgnoreCase(subcommand)) {
+            Map<String, LatencyStatsService.CallStats> all = latencyStats.getCommandStats();
+            Map<String, LatencyStatsService.CallStats> selected = new TreeMap<>();
+            if (args.size() == 1) {
+                selected.putAll(all);
+            } else {
+                for (int i = 1; i < args.size(); i++) {
+                    CommandSpec spec = registry.lookup(args.getString(i));
+                    if (spec != null && all.containsKey(spec.getName())) {
+                        selected.put(spec.getName(), all.get(spec.getName()));
+                    }
+                }
+            }
+
+            int protocol = context.getProtocolVersion();
+            StringBuilder reply = new StringBuilder(RespReply.mapHeader(selected.size(), protocol));
+            for (var entry : selected.entrySet()) {
+                Map<Long, Long> buckets = entry.getValue().getHistogram().getPowerOfTwoBuckets();
+                reply.append(RespReply.bulk(entry.getKey().toLowerCase()))
+                        .append(RespReply.mapHeader(2, protocol))
+                        .append(RespReply.bulk("calls"))
+                        .append(RespReply.integer(entry.getValue().getCalls()))
+                        .append(RespReply.bulk("histogram_usec"))
+                        .append(RespReply.mapHeader(buckets.size(), protocol));
+                for (var bucket : buckets.entrySet()) {
+                    reply.append(RespReply.integer(bucket.getKey())).append(RespReply.integer(bucket.getValue()));
+                }
+            }
+            return reply.toString();
+        }
+        if ("RESET".equalsIgnoreCase(subcommand) && args.size() == 1) {
+            latencyStats.reset();
+            return RespReply.OK;
+        }
+
+        return RespReply.error("unknown subcommand or wrong number of arguments for '" + subcommand + "'");
+    }
+
+    private void appendCommandInfo(StringBuilder reply, CommandSpec spec) {
+        if (spec == null) {
+            reply.append(RespReply.NULL_BULK);
+            return;
+        }
+        reply.append(RespReply.arrayHeader(5))
+                .append(RespReply.bulk(spec.getName()))
+                .append(RespReply.integer(spec.getArity()))
+                .append(RespReply.integer(spec.getFirstKey()))
+                .append(RespReply.integer(spec.getLastKey()))
+                .append(RespReply.integer(spec.getStep()));
+    }
+}
@@ -0,0 +1,128 @@
+package com.ash.projects.redisclone.command;
+
+import com.ash.projects.redisclone.network.RespCommand;
+import com.ash.projects.redisclone.network.RespReply;
+import com.ash.projects.redisclone.service.CacheService;
+import com.ash.projects.redisclone.service.RedisCommandService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.ash.projects.redisclone.command.CommandSpec.*;
+
+/**
+ * String commands: SET, B64SET, GET, MGET, MSET, INCR, DECR, APPEND
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+@Component
+public class StringCommands {
+
+    @Autowired
+    private CommandRegistry registry;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private RedisCommandService commandService;
+
+    @PostConstruct
+    public void registerCommands() {
+        registry.register("SET", -3, WRITE, 1, 1, 1, this::set);
+        registry.register("B64SET", -3, WRITE, 1, 1, 1, this::b64set);
+        registry.register("GET", 2, READONLY | FAST, 1, 1, 1, this::get);
+        registry.register("MGET", -2, READONLY | FAST, 1, -1, 1, this::mget);
+        registry.register("MSET", -3, WRITE, 1, -1, 2, this::mset);
+        registry.register("INCR", 2, WRITE | FAST, 1, 1, 1, this::incr);
+        registry.register("DECR", 2, WRITE | FAST, 1, 1, 1, this::decr);
+        registry.register("APPEND", 3, WRITE | FAST, 1, 1, 1, this::append);
+    }
+
+    /**
+     * SET key value [EX seconds]
+     */
+    private String set(CommandContext context, CommandArgs args) {
+        return set(args, args.getValue(1));
+    }
+
+    /**
+     * B64SET key base64value [EX seconds] - value is decoded before it is stored.
+     * Kept for inline (telnet style) clients, which would otherwise have to quote
+     * and escape the value; the decoded value must be UTF-8 like any other.
+     */
+    private String b64set(CommandContext context, CommandArgs args) {
+        byte[] decodedBytes = Base64.getDecoder().decode(args.getString(1));
+        RespCommand.checkUtf8(decodedBytes);
+        return set(args, new String(decodedBytes, StandardCharsets.UTF_8));
+    }
+
+    private String set(CommandArgs args, String value) {
+        Long expiresAt = null;
+
+        // Check for EX option
+        if (args.size() > 3 && "EX".equalsIgnoreCase(args.getString(2))) {
+            long seconds = args.getLong(3);
+            expiresAt = System.currentTimeMillis() + (seconds * 1000);
+        }
+
+        cacheService.set(args.getRegion(), args.getString(0), value, expiresAt);
+        return RespReply.OK;
+    }
+
+    private String get(CommandContext context, CommandArgs args) {
+        Consumer<ByteBuffer> writer = context.getBulkReplyWriter();
+        if (writer == null) {
+            // Null bulk string when missing; length is in bytes, not chars
+            return RespReply.bulk(cacheService.get(args.getRegion(), args.getString(0)));
+        }
+        // Straight into the reply buffer, without a String for off-heap values
+        return cacheService.get(args.getRegion(), args.getString(0), writer) ? RespReply.WRITTEN : RespReply.NULL_BULK;
+    }
+
+    /**
+     * MGET key [key ...] - one reply array, null bulk for missing or non-string keys
+     */
+    private String mget(CommandContext context, CommandArgs args) {
+        return RespReply.bulkArray(cacheService.mget(args.getRegion(), Arrays.asList(args.getStrings(0))));
+    }
+
+    /**
+     * MSET key value [key value ...]
+     */
+    private String mset(CommandContext context, CommandArgs args) {
+        if (args.size() % 2 != 0) {
+            return RespReply.error("wrong number of arguments for 'MSET' command");
+        }
+
+        // Later pairs win for repeated keys, as in Redis
+        Map<String, String> keyValues = new LinkedHashMap<>();
+        for (int i = 0; i < args.size(); i += 2) {
+            keyValues.put(args.getString(i), args.getValue(i + 1));
+        }
+
+        cacheService.mset(args.getRegion(), keyValues);
+        return RespReply.OK;
+    }
+
+    private String incr(CommandContext context, CommandArgs args) {
+        return RespReply.integer(commandService.incr(args.getRegion(), args.getString(0)));
+    }
+
+    private String decr(CommandContext context, CommandArgs args) {
+        return RespReply.integer(commandService.decr(args.getRegion(), args.getString(0)));
+    }
+
+    private String append(CommandContext context, CommandArgs args) {
+        return RespReply.integer(commandService.append(args.getRegion(), args.getString(0), args.getValue(1)));
+    }
+}
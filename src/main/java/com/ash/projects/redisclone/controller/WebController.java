@@ -1,6 +1,9 @@
 package com.ash.projects.redisclone.controller;
 
+import com.ash.projects.redisclone.command.CommandContext;
+import com.ash.projects.redisclone.command.CommandRegistry;
 import com.ash.projects.redisclone.model.User;
+import com.ash.projects.redisclone.network.RespCommand;
 import com.ash.projects.redisclone.repository.CacheRepository;
 import com.ash.projects.redisclone.service.*;
 import jakarta.servlet.http.HttpSession;
@@ -8,11 +11,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.*;
 
 /**
@@ -48,6 +54,23 @@ public class WebController {
     @Autowired
     private CacheRepository cacheRepository;
 
+    @Autowired
+    private CommandRegistry commandRegistry;
+
+    @Autowired
+    private SlowLogService slowLogService;
+
+    @Autowired
+    private LatencyStatsService latencyStatsService;
+
+    // Prometheus scrape endpoint (/metrics), off unless enabled
+    @Value("${web.metrics.enabled:false}")
+    private boolean metricsEnabled;
+
+    // Scrapers authenticate with "Authorization: Bearer <token>"; empty = logged-in web users only
+    @Value("${web.metrics.token:}")
+    private String metricsToken;
+
     @Value("${cache.rocksdb.base.path:./data/rocksdb}")
     private String rocksDbBasePath;
 
@@ -428,8 +451,13 @@ public class WebController {
             return "redirect:/region/" + region;
         }
 
-        Long expiresAt = ttl != null && ttl > 0 ? System.currentTimeMillis() + (ttl * 1000L) : null;
-        cacheService.set(region, key, value, expiresAt);
+        String reply = ttl != null && ttl > 0
+                ? executeCommand(user, "SET", "@" + region, key, value, "EX", String.valueOf(ttl))
+                : executeCommand(user, "SET", "@" + region, key, value);
+        if (isError(reply)) {
+            redirectAttributes.addFlashAttribute("error", "Error creating entry: " + reply.substring(1).trim());
+            return "redirect:/region/" + region;
+        }
 
         redirectAttributes.addFlashAttribute("success", "Entry created successfully");
         return "redirect:/entry/" + region + "/" + key;
@@ -497,8 +525,13 @@ public class WebController {
             return "redirect:/entry/" + region + "/" + key;
         }
 
-        Long expiresAt = ttl != null && ttl > 0 ? System.currentTimeMillis() + (ttl * 1000) : null;
-        cacheService.set(region, key, value, expiresAt);
+        String reply = ttl != null && ttl > 0
+                ? executeCommand(user, "SET", "@" + region, key, value, "EX", String.valueOf(ttl))
+                : executeCommand(user, "SET", "@" + region, key, value);
+        if (isError(reply)) {
+            redirectAttributes.addFlashAttribute("error", "Error updating entry: " + reply.substring(1).trim());
+            return "redirect:/entry/" + region + "/" + key;
+        }
 
         redirectAttributes.addFlashAttribute("success", "Entry updated successfully");
         return "redirect:/entry/" + region + "/" + key;
@@ -524,7 +557,11 @@ public class WebController {
             return "redirect:/region/" + region;
         }
 
-        cacheService.del(region, key);
+        String reply = executeCommand(user, "DEL", "@" + region, key);
+        if (isError(reply)) {
+            redirectAttributes.addFlashAttribute("error", "Error deleting entry: " + reply.substring(1).trim());
+            return "redirect:/region/" + region;
+        }
 
         redirectAttributes.addFlashAttribute("success", "Entry deleted successfully");
         return "redirect:/region/" + region;
@@ -560,9 +597,82 @@ public class WebController {
             model.addAttribute("pubsubStats", pubSubService.getSubscriberCounts());
         }
 
+        model.addAttribute("commandStats", latencyStatsService.getCommandStats());
+        model.addAttribute("repositoryStats", latencyStatsService.getRepositoryStats());
+        model.addAttribute("slowlog", slowLogService.get(25));
+        model.addAttribute("slowlogLength", slowLogService.length());
+        model.addAttribute("slowlogThreshold", slowLogService.getSlowerThanMicros());
+
         return "stats";
     }
 
+    /**
+     * Command and repository latency in Prometheus text format, for scraping.
+     * Latencies are summaries in microseconds with p50/p99/p99.9 quantiles.
+     */
+    @GetMapping(value = "/metrics", produces = "text/plain; version=0.0.4; charset=utf-8")
+    @ResponseBody
+    public ResponseEntity<String> metrics(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                          HttpSession session) {
+        if (!metricsEnabled) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isMetricsAuthorized(authorization, session)) {
+            return ResponseEntity.status(401).header("WWW-Authenticate", "Bearer").build();
+        }
+
+        StringBuilder out = new StringBuilder();
+        Map<String, LatencyStatsService.CallStats> commands = latencyStatsService.getCommandStats();
+
+        out.append("# HELP ashredis_command_calls_total Commands executed\n");
+        out.append("# TYPE ashredis_command_calls_total counter\n");
+        commands.forEach((name, stats) -> appendMetric(out, "ashredis_command_calls_total",
+                "command", name, null, stats.getCalls()));
+
+        out.append("# HELP ashredis_command_failed_calls_total Commands that replied with an error\n");
+        out.append("# TYPE ashredis_command_failed_calls_total counter\n");
+        commands.forEach((name, stats) -> appendMetric(out, "ashredis_command_failed_calls_total",
+                "command", name, null, stats.getFailedCalls()));
+
+        out.append("# HELP ashredis_command_rejected_calls_total Commands refused before running\n");
+        out.append("# TYPE ashredis_command_rejected_calls_total counter\n");
+        commands.forEach((name, stats) -> appendMetric(out, "ashredis_command_rejected_calls_total",
+                "command", name, null, stats.getRejectedCalls()));
+
+        appendLatencySummary(out, "ashredis_command_latency_microseconds", "Command execution time",
+                "command", commands);
+        appendLatencySummary(out, "ashredis_repository_latency_microseconds", "Repository call time",
+                "operation", latencyStatsService.getRepositoryStats());
+
+        return ResponseEntity.ok(out.toString());
+    }
+
+    private void appendLatencySummary(StringBuilder out, String metric, String help, String label,
+                                      Map<String, LatencyStatsService.CallStats> stats) {
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(" summary\n");
+        stats.forEach((name, callStats) -> {
+            appendMetric(out, metric, label, name, "0.5", callStats.getP50());
+            appendMetric(out, metric, label, name, "0.99", callStats.getP99());
+            appendMetric(out, metric, label, name, "0.999", callStats.getP999());
+            appendMetric(out, metric + "_sum", label, name, null, callStats.getHistogram().getTotalMicros());
+            appendMetric(out, metric + "_count", label, name, null, callStats.getCalls());
+        });
+
+        out.append("# HELP ").append(metric).append("_max Longest call since startup\n");
+        out.append("# TYPE ").append(metric).append("_max gauge\n");
+        stats.forEach((name, callStats) -> appendMetric(out, metric + "_max", label, name, null, callStats.getMax()));
+    }
+
+    private void appendMetric(StringBuilder out, String metric, String label, String value,
+                              String quantile, long sample) {
+        out.append(metric).append('{').append(label).append("=\"").append(value.toLowerCase()).append('"');
+        if (quantile != null) {
+            out.append(",quantile=\"").append(quantile).append('"');
+        }
+        out.append("} ").append(sample).append('\n');
+    }
+
     @GetMapping("/search")
     public String search(HttpSession session, Model model) {
         User user = (User) session.getAttribute("user");
@@ -640,6 +750,36 @@ public class WebController {
         return "search";
     }
 
+    /**
+     * /metrics is served to a logged-in web user, or to a scraper presenting web.metrics.token
+     */
+    private boolean isMetricsAuthorized(String authorization, HttpSession session) {
+        if (session.getAttribute("user") != null) {
+            return true;
+        }
+        if (metricsToken == null || metricsToken.isEmpty() || authorization == null
+                || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        return MessageDigest.isEqual(metricsToken.getBytes(StandardCharsets.UTF_8),
+                authorization.substring("Bearer ".length()).trim().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Run a command on behalf of a web user; the registry enforces arity and
+     * rejects write commands for non-admin users
+     */
+    private String executeCommand(User user, String... args) {
+        CommandContext context = new CommandContext(false, !userService.isAdmin(user));
+        context.setClientAddress("web");
+        context.setClientName(user.getUserid());
+        return commandRegistry.dispatch(context, new RespCommand(args));
+    }
+
+    private boolean isError(String reply) {
+        return reply.startsWith("-");
+    }
+
     /**
      * Inner class for search results
      * Represents a search result entry with region, key, value, and TTL information
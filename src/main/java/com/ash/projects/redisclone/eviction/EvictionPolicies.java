@@ -0,0 +1,127 @@
+package com.ash.projects.redisclone.eviction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Names and construction of the eviction policies.
+ *
+ * The global policy is set with cache.eviction.policy; individual regions can
+ * use another one with cache.eviction.policy.regions, e.g.
+ * {@code sessions:lfu,reports:w-tinylfu}. Regions sharing a policy name share
+ * one policy instance (and so, for W-TinyLFU, one frequency sketch).
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public final class EvictionPolicies {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvictionPolicies.class);
+
+    public static final String LRU = "lru";
+    public static final String LFU = "lfu";
+    public static final String W_TINYLFU = "w-tinylfu";
+    public static final String VOLATILE_TTL = "volatile-ttl";
+    public static final String RANDOM = "random";
+
+    private static final Set<String> KNOWN = Set.of(LRU, LFU, W_TINYLFU, VOLATILE_TTL, RANDOM);
+
+    private final long capacity;
+    private final int lfuLogFactor;
+    private final long lfuDecayMinutes;
+    private final int windowPercent;
+
+    private final Map<String, EvictionPolicy> byName = new HashMap<>();
+    private final Map<String, EvictionPolicy> byRegion = new HashMap<>();
+    private EvictionPolicy defaultPolicy;
+
+    /**
+     * @param capacity        expected number of entries in memory (sizes the W-TinyLFU sketch)
+     * @param lfuLogFactor    see {@link LfuEvictionPolicy}
+     * @param lfuDecayMinutes see {@link LfuEvictionPolicy}
+     * @param windowPercent   see {@link WTinyLfuEvictionPolicy}
+     */
+    public EvictionPolicies(long capacity, int lfuLogFactor, long lfuDecayMinutes, int windowPercent) {
+        this.capacity = capacity;
+        this.lfuLogFactor = lfuLogFactor;
+        this.lfuDecayMinutes = lfuDecayMinutes;
+        this.windowPercent = windowPercent;
+    }
+
+    /**
+     * @param defaultPolicy  value of cache.eviction.policy
+     * @param regionPolicies value of cache.eviction.policy.regions (region:policy, comma separated)
+     */
+    public EvictionPolicies configure(String defaultPolicy, String regionPolicies) {
+        this.defaultPolicy = get(defaultPolicy);
+        if (regionPolicies != null && !regionPolicies.isBlank()) {
+            for (String mapping : regionPolicies.split(",")) {
+                int separator = mapping.lastIndexOf(':');
+                if (separator <= 0) {
+                    logger.warn("Ignoring eviction policy mapping '{}', expected region:policy", mapping.trim());
+                    continue;
+                }
+                byRegion.put(mapping.substring(0, separator).trim(), get(mapping.substring(separator + 1)));
+            }
+        }
+        return this;
+    }
+
+    public EvictionPolicy forRegion(String region) {
+        EvictionPolicy policy = byRegion.get(region);
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    public EvictionPolicy getDefault() {
+        return defaultPolicy;
+    }
+
+    public Map<String, String> getRegionOverrides() {
+        Map<String, String> overrides = new HashMap<>();
+        byRegion.forEach((region, policy) -> overrides.put(region, policy.getName()));
+        return overrides;
+    }
+
+    private EvictionPolicy get(String name) {
+        String normalized = normalize(name);
+        if (!KNOWN.contains(normalized)) {
+            logger.warn("Unknown eviction policy '{}', defaulting to LRU", name);
+            normalized = LRU;
+        }
+        return byName.computeIfAbsent(normalized, this::create);
+    }
+
+    private EvictionPolicy create(String name) {
+        switch (name) {
+            case LRU:
+                return new LruEvictionPolicy();
+            case LFU:
+                return new LfuEvictionPolicy(lfuLogFactor, lfuDecayMinutes);
+            case W_TINYLFU:
+                return new WTinyLfuEvictionPolicy(capacity, windowPercent);
+            case VOLATILE_TTL:
+                return new VolatileTtlEvictionPolicy();
+            case RANDOM:
+                return new RandomEvictionPolicy();
+            default:
+                return new LruEvictionPolicy();
+        }
+    }
+
+    // Accepts LRU, allkeys-lru, W_TINYLFU, tinylfu, ...
+    static String normalize(String name) {
+        String normalized = name == null ? LRU : name.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+        if (normalized.startsWith("allkeys-")) {
+            normalized = normalized.substring("allkeys-".length());
+        }
+        if (normalized.equals("tinylfu") || normalized.equals("wtinylfu")) {
+            normalized = W_TINYLFU;
+        }
+        return normalized.isEmpty() ? LRU : normalized;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ash.projects.redisclone.eviction;
+
+import com.ash.projects.redisclone.model.CacheEntry;
+
+/**
+ * Decides which in-memory entries are evicted to persistent storage when the
+ * memory budget (cache.max.memory.objects / cache.max.memory.bytes) is full.
+ *
+ * Victims are found by sampling (see SampledEvictor): the policy only has to
+ * rank the sampled entries, so it needs no ordered structure of its own and
+ * the access hook can stay lock-free. All hooks may be called concurrently.
+ *
+ * Configured with cache.eviction.policy, and per region with
+ * cache.eviction.policy.regions (see EvictionPolicies).
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public interface EvictionPolicy {
+
+    String getName();
+
+    /**
+     * An entry entered memory (written, or loaded from storage).
+     */
+    default void onInsert(CacheEntry entry, long now) {
+    }
+
+    /**
+     * An in-memory entry was read. Called after its access stamp was refreshed.
+     */
+    default void onAccess(CacheEntry entry, long now) {
+    }
+
+    /**
+     * An entry left memory (deleted, replaced or evicted).
+     */
+    default void onRemove(CacheEntry entry) {
+    }
+
+    /**
+     * @param now coarse current time in milliseconds
+     * @return how strongly the entry should be evicted; the sampled entry with
+     *         the highest priority is evicted first
+     */
+    long evictionPriority(CacheEntry entry, long now);
+
+    /**
+     * Whether misses while memory is full are offered to {@link #admit}. Without
+     * an admission filter such entries are served from storage and memory is
+     * left as it is.
+     */
+    default boolean hasAdmissionFilter() {
+        return false;
+    }
+
+    /**
+     * Whether an entry read from storage while memory is full should take the
+     * place of the chosen victim. Only called if {@link #hasAdmissionFilter()}.
+     */
+    default boolean admit(CacheEntry candidate, CacheEntry victim, long now) {
+        return false;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ash.projects.redisclone.eviction;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch of 4-bit counters estimating how often each key was
+ * accessed recently, as used by TinyLFU. Four counters per key are packed in
+ * one word of the table, so an increment touches a single cache line.
+ *
+ * After 10 x capacity increments every counter is halved, so the sketch
+ * forgets old popularity and follows the current workload.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_FREQUENCY = 15;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * @param capacity expected number of entries held in memory
+     */
+    public FrequencySketch(long capacity) {
+        int size = (int) Math.min(1 << 24, Math.max(64, Long.highestOneBit(Math.max(1, capacity) - 1) << 1));
+        this.table = new AtomicLongArray(size);
+        this.tableMask = size - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE / 2, 10L * Math.max(capacity, 64));
+    }
+
+    /**
+     * @return the estimated recent access count of the key, 0 to 15
+     */
+    public int frequency(int keyHash) {
+        int hash = spread(keyHash);
+        int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < 4; i++) {
+            long word = table.get(indexOf(hash, i));
+            int counter = (int) ((word >>> ((start + i) << 2)) & 0xF);
+            frequency = Math.min(frequency, counter);
+        }
+        return frequency;
+    }
+
+    public void increment(int keyHash) {
+        int hash = spread(keyHash);
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && additions.incrementAndGet() == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counterIndex) {
+        int shift = counterIndex << 2;
+        long mask = 0xFL << shift;
+        while (true) {
+            long word = table.get(index);
+            if ((word & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(index, word, word + (1L << shift))) {
+                return true;
+            }
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length(); i++) {
+            long word;
+            do {
+                word = table.get(i);
+            } while (!table.compareAndSet(i, word, (word >>> 1) & RESET_MASK));
+        }
+        additions.addAndGet(-sampleSize / 2);
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ash.projects.redisclone.eviction;
+
+import com.ash.projects.redisclone.model.CacheEntry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Approximate LFU in the style of Redis: every entry carries an 8-bit
+ * logarithmic access counter that is decremented for every decay period it
+ * goes unread, so keys that were hot once do not stay in memory forever. The sampled entry with the lowest counter is evicted,
+ * the idlest one among equal counters.
+ *
+ * The counter and the minute it was last decayed are packed into the entry's
+ * eviction state. Concurrent readers of one entry may lose an increment; the
+ * counter is an estimate anyway.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class LfuEvictionPolicy implements EvictionPolicy {
+
+    // Counter given to new entries so they are not evicted before their second read
+    static final int INITIAL_COUNTER = 5;
+    private static final int MAX_COUNTER = 255;
+    private static final long IDLE_MASK = (1L << 40) - 1;
+    private static final long INITIALIZED = 1L << 62;
+
+    private final int logFactor;
+    private final long decayMinutes;
+
+    /**
+     * @param logFactor    higher = more reads needed to grow the counter
+     *                     (with 10, about one million reads saturate it)
+     * @param decayMinutes minutes without a read per counter decrement, 0 = never decay
+     */
+    public LfuEvictionPolicy(int logFactor, long decayMinutes) {
+        this.logFactor = Math.max(0, logFactor);
+        this.decayMinutes = Math.max(0, decayMinutes);
+    }
+
+    @Override
+    public String getName() {
+        return EvictionPolicies.LFU;
+    }
+
+    @Override
+    public void onInsert(CacheEntry entry, long now) {
+        // An overwritten key keeps the counter of the value it replaced
+        if (entry.getEvictionState() == 0) {
+            entry.setEvictionState(pack(toMinutes(now), INITIAL_COUNTER));
+        }
+    }
+
+    @Override
+    public void onAccess(CacheEntry entry, long now) {
+        int counter = increment(decayedCounter(entry, now));
+        entry.setEvictionState(pack(toMinutes(now), counter));
+    }
+
+    @Override
+    public long evictionPriority(CacheEntry entry, long now) {
+        long idle = Math.min(Math.max(0, now - entry.getLastAccessedAt()), IDLE_MASK);
+        return ((long) (MAX_COUNTER - decayedCounter(entry, now)) << 40) | idle;
+    }
+
+    int decayedCounter(CacheEntry entry, long now) {
+        long state = entry.getEvictionState();
+        if (state == 0) {
+            return INITIAL_COUNTER;
+        }
+        int counter = (int) (state & 0xFF);
+        if (decayMinutes == 0) {
+            return counter;
+        }
+        long periods = (toMinutes(now) - ((state & ~INITIALIZED) >>> 8)) / decayMinutes;
+        return periods >= counter ? 0 : counter - (int) periods;
+    }
+
+    private int increment(int counter) {
+        if (counter >= MAX_COUNTER) {
+            return MAX_COUNTER;
+        }
+        double base = Math.max(0, counter - INITIAL_COUNTER);
+        double probability = 1.0 / (base * logFactor + 1);
+        return ThreadLocalRandom.current().nextDouble() < probability ? counter + 1 : counter;
+    }
+
+    private static long toMinutes(long millis) {
+        return millis / 60_000;
+    }
+
+    private static long pack(long minutes, int counter) {
+        // Never 0, so a packed state is told apart from "not initialized"
+        return INITIALIZED | (minutes << 8) | counter;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ash.projects.redisclone.eviction;
+
+import com.ash.projects.redisclone.model.CacheEntry;
+
+/**
+ * Approximate LRU: evicts the sampled entry idle for the longest time.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class LruEvictionPolicy implements EvictionPolicy {
+
+    @Override
+    public String getName() {
+        return EvictionPolicies.LRU;
+    }
+
+    @Override
+    public long evictionPriority(CacheEntry entry, long now) {
+        return now - entry.getLastAccessedAt();
+    }
+}
@@ -0,0 +1,24 @@
+package com.ash.projects.redisclone.eviction;
+
+import com.ash.projects.redisclone.model.CacheEntry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Evicts a random sampled entry. No per-access work at all.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class RandomEvictionPolicy implements EvictionPolicy {
+
+    @Override
+    public String getName() {
+        return EvictionPolicies.RANDOM;
+    }
+
+    @Override
+    public long evictionPriority(CacheEntry entry, long now) {
+        return ThreadLocalRandom.current().nextLong();
+    }
+}
@@ -0,0 +1,180 @@
+package com.ash.projects.redisclone.eviction;
+
+import com.ash.projects.redisclone.model.CacheEntry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sampled eviction in the style of Redis: readers only update per-entry
+ * state (the access stamp, plus whatever the region's EvictionPolicy keeps),
+ * so a read never locks or mutates shared structures.
+ *
+ * To pick a victim, a few entries are sampled with a cursor that sweeps the
+ * in-memory regions one after the other, and ranked by the region's policy.
+ * The best candidates are kept in a small pool per region, highest eviction
+ * priority first; the first pool candidate that has not been touched (or
+ * replaced) since it was sampled is evicted. The cursor stays in a region
+ * until it has swept all of it, so each region gives up entries in proportion
+ * to its size, and priorities are only ever compared within one policy. Only
+ * evicting writers synchronize on the sampler.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class SampledEvictor {
+
+    private static final int POOL_SIZE = 16;
+
+    // Sampling rounds per victim before giving up (every candidate was touched meanwhile)
+    private static final int MAX_ROUNDS = 8;
+
+    private final Map<String, Map<String, CacheEntry>> memoryCache;
+    private final Function<String, EvictionPolicy> policies;
+    private final int samples;
+
+    // Region -> best candidates seen so far, highest eviction priority first
+    private final Map<String, List<Candidate>> pools = new HashMap<>();
+
+    private Iterator<String> regionCursor;
+    private String currentRegion;
+    private Iterator<CacheEntry> entryCursor;
+
+    /**
+     * @param policies the eviction policy of each region
+     * @param samples  entries sampled per victim
+     */
+    public SampledEvictor(Map<String, Map<String, CacheEntry>> memoryCache,
+                          Function<String, EvictionPolicy> policies, int samples) {
+        this.memoryCache = memoryCache;
+        this.policies = policies;
+        this.samples = Math.max(1, samples);
+    }
+
+    /**
+     * @param now coarse current time in milliseconds
+     * @return the entry to evict, or null if nothing is in memory
+     */
+    public synchronized Candidate selectVictim(long now) {
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            if (!hasEntriesToSample()) {
+                return null;
+            }
+            String region = currentRegion;
+            sample(region, policies.apply(region), now);
+            List<Candidate> pool = pools.get(region);
+            while (pool != null && !pool.isEmpty()) {
+                Candidate candidate = pool.remove(0);
+                if (candidate.isUnchanged(memoryCache)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forget pooled candidates of a dropped region.
+     */
+    public synchronized void removeRegion(String region) {
+        pools.remove(region);
+        if (region.equals(currentRegion)) {
+            entryCursor = null;
+        }
+    }
+
+    public synchronized void reset() {
+        pools.clear();
+        regionCursor = null;
+        currentRegion = null;
+        entryCursor = null;
+    }
+
+    private void sample(String region, EvictionPolicy policy, long now) {
+        for (int taken = 0; taken < samples && entryCursor.hasNext(); taken++) {
+            CacheEntry entry = entryCursor.next();
+            addToPool(region, entry, policy.evictionPriority(entry, now));
+        }
+    }
+
+    /**
+     * Position the cursor on a region that still has entries left to sweep.
+     */
+    private boolean hasEntriesToSample() {
+        int regionsVisited = 0;
+        while (entryCursor == null || !entryCursor.hasNext()) {
+            // Stop once every region has been looked at without finding anything
+            if (regionsVisited++ > memoryCache.size() || !advanceRegion()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean advanceRegion() {
+        if (regionCursor == null || !regionCursor.hasNext()) {
+            regionCursor = memoryCache.keySet().iterator();
+            if (!regionCursor.hasNext()) {
+                return false;
+            }
+        }
+        currentRegion = regionCursor.next();
+        Map<String, CacheEntry> regionCache = memoryCache.get(currentRegion);
+        entryCursor = regionCache != null ? regionCache.values().iterator() : null;
+        return true;
+    }
+
+    private void addToPool(String region, CacheEntry entry, long priority) {
+        List<Candidate> pool = pools.computeIfAbsent(region, k -> new ArrayList<>());
+        for (Candidate candidate : pool) {
+            if (candidate.entry == entry) {
+                return;
+            }
+        }
+        int index = 0;
+        while (index < pool.size() && pool.get(index).priority >= priority) {
+            index++;
+        }
+        if (index >= POOL_SIZE) {
+            return;
+        }
+        pool.add(index, new Candidate(region, entry, priority));
+        if (pool.size() > POOL_SIZE) {
+            pool.remove(pool.size() - 1);
+        }
+    }
+
+    /**
+     * A sampled entry, with its access stamp and eviction priority at sampling time.
+     */
+    public static final class Candidate {
+        private final String region;
+        private final CacheEntry entry;
+        private final long stamp;
+        private final long priority;
+
+        Candidate(String region, CacheEntry entry, long priority) {
+            this.region = region;
+            this.entry = entry;
+            this.stamp = entry.getLastAccessedAt();
+            this.priority = priority;
+        }
+
+        public String getRegion() { return region; }
+        public String getKey() { return entry.getKey(); }
+        public CacheEntry getEntry() { return entry; }
+
+        /**
+         * Still the same in-memory entry and not accessed since it was sampled
+         */
+        boolean isUnchanged(Map<String, Map<String, CacheEntry>> memoryCache) {
+            Map<String, CacheEntry> regionCache = memoryCache.get(region);
+            return regionCache != null && regionCache.get(entry.getKey()) == entry
+                    && entry.getLastAccessedAt() == stamp;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ash.projects.redisclone.eviction;
+
+import com.ash.projects.redisclone.model.CacheEntry;
+
+/**
+ * Evicts the sampled entry that expires soonest. Entries without a TTL are
+ * only evicted when no sampled entry has one, and then in LRU order (Redis
+ * would refuse to evict them; here eviction only moves them to storage).
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class VolatileTtlEvictionPolicy implements EvictionPolicy {
+
+    // Every entry with a TTL ranks above every entry without one
+    private static final long VOLATILE_BASE = 1L << 62;
+
+    @Override
+    public String getName() {
+        return EvictionPolicies.VOLATILE_TTL;
+    }
+
+    @Override
+    public long evictionPriority(CacheEntry entry, long now) {
+        Long expiresAt = entry.getExpiresAt();
+        if (expiresAt == null) {
+            return Math.min(now - entry.getLastAccessedAt(), VOLATILE_BASE - 1);
+        }
+        long remaining = Math.max(0, expiresAt - now);
+        return VOLATILE_BASE + (VOLATILE_BASE - 1 - Math.min(remaining, VOLATILE_BASE - 1));
+    }
+}
@@ -0,0 +1,99 @@
+package com.ash.projects.redisclone.eviction;
+
+import com.ash.projects.redisclone.model.CacheEntry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * W-TinyLFU adapted to sampled eviction.
+ *
+ * Every read and write is counted in a FrequencySketch (misses included), so
+ * the policy knows the recent popularity of keys that are not in memory.
+ * Entries are split in two segments by insertion order:
+ * <ul>
+ *   <li>window - the most recently inserted entries (a small share of the
+ *       memory budget); evicted in LRU order, and only when no sampled entry
+ *       of the main segment is left. New keys get a chance to prove themselves
+ *       here.</li>
+ *   <li>main - everything older; the sampled entry with the lowest sketch
+ *       frequency is evicted first, the idlest among equals. Keys that were
+ *       only seen once (a scan, a bulk export) leave memory first.</li>
+ * </ul>
+ * An entry read from storage while memory is full is only admitted if the
+ * sketch rates it more popular than the victim it would replace, so a large
+ * scan can not flush the frequently used working set.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class WTinyLfuEvictionPolicy implements EvictionPolicy {
+
+    private static final long MAIN_SEGMENT = 1L << 62;
+    private static final long IDLE_MASK = (1L << 40) - 1;
+    private static final int MAX_FREQUENCY = 15;
+
+    private final FrequencySketch sketch;
+    private final long windowSize;
+
+    // Insertion sequence; an entry's eviction state holds the value it was inserted at
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * @param capacity      expected number of entries held in memory
+     * @param windowPercent share of the capacity forming the admission window
+     */
+    public WTinyLfuEvictionPolicy(long capacity, int windowPercent) {
+        this.sketch = new FrequencySketch(capacity);
+        this.windowSize = Math.max(1, capacity * Math.max(0, Math.min(100, windowPercent)) / 100);
+    }
+
+    @Override
+    public String getName() {
+        return EvictionPolicies.W_TINYLFU;
+    }
+
+    @Override
+    public void onInsert(CacheEntry entry, long now) {
+        sketch.increment(keyHash(entry));
+        // An overwritten key keeps its place instead of re-entering the window
+        if (entry.getEvictionState() == 0) {
+            entry.setEvictionState(insertions.incrementAndGet());
+        }
+    }
+
+    @Override
+    public void onAccess(CacheEntry entry, long now) {
+        sketch.increment(keyHash(entry));
+    }
+
+    @Override
+    public long evictionPriority(CacheEntry entry, long now) {
+        long idle = Math.min(Math.max(0, now - entry.getLastAccessedAt()), IDLE_MASK);
+        if (insertions.get() - entry.getEvictionState() < windowSize) {
+            return idle;
+        }
+        int frequency = sketch.frequency(keyHash(entry));
+        return MAIN_SEGMENT | ((long) (MAX_FREQUENCY - frequency) << 40) | idle;
+    }
+
+    @Override
+    public boolean hasAdmissionFilter() {
+        return true;
+    }
+
+    /**
+     * TinyLFU admission: the miss itself is counted first, then the candidate
+     * has to be strictly more popular than the victim.
+     */
+    @Override
+    public boolean admit(CacheEntry candidate, CacheEntry victim, long now) {
+        int candidateHash = keyHash(candidate);
+        sketch.increment(candidateHash);
+        return sketch.frequency(candidateHash) > sketch.frequency(keyHash(victim));
+    }
+
+    private static int keyHash(CacheEntry entry) {
+        String region = entry.getRegion();
+        return (region != null ? region.hashCode() * 31 : 0) + entry.getKey().hashCode();
+    }
+}
@@ -1,8 +1,17 @@
 package com.ash.projects.redisclone.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 /**
  * Base Cache Entry
@@ -15,11 +24,16 @@ public class CacheEntry implements Serializable {
     private String key;
     private String region;
     private DataType dataType;
+    // The value, or an OffHeapValue / CompressedValue standing in for a string
     private Object value;
     private long createdAt;
     private long lastAccessedAt;
     private Long expiresAt;
     private boolean inMemory;
+    // Bytes charged to the memory budget while in memory (not persisted)
+    private transient long memoryBytes;
+    // Owned by the region's eviction policy, e.g. the LFU counter (not persisted)
+    private transient long evictionState;
 
     public CacheEntry() {
         this.createdAt = System.currentTimeMillis();
@@ -51,6 +65,17 @@ public class CacheEntry implements Serializable {
         this.lastAccessedAt = System.currentTimeMillis();
     }
 
+    /**
+     * Refresh the access stamp with an already known time. Skips the write when
+     * the stamp is unchanged, so concurrent readers of a hot entry do not keep
+     * writing the same field.
+     */
+    public void updateAccessTime(long now) {
+        if (lastAccessedAt != now) {
+            this.lastAccessedAt = now;
+        }
+    }
+
     // Getters and Setters
     public String getKey() { return key; }
     public void setKey(String key) { this.key = key; }
@@ -61,9 +86,70 @@ public class CacheEntry implements Serializable {
     public DataType getDataType() { return dataType; }
     public void setDataType(DataType dataType) { this.dataType = dataType; }
 
-    public Object getValue() { return value; }
+    public Object getValue() {
+        if (value instanceof OffHeapValue offHeap) {
+            return offHeap.asString();
+        }
+        return value instanceof CompressedValue compressed ? compressed.asString() : value;
+    }
     public void setValue(Object value) { this.value = value; }
 
+    /**
+     * @return the value as held, i.e. without decoding an OffHeapValue or CompressedValue
+     */
+    @JsonIgnore
+    public Object getStoredValue() { return value; }
+
+    /**
+     * @return a copy of this entry that later changes to this one do not
+     *         reach: an OffHeapValue, whose chunk is freed and reused once this
+     *         entry leaves memory, is copied into a String, and a hash, list,
+     *         set or sorted set, which ExtendedCacheService changes in place,
+     *         into a new collection (a CompressedValue is immutable and shared)
+     */
+    public CacheEntry snapshot() {
+        return copy(snapshotValue(value));
+    }
+
+    /**
+     * @return a copy of this entry with another expiry, sharing its value; only
+     *         for an entry whose value nobody changes, e.g. a snapshot
+     */
+    public CacheEntry withExpiresAt(Long expiresAt) {
+        CacheEntry copy = copy(value);
+        copy.expiresAt = expiresAt;
+        return copy;
+    }
+
+    private CacheEntry copy(Object value) {
+        CacheEntry copy = new CacheEntry(key, region, dataType, value);
+        copy.createdAt = createdAt;
+        copy.lastAccessedAt = lastAccessedAt;
+        copy.expiresAt = expiresAt;
+        copy.inMemory = inMemory;
+        return copy;
+    }
+
+    // The members themselves (Strings, SortedSetEntry) are never changed in place
+    private static Object snapshotValue(Object value) {
+        if (value instanceof OffHeapValue offHeap) {
+            return offHeap.asString();
+        }
+        if (value instanceof SortedSet<?> sortedSet) {
+            return new TreeSet<>(sortedSet);
+        }
+        if (value instanceof Set<?> set) {
+            return new HashSet<>(set);
+        }
+        if (value instanceof List<?> list) {
+            return new ArrayList<>(list);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return new HashMap<>(map);
+        }
+        return value;
+    }
+
     public long getCreatedAt() { return createdAt; }
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
 
@@ -75,4 +161,14 @@ public class CacheEntry implements Serializable {
 
     public boolean isInMemory() { return inMemory; }
     public void setInMemory(boolean inMemory) { this.inMemory = inMemory; }
-}
\ No newline at end of file
+
+    @JsonIgnore
+    public long getMemoryBytes() { return memoryBytes; }
+    @JsonIgnore
+    public void setMemoryBytes(long memoryBytes) { this.memoryBytes = memoryBytes; }
+
+    @JsonIgnore
+    public long getEvictionState() { return evictionState; }
+    @JsonIgnore
+    public void setEvictionState(long evictionState) { this.evictionState = evictionState; }
+}
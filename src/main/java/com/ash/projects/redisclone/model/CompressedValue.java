@@ -0,0 +1,35 @@
+package com.ash.projects.redisclone.model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A string value kept compressed in memory, held by a CacheEntry in place of
+ * the String itself. It is decompressed on every read (CacheEntry.getValue()),
+ * never cached decompressed.
+ */
+public abstract class CompressedValue {
+
+    /**
+     * @return the length of the value in bytes (UTF-8), uncompressed
+     */
+    public abstract int length();
+
+    /**
+     * @return the number of bytes actually held
+     */
+    public abstract int compressedLength();
+
+    /**
+     * @return the value's UTF-8 bytes, decompressed into a new array
+     */
+    public abstract byte[] toBytes();
+
+    public String asString() {
+        return new String(toBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
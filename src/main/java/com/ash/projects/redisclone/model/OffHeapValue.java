@@ -0,0 +1,31 @@
+package com.ash.projects.redisclone.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Handle to a string value kept outside the Java heap (UTF-8 bytes), held by a
+ * CacheEntry in place of the String itself. CacheEntry.getValue() turns it
+ * back into a String; the network layer can copy the bytes as they are.
+ */
+public abstract class OffHeapValue {
+
+    /**
+     * @return the length of the value in bytes (UTF-8)
+     */
+    public abstract int length();
+
+    /**
+     * @return a read-only view of the value's bytes, positioned at 0 (no copy)
+     */
+    public abstract ByteBuffer asByteBuffer();
+
+    /**
+     * @return the value decoded into a new String
+     */
+    public abstract String asString();
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
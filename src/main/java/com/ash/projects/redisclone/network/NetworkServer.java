@@ -1,15 +1,18 @@
 package com.ash.projects.redisclone.network;
 
-import com.ash.projects.redisclone.service.CacheService;
-import com.ash.projects.redisclone.service.RedisCommandService;
+import com.ash.projects.redisclone.command.CommandContext;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import org.apache.mina.core.buffer.IoBuffer;
 import org.apache.mina.core.service.IoAcceptor;
 import org.apache.mina.core.service.IoHandlerAdapter;
+import org.apache.mina.core.session.AttributeKey;
 import org.apache.mina.core.session.IdleStatus;
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.filter.codec.ProtocolCodecFilter;
-import org.apache.mina.filter.codec.textline.TextLineCodecFactory;
+import org.apache.mina.filter.codec.ProtocolDecoderException;
+import org.apache.mina.filter.executor.ExecutorFilter;
+import org.apache.mina.filter.executor.OrderedThreadPoolExecutor;
 import org.apache.mina.filter.logging.LoggingFilter;
 import org.apache.mina.transport.socket.nio.NioSocketAcceptor;
 import org.slf4j.Logger;
@@ -21,9 +24,16 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 @ConditionalOnProperty(name = "network.server.enabled", havingValue = "true", matchIfMissing = true)
@@ -31,8 +41,17 @@ public class NetworkServer {
 
     private static final Logger logger = LoggerFactory.getLogger(NetworkServer.class);
 
-    @Value("${org.apache.mina.filter.codec.textline.decoder_max_length:1000000}")
-    private int decoderMaxLineLength;
+    // Session attribute holding the connection's CommandContext (protocol version, MULTI state...)
+    private static final AttributeKey COMMAND_CONTEXT = new AttributeKey(NetworkServer.class, "commandContext");
+
+    // Session attribute: time at which unsent output first reached the soft limit
+    private static final AttributeKey SOFT_LIMIT_SINCE = new AttributeKey(NetworkServer.class, "softLimitSince");
+
+    @Value("${network.server.proto.max.inline.length:65536}")
+    private int maxInlineLength;
+
+    @Value("${network.server.proto.max.bulk.length:536870912}")
+    private int maxBulkLength;
 
     @Value("${network.server.port:6379}")
     private int port;
@@ -40,26 +59,69 @@ public class NetworkServer {
     @Value("${network.server.bind.address:0.0.0.0}")
     private String bindAddress;
 
-    @Autowired
-    private CacheService cacheService;
+    // Number of NIO processors (selector threads) handling socket I/O
+    @Value("${network.server.io.threads:4}")
+    private int ioThreads;
+
+    // Where commands run: io (on the I/O processor), ordered (worker pool) or virtual (Java 21+)
+    @Value("${network.server.execution.model:ordered}")
+    private String executionModel;
+
+    @Value("${network.server.worker.threads:8}")
+    private int workerThreads;
+
+    // Upper bound on concurrently running virtual threads (one per busy session)
+    @Value("${network.server.virtual.max.threads:10000}")
+    private int virtualMaxThreads;
+
+    // Output buffer limits per client class: "<hard bytes> <soft bytes> <soft seconds>", 0 = no limit
+    @Value("${network.server.output.buffer.limit.normal:0 0 0}")
+    private String normalOutputLimit;
+
+    @Value("${network.server.output.buffer.limit.pubsub:33554432 8388608 60}")
+    private String pubsubOutputLimit;
+
+    @Value("${network.server.output.buffer.limit.replica:268435456 67108864 60}")
+    private String replicaOutputLimit;
+
+    // Stop reading requests from a session with more unsent output than this (0 = never)
+    @Value("${network.server.output.suspend.read.bytes:1048576}")
+    private long suspendReadBytes;
 
     @Autowired
-    private RedisCommandService commandService;
+    private RespCommandProcessor commandProcessor;
+
+    private final Map<CommandContext.ClientType, OutputBufferLimit> outputLimits =
+            new EnumMap<>(CommandContext.ClientType.class);
+
+    private final AtomicLong outputLimitDisconnections = new AtomicLong();
 
     private IoAcceptor acceptor;
 
+    private ExecutorService commandExecutor;
+
     @PostConstruct
     public void start() throws IOException {
-        TextLineCodecFactory codecFactory = new TextLineCodecFactory(StandardCharsets.UTF_8);
-        codecFactory.setDecoderMaxLineLength(decoderMaxLineLength);
+        RespProtocolCodecFactory codecFactory = new RespProtocolCodecFactory(maxInlineLength, maxBulkLength);
+
+        outputLimits.put(CommandContext.ClientType.NORMAL, OutputBufferLimit.parse(normalOutputLimit));
+        outputLimits.put(CommandContext.ClientType.PUBSUB, OutputBufferLimit.parse(pubsubOutputLimit));
+        outputLimits.put(CommandContext.ClientType.REPLICA, OutputBufferLimit.parse(replicaOutputLimit));
 
-        acceptor = new NioSocketAcceptor();
+        acceptor = new NioSocketAcceptor(ioThreads);
 
         // Add filters
         acceptor.getFilterChain().addLast("logger", new LoggingFilter());
         acceptor.getFilterChain().addLast("codec",
                 new ProtocolCodecFilter(codecFactory));
 
+        // Decoding stays on the I/O processor; execution moves to the executor so a
+        // blocking RocksDB/JDBC call only stalls its own session
+        commandExecutor = createCommandExecutor();
+        if (commandExecutor != null) {
+            acceptor.getFilterChain().addLast("executor", new ExecutorFilter(commandExecutor));
+        }
+
         // Set handler
         acceptor.setHandler(new RedisProtocolHandler());
 
@@ -70,7 +132,9 @@ public class NetworkServer {
         // Bind
         acceptor.bind(new InetSocketAddress(bindAddress, port));
 
-        logger.info("Network server started on {}:{}", bindAddress, port);
+        logger.info("Network server started on {}:{} ({} I/O threads, execution model: {})",
+                bindAddress, port, ioThreads, executionModel);
+        logger.info("Output buffer limits: {}, read suspended above {} pending bytes", outputLimits, suspendReadBytes);
     }
 
     @PreDestroy
@@ -80,354 +144,162 @@ public class NetworkServer {
             acceptor.dispose();
             logger.info("Network server stopped");
         }
-    }
-
-    private class RedisProtocolHandler extends IoHandlerAdapter {
-
-        @Override
-        public void sessionCreated(IoSession session) {
-            logger.debug("Session created: {}", session.getRemoteAddress());
+        if (commandExecutor != null) {
+            commandExecutor.shutdown();
         }
+    }
 
-        @Override
-        public void sessionClosed(IoSession session) {
-            logger.debug("Session closed: {}", session.getRemoteAddress());
-        }
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connected_clients", acceptor != null ? acceptor.getManagedSessionCount() : 0);
+        stats.put("client_output_buffer_limit_disconnections", outputLimitDisconnections.get());
+        return stats;
+    }
 
-        @Override
-        public void messageReceived(IoSession session, Object message) {
-            String command = (String) message;
-            logger.debug("Received command: {}", command);
-            //System.out.println("Command: ["+command+"]");
-            try {
-                String response = processCommand(command);
-                session.write(response);
-            } catch (Exception e) {
-                logger.error("Error processing command: {}", command, e);
-                session.write("-ERR " + e.getMessage());
-            }
+    private static String formatAddress(SocketAddress address) {
+        if (address instanceof InetSocketAddress inet) {
+            return inet.getHostString() + ":" + inet.getPort();
         }
+        return String.valueOf(address);
+    }
 
-        @Override
-        public void exceptionCaught(IoSession session, Throwable cause) {
-            logger.error("Exception in session", cause);
-            session.closeNow();
+    /**
+     * Apply the session's output buffer limit and read backpressure after a write was queued.
+     * May run on any thread (pushes are written by the thread that caused them).
+     */
+    private void checkOutputBuffer(IoSession session, CommandContext context) {
+        long pending = session.getScheduledWriteBytes();
+        OutputBufferLimit limit = outputLimits.getOrDefault(context.getClientType(), OutputBufferLimit.UNLIMITED);
+
+        if (limit.isHardLimitReached(pending)) {
+            disconnectSlowConsumer(session, context, pending, "hard");
+            return;
         }
 
-        private String processCommand(String commandLine) {
-            String[] parts = parseCommandLine(commandLine.trim());
-            if (parts.length == 0) {
-                return "-ERR empty command";
-            }
-
-            String cmd = parts[0].toUpperCase();
-            String region = null;
-            int argStart = 1;
-
-            // Check if region is specified
-            if (parts.length > 1 && parts[1].startsWith("@")) {
-                region = parts[1].substring(1);
-                argStart = 2;
+        if (limit.isSoftLimitReached(pending)) {
+            long now = System.currentTimeMillis();
+            Long since = (Long) session.setAttributeIfAbsent(SOFT_LIMIT_SINCE, now);
+            if (now - (since != null ? since : now) >= limit.getSoftMillis()) {
+                disconnectSlowConsumer(session, context, pending, "soft");
+                return;
             }
-
-            return switch (cmd) {
-                case "PING" -> "+PONG";
-                case "B64SET" -> handleB64Set(region, parts, argStart);
-                case "SET" -> handleSet(region, parts, argStart);
-                case "GET" -> handleGet(region, parts, argStart);
-                case "DEL" -> handleDel(region, parts, argStart);
-                case "EXISTS" -> handleExists(region, parts, argStart);
-                case "EXPIRE" -> handleExpire(region, parts, argStart);
-                case "TTL" -> handleTtl(region, parts, argStart);
-                case "PERSIST" -> handlePersist(region, parts, argStart);
-                case "KEYS" -> handleKeys(region, parts, argStart);
-                case "INCR" -> handleIncr(region, parts, argStart);
-                case "DECR" -> handleDecr(region, parts, argStart);
-                case "APPEND" -> handleAppend(region, parts, argStart);
-                case "INFO" -> handleInfo();
-                default -> "-ERR unknown command '" + cmd + "'";
-            };
+        } else {
+            session.removeAttribute(SOFT_LIMIT_SINCE);
         }
 
-        /**
-         * Parse command line respecting quoted strings with escape sequences
-         *
-         * Features:
-         * - Handles both single (') and double (") quotes
-         * - Supports escaped quotes: \" and \'
-         * - Supports escaped backslash: \\
-         * - Supports escape sequences: \n, \r, \t
-         * - Preserves all whitespace within quotes
-         * - Handles large strings (e.g., JSON payloads)
-         * - Validates quote closure
-         *
-         * Examples:
-         * - SET key "Hello World" -> ["SET", "key", "Hello World"]
-         * - SET "my key" "value" -> ["SET", "my key", "value"]
-         * - SET key "{\"name\": \"John\"}" -> ["SET", "key", "{\"name\": \"John\"}"]
-         * - SET key "He said \"Hi\"" -> ["SET", "key", "He said \"Hi\""]
-         *
-         * @param commandLine The command line to parse
-         * @return Array of parsed arguments
-         * @throws IllegalArgumentException if quotes are not properly closed
-         */
-        private String[] parseCommandLine(String commandLine) {
-            java.util.List<String> parts = new java.util.ArrayList<>();
-            StringBuilder current = new StringBuilder();
-            boolean inQuotes = false;
-            char quoteChar = '\0';
-
-            for (int i = 0; i < commandLine.length(); i++) {
-                char c = commandLine.charAt(i);
-
-                // Handle escape sequences
-                if (c == '\\' && i + 1 < commandLine.length()) {
-                    char next = commandLine.charAt(i + 1);
-
-                    // If in quotes, process escape sequences
-                    if (inQuotes) {
-                        switch (next) {
-                            case '"':
-                            case '\'':
-                            case '\\':
-                                // Escaped quote or backslash - add the escaped character
-                                current.append(next);
-                                i++; // Skip next character
-                                continue;
-                            case 'n':
-                                current.append('\n');
-                                i++;
-                                continue;
-                            case 'r':
-                                current.append('\r');
-                                i++;
-                                continue;
-                            case 't':
-                                current.append('\t');
-                                i++;
-                                continue;
-                            default:
-                                // Unknown escape sequence - keep the backslash
-                                current.append(c);
-                                continue;
-                        }
-                    } else {
-                        // Outside quotes, backslash is literal unless it's before a quote
-                        if (next == '"' || next == '\'') {
-                            // This is an escaped quote outside of quotes - unusual but handle it
-                            current.append(next);
-                            i++;
-                            continue;
-                        } else {
-                            current.append(c);
-                            continue;
-                        }
-                    }
-                }
-
-                // Handle quote characters
-                if (!inQuotes && (c == '"' || c == '\'')) {
-                    // Start of quoted string
-                    inQuotes = true;
-                    quoteChar = c;
-                } else if (inQuotes && c == quoteChar) {
-                    // End of quoted string (only if it matches the opening quote)
-                    inQuotes = false;
-                    quoteChar = '\0';
-                } else if (!inQuotes && Character.isWhitespace(c)) {
-                    // Whitespace outside quotes - delimiter
-                    if (current.length() > 0) {
-                        parts.add(current.toString());
-                        current = new StringBuilder();
-                    }
-                } else {
-                    // Regular character (including quotes that don't match)
-                    current.append(c);
-                }
-            }
-
-            // Add last part if any
-            if (current.length() > 0) {
-                parts.add(current.toString());
-            }
-
-            // Validate that all quotes are closed
-            if (inQuotes) {
-                logger.warn("Unclosed quote in command: {}", commandLine);
-                throw new IllegalArgumentException("Unclosed quote in command");
-            }
-
-            return parts.toArray(new String[0]);
+        // A client that does not read its replies stops being read from, so a
+        // pipelining client can not queue more than about one batch beyond the threshold
+        if (suspendReadBytes > 0 && pending > suspendReadBytes && !session.isReadSuspended()) {
+            logger.debug("Suspending reads from {}: {} bytes of unsent output", session.getRemoteAddress(), pending);
+            session.suspendRead();
         }
-        private String handleB64Set(String region, String[] parts, int start) {
-            if (parts.length < start + 2) {
-                return "-ERR wrong number of arguments for 'b64set' command";
-            }
-
-            String key = parts[start];
-            String value = parts[start + 1];
-            // Get the standard decoder
-            Base64.Decoder decoder = Base64.getDecoder();
-
-            // 1. Decode the Base64 string into a byte array
-            byte[] decodedBytes = decoder.decode(value);
+    }
 
-            // 2. Convert the byte array to a String using a character set (e.g., UTF-8)
-            value = new String(decodedBytes, StandardCharsets.UTF_8);
-            parts[start +1] = value;
-            return handleSet(region, parts, start);
+    private void disconnectSlowConsumer(IoSession session, CommandContext context, long pending, String which) {
+        if (session.isClosing()) {
+            return;
         }
-        private String handleSet(String region, String[] parts, int start) {
-            if (parts.length < start + 2) {
-                return "-ERR wrong number of arguments for 'set' command";
-            }
-
-            String key = parts[start];
-            String value = parts[start + 1];
-            Long expiresAt = null;
+        outputLimitDisconnections.incrementAndGet();
+        logger.warn("Closing client {} ({}, {}): {} bytes of unsent output exceed the {} limit",
+                context.getId(), context.getClientType(), session.getRemoteAddress(), pending, which);
+        session.closeNow();
+    }
 
-            // Check for EX option
-            if (parts.length > start + 2 && "EX".equalsIgnoreCase(parts[start + 2])) {
-                if (parts.length > start + 3) {
-                    long seconds = Long.parseLong(parts[start + 3]);
-                    expiresAt = System.currentTimeMillis() + (seconds * 1000);
+    /**
+     * Build the executor for the configured execution model.
+     * Both pooled models use OrderedThreadPoolExecutor, which runs the events of
+     * one session strictly in order while different sessions proceed in parallel.
+     *
+     * @return the executor, or null to execute commands on the I/O processor threads
+     */
+    private ExecutorService createCommandExecutor() {
+        switch (executionModel.toLowerCase()) {
+            case "io":
+                return null;
+            case "virtual":
+                ThreadFactory virtualFactory = ThreadFactories.virtual("ash-redis-vt-");
+                if (virtualFactory != null) {
+                    return new OrderedThreadPoolExecutor(workerThreads, virtualMaxThreads,
+                            60, TimeUnit.SECONDS, virtualFactory);
                 }
-            }
-
-            cacheService.set(region, key, value, expiresAt);
-            return "+OK";
+                logger.warn("Virtual threads need Java 21+ (running {}), using the ordered worker pool",
+                        Runtime.version().feature());
+                break;
+            case "ordered":
+                break;
+            default:
+                logger.warn("Unknown network.server.execution.model '{}', using 'ordered'", executionModel);
         }
 
-        private String handleGet(String region, String[] parts, int start) {
-            if (parts.length < start + 1) {
-                return "-ERR wrong number of arguments for 'get' command";
-            }
-
-            String key = parts[start];
-            String value = cacheService.get(region, key);
-
-            if (value == null) {
-                return "$-1"; // Null bulk string
-            }
-
-            return "$" + value.length() + "\r\n" + value;
-        }
-
-        private String handleDel(String region, String[] parts, int start) {
-            if (parts.length < start + 1) {
-                return "-ERR wrong number of arguments for 'del' command";
-            }
-
-            String[] keys = Arrays.copyOfRange(parts, start, parts.length);
-            long deleted = cacheService.del(region, keys);
-
-            return ":" + deleted;
-        }
-
-        private String handleExists(String region, String[] parts, int start) {
-            if (parts.length < start + 1) {
-                return "-ERR wrong number of arguments for 'exists' command";
-            }
-
-            String[] keys = Arrays.copyOfRange(parts, start, parts.length);
-            long count = cacheService.exists(region, keys);
-
-            return ":" + count;
-        }
-
-        private String handleExpire(String region, String[] parts, int start) {
-            if (parts.length < start + 2) {
-                return "-ERR wrong number of arguments for 'expire' command";
-            }
-
-            String key = parts[start];
-            long seconds = Long.parseLong(parts[start + 1]);
-
-            boolean result = cacheService.expire(region, key, seconds);
-            return ":" + (result ? 1 : 0);
-        }
-
-        private String handleTtl(String region, String[] parts, int start) {
-            if (parts.length < start + 1) {
-                return "-ERR wrong number of arguments for 'ttl' command";
-            }
+        return new OrderedThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                ThreadFactories.platform("ash-redis-worker-"));
+    }
 
-            String key = parts[start];
-            long ttl = cacheService.ttl(region, key);
+    private class RedisProtocolHandler extends IoHandlerAdapter {
 
-            return ":" + ttl;
+        @Override
+        public void sessionCreated(IoSession session) {
+            logger.debug("Session created: {}", session.getRemoteAddress());
+            CommandContext context = commandProcessor.openSession(message -> {
+                session.write(IoBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+                checkOutputBuffer(session, (CommandContext) session.getAttribute(COMMAND_CONTEXT));
+            });
+            context.setClientAddress(formatAddress(session.getRemoteAddress()));
+            session.setAttribute(COMMAND_CONTEXT, context);
         }
 
-        private String handlePersist(String region, String[] parts, int start) {
-            if (parts.length < start + 1) {
-                return "-ERR wrong number of arguments for 'persist' command";
+        @Override
+        public void sessionClosed(IoSession session) {
+            logger.debug("Session closed: {}", session.getRemoteAddress());
+            CommandContext context = (CommandContext) session.getAttribute(COMMAND_CONTEXT);
+            if (context != null) {
+                commandProcessor.closeSession(context);
             }
-
-            String key = parts[start];
-            boolean result = cacheService.persist(region, key);
-
-            return ":" + (result ? 1 : 0);
         }
 
-        private String handleKeys(String region, String[] parts, int start) {
-            if (parts.length < start + 1) {
-                return "-ERR wrong number of arguments for 'keys' command";
-            }
-
-            String pattern = parts[start];
-            var keys = cacheService.keys(region, pattern);
-
-            StringBuilder response = new StringBuilder("*" + keys.size() + "\r\n");
-            for (String key : keys) {
-                response.append("$").append(key.length()).append("\r\n").append(key).append("\r\n");
+        @Override
+        public void messageReceived(IoSession session, Object message) {
+            @SuppressWarnings("unchecked")
+            List<RespCommand> batch = (List<RespCommand>) message;
+            CommandContext context = (CommandContext) session.getAttribute(COMMAND_CONTEXT);
+
+            session.write(commandProcessor.execute(context, batch));
+            if (context.isCloseRequested()) {
+                session.closeOnFlush();
+                return;
             }
-
-            return response.toString();
+            checkOutputBuffer(session, context);
         }
 
-        private String handleIncr(String region, String[] parts, int start) {
-            if (parts.length < start + 1) {
-                return "-ERR wrong number of arguments for 'incr' command";
-            }
-
-            String key = parts[start];
-            long value = commandService.incr(region, key);
-
-            return ":" + value;
-        }
+        @Override
+        public void messageSent(IoSession session, Object message) {
+            long pending = session.getScheduledWriteBytes();
 
-        private String handleDecr(String region, String[] parts, int start) {
-            if (parts.length < start + 1) {
-                return "-ERR wrong number of arguments for 'decr' command";
+            if (session.containsAttribute(SOFT_LIMIT_SINCE)) {
+                CommandContext context = (CommandContext) session.getAttribute(COMMAND_CONTEXT);
+                if (context != null && !outputLimits.get(context.getClientType()).isSoftLimitReached(pending)) {
+                    session.removeAttribute(SOFT_LIMIT_SINCE);
+                }
             }
 
-            String key = parts[start];
-            long value = commandService.decr(region, key);
-
-            return ":" + value;
-        }
-
-        private String handleAppend(String region, String[] parts, int start) {
-            if (parts.length < start + 2) {
-                return "-ERR wrong number of arguments for 'append' command";
+            // Resume at half the threshold so a session does not flap around it
+            if (session.isReadSuspended() && pending <= suspendReadBytes / 2) {
+                logger.debug("Resuming reads from {}", session.getRemoteAddress());
+                session.resumeRead();
             }
-
-            String key = parts[start];
-            String value = parts[start + 1];
-            long length = commandService.append(region, key, value);
-
-            return ":" + length;
         }
 
-        private String handleInfo() {
-            var info = commandService.info(null);
-            StringBuilder response = new StringBuilder();
-
-            for (var entry : info.entrySet()) {
-                response.append(entry.getKey()).append(":").append(entry.getValue()).append("\r\n");
+        @Override
+        public void exceptionCaught(IoSession session, Throwable cause) {
+            if (cause instanceof ProtocolDecoderException) {
+                // Same behaviour as Redis: report the framing error, then drop the connection
+                logger.warn("Protocol error from {}: {}", session.getRemoteAddress(), cause.getMessage());
+                session.write(RespReply.error("Protocol error: " + cause.getMessage()));
+                session.closeOnFlush();
+                return;
             }
-
-            return "$" + response.length() + "\r\n" + response;
+            logger.error("Exception in session", cause);
+            session.closeNow();
         }
     }
-}
\ No newline at end of file
+}
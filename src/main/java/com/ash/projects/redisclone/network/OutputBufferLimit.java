@@ -0,0 +1,71 @@
+package com.ash.projects.redisclone.network;
+
+/**
+ * Output buffer limit for one client class, written the same way as Redis
+ * client-output-buffer-limit: "hard-bytes soft-bytes soft-seconds".
+ *
+ * A connection is closed as soon as its unsent replies reach the hard limit, or
+ * once they have stayed at or above the soft limit for soft-seconds. A value of
+ * 0 disables that limit, so "0 0 0" means unlimited.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public final class OutputBufferLimit {
+
+    public static final OutputBufferLimit UNLIMITED = new OutputBufferLimit(0, 0, 0);
+
+    private final long hardBytes;
+    private final long softBytes;
+    private final long softSeconds;
+
+    public OutputBufferLimit(long hardBytes, long softBytes, long softSeconds) {
+        if (hardBytes < 0 || softBytes < 0 || softSeconds < 0) {
+            throw new IllegalArgumentException("Output buffer limits can not be negative");
+        }
+        this.hardBytes = hardBytes;
+        this.softBytes = softBytes;
+        this.softSeconds = softSeconds;
+    }
+
+    /**
+     * Parse "hard soft seconds", e.g. "33554432 8388608 60".
+     */
+    public static OutputBufferLimit parse(String spec) {
+        String[] parts = spec.trim().split("\\s+");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException(
+                    "Output buffer limit must be '<hard bytes> <soft bytes> <soft seconds>': " + spec);
+        }
+        try {
+            return new OutputBufferLimit(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid output buffer limit: " + spec, e);
+        }
+    }
+
+    public boolean isHardLimitReached(long pendingBytes) {
+        return hardBytes > 0 && pendingBytes >= hardBytes;
+    }
+
+    public boolean isSoftLimitReached(long pendingBytes) {
+        return softBytes > 0 && pendingBytes >= softBytes;
+    }
+
+    public long getHardBytes() {
+        return hardBytes;
+    }
+
+    public long getSoftBytes() {
+        return softBytes;
+    }
+
+    public long getSoftMillis() {
+        return softSeconds * 1000;
+    }
+
+    @Override
+    public String toString() {
+        return hardBytes + " " + softBytes + " " + softSeconds;
+    }
+}
@@ -0,0 +1,116 @@
+package com.ash.projects.redisclone.network;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single decoded client command.
+ *
+ * Arguments are kept in the form they arrived in: raw bytes for RESP multi-bulk
+ * requests and strings for legacy inline commands. The other representation is
+ * produced lazily, at most once per argument, so a handler that only needs the
+ * key as a String and the value as bytes never pays for both conversions.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class RespCommand {
+
+    private final byte[][] rawArgs;
+    private final String[] stringArgs;
+
+    public RespCommand(byte[][] args) {
+        this.rawArgs = args;
+        this.stringArgs = new String[args.length];
+    }
+
+    public RespCommand(String[] args) {
+        this.rawArgs = new byte[args.length][];
+        this.stringArgs = args;
+    }
+
+    public int argCount() {
+        return rawArgs.length;
+    }
+
+    public String getString(int index) {
+        String value = stringArgs[index];
+        if (value == null) {
+            value = new String(rawArgs[index], StandardCharsets.UTF_8);
+            stringArgs[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * The argument as text for a stored value. Values are kept as Java strings,
+     * so bytes that are not valid UTF-8 are refused instead of being replaced
+     * by U+FFFD and stored corrupted.
+     *
+     * @throws IllegalArgumentException if the argument is not valid UTF-8
+     */
+    public String getUtf8String(int index) {
+        if (stringArgs[index] != null) {
+            return stringArgs[index];
+        }
+        String value = new String(rawArgs[index], StandardCharsets.UTF_8);
+        // Only a value with a replacement character can be malformed; check those strictly
+        if (value.indexOf('\uFFFD') >= 0) {
+            checkUtf8(rawArgs[index]);
+        }
+        stringArgs[index] = value;
+        return value;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not valid UTF-8
+     */
+    public static void checkUtf8(byte[] bytes) {
+        try {
+            StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes));
+        } catch (CharacterCodingException e) {
+            throw new IllegalArgumentException("value is not valid UTF-8 (only UTF-8 string values are supported)");
+        }
+    }
+
+    public byte[] getBytes(int index) {
+        byte[] value = rawArgs[index];
+        if (value == null) {
+            value = stringArgs[index].getBytes(StandardCharsets.UTF_8);
+            rawArgs[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * @return true if the argument arrived as raw bytes (multi-bulk request)
+     */
+    public boolean isRaw(int index) {
+        return rawArgs[index] != null;
+    }
+
+    /**
+     * Check whether an argument starts with the given ASCII character
+     * without decoding it.
+     */
+    public boolean startsWith(int index, char c) {
+        if (stringArgs[index] != null) {
+            return !stringArgs[index].isEmpty() && stringArgs[index].charAt(0) == c;
+        }
+        return rawArgs[index].length > 0 && rawArgs[index][0] == c;
+    }
+
+    public String[] toStringArray() {
+        String[] parts = new String[rawArgs.length];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = getString(i);
+        }
+        return parts;
+    }
+
+    @Override
+    public String toString() {
+        return argCount() > 0 ? getString(0) + " (" + argCount() + " args)" : "<empty>";
+    }
+}
@@ -0,0 +1,93 @@
+package com.ash.projects.redisclone.network;
+
+import com.ash.projects.redisclone.command.CommandContext;
+import com.ash.projects.redisclone.command.CommandRegistry;
+import com.ash.projects.redisclone.service.ClientTrackingService;
+import com.ash.projects.redisclone.service.PubSubService;
+import com.ash.projects.redisclone.service.TransactionService;
+import org.apache.mina.core.buffer.IoBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Connection-level request handling shared by every listener (TCP via MINA,
+ * Unix domain socket): session lifecycle and in-order execution of a
+ * pipelined batch into one aggregated reply buffer.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+@Component
+public class RespCommandProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RespCommandProcessor.class);
+
+    // Initial size of the per-batch reply buffer; it grows as needed
+    @Value("${network.server.reply.buffer.size:4096}")
+    private int replyBufferSize;
+
+    @Autowired
+    private CommandRegistry registry;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ClientTrackingService trackingService;
+
+    @Autowired
+    private PubSubService pubSubService;
+
+    /**
+     * @param pushHandler writes an out-of-band message (already RESP-framed) to the connection
+     */
+    public CommandContext openSession(Consumer<String> pushHandler) {
+        CommandContext context = new CommandContext(true, false);
+        context.setPushHandler(pushHandler);
+        return context;
+    }
+
+    public void closeSession(CommandContext context) {
+        context.markClosed();
+        transactionService.clearTransaction(context);
+        trackingService.disable(context);
+        pubSubService.unsubscribeAll(context);
+    }
+
+    /**
+     * Execute a pipelined batch in order and collect all replies in one buffer,
+     * so a burst of N commands costs one write/flush instead of N.
+     * Execution stops after a command that asked for the connection to close (QUIT).
+     *
+     * @return the replies, flipped and ready to be written
+     */
+    public IoBuffer execute(CommandContext context, List<RespCommand> batch) {
+        IoBuffer replies = IoBuffer.allocate(replyBufferSize).setAutoExpand(true);
+
+        // Lets GET copy a value into the buffer as bytes, in its place among the replies
+        context.setBulkReplyWriter(value -> RespReply.writeBulk(replies, value));
+        try {
+            for (RespCommand command : batch) {
+                logger.debug("Received command: {}", command);
+                String response = registry.dispatch(context, command);
+                replies.put(response.getBytes(StandardCharsets.UTF_8));
+
+                if (context.isCloseRequested()) {
+                    // QUIT: anything pipelined behind it is discarded
+                    break;
+                }
+            }
+        } finally {
+            context.setBulkReplyWriter(null);
+        }
+
+        return replies.flip();
+    }
+}
@@ -0,0 +1,36 @@
+package com.ash.projects.redisclone.network;
+
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolCodecFactory;
+import org.apache.mina.filter.codec.ProtocolDecoder;
+import org.apache.mina.filter.codec.ProtocolEncoder;
+
+/**
+ * Codec factory wiring the RESP decoder and encoder into MINA's ProtocolCodecFilter.
+ *
+ * The decoder keeps its partial-frame state in the session (via CumulativeProtocolDecoder),
+ * so a single instance of each is shared by all sessions.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class RespProtocolCodecFactory implements ProtocolCodecFactory {
+
+    private final RespProtocolEncoder encoder;
+    private final RespProtocolDecoder decoder;
+
+    public RespProtocolCodecFactory(int maxInlineLength, int maxBulkLength) {
+        this.encoder = new RespProtocolEncoder();
+        this.decoder = new RespProtocolDecoder(maxInlineLength, maxBulkLength);
+    }
+
+    @Override
+    public ProtocolEncoder getEncoder(IoSession session) {
+        return encoder;
+    }
+
+    @Override
+    public ProtocolDecoder getDecoder(IoSession session) {
+        return decoder;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ash.projects.redisclone.network;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.session.AttributeKey;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.CumulativeProtocolDecoder;
+import org.apache.mina.filter.codec.ProtocolDecoderOutput;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RESP request decoder for MINA sessions.
+ *
+ * Reads commands straight from the session's IoBuffer using {@link RespRequestParser}.
+ * All complete commands available in a read are emitted together as a
+ * List&lt;RespCommand&gt; (pipelining). Incomplete frames are left in the cumulative
+ * buffer and re-examined when more bytes arrive; only the headers are
+ * re-scanned, never the payloads. Arguments that have already arrived, and
+ * large values being streamed, are held in a per-session
+ * {@link RespRequestParser.PartialRequest} rather than in the cumulative buffer.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class RespProtocolDecoder extends CumulativeProtocolDecoder {
+
+    // Session attribute holding the request currently split across reads
+    private static final AttributeKey PARTIAL_REQUEST = new AttributeKey(RespProtocolDecoder.class, "partialRequest");
+
+    private final RespRequestParser parser;
+
+    public RespProtocolDecoder(int maxInlineLength, int maxBulkLength) {
+        this.parser = new RespRequestParser(maxInlineLength, maxBulkLength);
+    }
+
+    /**
+     * Drain every complete command currently in the buffer and hand them on as
+     * one batch, so a pipelined burst is executed together and answered with a
+     * single write. A trailing partial command stays cumulated for the next read.
+     */
+    @Override
+    protected boolean doDecode(IoSession session, IoBuffer in, ProtocolDecoderOutput out) throws Exception {
+        RespRequestParser.PartialRequest partial = (RespRequestParser.PartialRequest) session.getAttribute(PARTIAL_REQUEST);
+        if (partial == null) {
+            partial = new RespRequestParser.PartialRequest();
+            session.setAttribute(PARTIAL_REQUEST, partial);
+        }
+
+        List<RespCommand> batch = new ArrayList<>();
+        try {
+            // IoBuffer delegates position/limit to the underlying ByteBuffer
+            parser.parse(in.buf(), batch, partial);
+        } finally {
+            // Commands decoded before a framing error are still executed and answered
+            if (!batch.isEmpty()) {
+                out.write(batch);
+            }
+        }
+        // Everything decodable has been consumed; wait for more bytes
+        return false;
+    }
+}
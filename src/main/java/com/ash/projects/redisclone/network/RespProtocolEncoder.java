@@ -0,0 +1,28 @@
+package com.ash.projects.redisclone.network;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolEncoderAdapter;
+import org.apache.mina.filter.codec.ProtocolEncoderOutput;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RESP reply encoder.
+ *
+ * Replies are produced fully framed by the command handlers (see {@link RespReply}),
+ * so encoding is just turning them into bytes. Raw byte arrays are wrapped as-is.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class RespProtocolEncoder extends ProtocolEncoderAdapter {
+
+    @Override
+    public void encode(IoSession session, Object message, ProtocolEncoderOutput out) {
+        byte[] bytes = message instanceof byte[]
+                ? (byte[]) message
+                : message.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(IoBuffer.wrap(bytes));
+    }
+}
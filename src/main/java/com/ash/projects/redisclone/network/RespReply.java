@@ -0,0 +1,139 @@
+package com.ash.projects.redisclone.network;
+
+import org.apache.mina.core.buffer.IoBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Helpers for building RESP2/RESP3 replies.
+ *
+ * Every reply returned by these methods is complete, including the trailing CRLF,
+ * so replies can simply be concatenated (e.g. inside arrays or pipelined batches).
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public final class RespReply {
+
+    public static final String CRLF = "\r\n";
+    public static final String OK = "+OK\r\n";
+    public static final String NULL_BULK = "$-1\r\n";
+    public static final String EMPTY_ARRAY = "*0\r\n";
+
+    /**
+     * Returned by a handler that has already written its reply through
+     * CommandContext.getBulkReplyWriter(); adds nothing to the reply buffer.
+     */
+    public static final String WRITTEN = "";
+
+    private static final byte[] CRLF_BYTES = CRLF.getBytes(StandardCharsets.US_ASCII);
+
+    public static final int RESP2 = 2;
+    public static final int RESP3 = 3;
+
+    private RespReply() {
+    }
+
+    public static String simple(String value) {
+        return "+" + value + CRLF;
+    }
+
+    public static String error(String message) {
+        String text = message != null ? message.replace('\r', ' ').replace('\n', ' ') : "unknown error";
+        return hasErrorCode(text) ? "-" + text + CRLF
+                : "-ERR " + text + CRLF;
+    }
+
+    /**
+     * Redis error replies start with an upper-case code word (ERR, WRONGTYPE, NOPERM, ...)
+     */
+    private static boolean hasErrorCode(String text) {
+        int space = text.indexOf(' ');
+        if (space <= 0) {
+            return false;
+        }
+        for (int i = 0; i < space; i++) {
+            char c = text.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static String integer(long value) {
+        return ":" + value + CRLF;
+    }
+
+    public static String bulk(String value) {
+        if (value == null) {
+            return NULL_BULK;
+        }
+        int length = value.getBytes(StandardCharsets.UTF_8).length;
+        return "$" + length + CRLF + value + CRLF;
+    }
+
+    /**
+     * Write a bulk string reply into a reply buffer, copying the value's UTF-8
+     * bytes as they are (e.g. straight from off-heap memory).
+     */
+    public static void writeBulk(IoBuffer out, ByteBuffer value) {
+        out.put(("$" + value.remaining() + CRLF).getBytes(StandardCharsets.US_ASCII));
+        out.put(value);
+        out.put(CRLF_BYTES);
+    }
+
+    public static String arrayHeader(int size) {
+        return "*" + size + CRLF;
+    }
+
+    /**
+     * Header of an out-of-band push message: a RESP3 push type, or a plain
+     * array for RESP2 clients (which cannot tell pushes from replies by type)
+     */
+    public static String pushHeader(int size, int protocol) {
+        return (protocol >= RESP3 ? ">" : "*") + size + CRLF;
+    }
+
+    /**
+     * Header of a map with {@code size} entries: a RESP3 map, or a flat
+     * key/value array of twice the size for RESP2 clients
+     */
+    public static String mapHeader(int size, int protocol) {
+        return protocol >= RESP3 ? "%" + size + CRLF : arrayHeader(size * 2);
+    }
+
+    public static String bulkArray(Collection<String> values) {
+        StringBuilder reply = new StringBuilder(arrayHeader(values.size()));
+        for (String value : values) {
+            reply.append(bulk(value));
+        }
+        return reply.toString();
+    }
+
+    /**
+     * Encode a map as a RESP3 map, or as a flat key/value array for RESP2 clients.
+     * Values may be Strings, Numbers or Collections of Strings.
+     */
+    public static String map(Map<String, ?> values, int protocol) {
+        StringBuilder reply = new StringBuilder();
+        reply.append(mapHeader(values.size(), protocol));
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            reply.append(bulk(entry.getKey()));
+            Object value = entry.getValue();
+            if (value instanceof Number) {
+                reply.append(integer(((Number) value).longValue()));
+            } else if (value instanceof Collection) {
+                @SuppressWarnings("unchecked")
+                Collection<String> items = (Collection<String>) value;
+                reply.append(bulkArray(items));
+            } else {
+                reply.append(bulk(value != null ? value.toString() : null));
+            }
+        }
+        return reply.toString();
+    }
+}
@@ -0,0 +1,419 @@
+package com.ash.projects.redisclone.network;
+
+import org.apache.mina.filter.codec.ProtocolDecoderException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transport-neutral RESP request parser, shared by the MINA decoder (TCP) and
+ * the Unix domain socket listener.
+ *
+ * - Multi-bulk requests (*N / $len) are framed by their length prefixes, so
+ *   arguments are binary-safe and need no quoting, escaping or line limit.
+ * - Anything else is treated as a legacy inline command (one line, quote-aware),
+ *   which keeps telnet, the B64SET workaround and older AshRedis clients working.
+ *
+ * RESP2 and RESP3 clients send requests in the same format; the protocol
+ * version only affects how replies are encoded (see HELLO).
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class RespRequestParser {
+
+    private static final int MAX_MULTIBULK_LENGTH = 1024 * 1024;
+
+    // Argument slots allocated before any argument has arrived; more are added as they come
+    private static final int INITIAL_ARGS = 1024;
+
+    // Bulk strings at least this large are streamed into their final array as they arrive
+    // (same idea as Redis PROTO_MBULK_BIG_ARG); smaller ones are read once complete
+    private static final int STREAMING_THRESHOLD = 64 * 1024;
+
+    private final int maxInlineLength;
+    private final int maxBulkLength;
+
+    public RespRequestParser(int maxInlineLength, int maxBulkLength) {
+        this.maxInlineLength = maxInlineLength;
+        this.maxBulkLength = maxBulkLength;
+    }
+
+    /**
+     * Parse every complete command between the buffer's position and limit.
+     *
+     * On return the position is at the start of the first incomplete piece of
+     * input (or at the limit). Arguments of a multi-bulk request that have fully
+     * arrived are moved into {@code partial} and consumed, so only the argument
+     * still in flight has to stay buffered. Commands parsed before a framing error
+     * are already in {@code out} when the exception is thrown, so they can still
+     * be answered.
+     *
+     * @param in      request bytes
+     * @param out     receives the parsed commands in order (blank commands are skipped)
+     * @param partial per-connection state of a request split across reads
+     */
+    public void parse(ByteBuffer in, List<RespCommand> out, PartialRequest partial) throws ProtocolDecoderException {
+        try {
+            while (in.hasRemaining()) {
+                RespCommand command = decodeCommand(in, partial);
+                if (command == null) {
+                    return;
+                }
+                if (command.argCount() > 0) {
+                    out.add(command);
+                }
+            }
+        } catch (ProtocolDecoderException e) {
+            partial.reset();
+            throw e;
+        }
+    }
+
+    /**
+     * Decode one command starting at the current position.
+     *
+     * @return the command (possibly with no arguments for blank lines or "*0"),
+     *         or null if the buffer does not yet hold the whole command
+     */
+    private RespCommand decodeCommand(ByteBuffer in, PartialRequest partial) throws ProtocolDecoderException {
+        int start = in.position();
+
+        if (partial.args != null || in.get(start) == '*') {
+            return decodeMultiBulk(in, partial);
+        }
+
+        int lineEnd = findLineEnd(in, start, maxInlineLength);
+        if (lineEnd < 0) {
+            return null;
+        }
+
+        String line = readLine(in, lineEnd);
+        return new RespCommand(parseCommandLine(line.trim()));
+    }
+
+    /**
+     * Decode a "*N\r\n" request followed by N bulk strings, resuming where the
+     * previous read stopped.
+     *
+     * A bulk string of at least STREAMING_THRESHOLD bytes that has not fully
+     * arrived is copied chunk by chunk, as reads come in, into its own byte
+     * array, which doubles as needed up to the declared length. The bytes
+     * therefore pass through the cumulative buffer once, instead of that buffer
+     * repeatedly doubling to hold the whole value and then being copied again.
+     *
+     * Neither the argument array nor a bulk string is allocated at its declared
+     * size before the data arrives, so a few header bytes (e.g. "$536870912")
+     * cannot make a connection reserve hundreds of MB.
+     *
+     * @return the command, or null if the buffer does not yet hold the whole request
+     */
+    private RespCommand decodeMultiBulk(ByteBuffer in, PartialRequest partial) throws ProtocolDecoderException {
+        if (partial.args == null) {
+            int start = in.position();
+            long count = readLengthLine(in, MAX_MULTIBULK_LENGTH, "multibulk length");
+            if (count == Long.MIN_VALUE) {
+                in.position(start);
+                return null;
+            }
+            if (count <= 0) {
+                return new RespCommand(new byte[0][]);
+            }
+            partial.count = (int) count;
+            partial.args = new byte[Math.min(partial.count, INITIAL_ARGS)][];
+            partial.next = 0;
+        }
+
+        while (partial.next < partial.count) {
+            if (partial.bulk != null) {
+                if (!fillBulk(in, partial)) {
+                    return null;
+                }
+                continue;
+            }
+
+            int argStart = in.position();
+            if (!in.hasRemaining()) {
+                return null;
+            }
+            if (in.get(argStart) != '$') {
+                throw new ProtocolDecoderException("expected '$', got '" + (char) in.get(argStart) + "'");
+            }
+
+            long length = readLengthLine(in, maxBulkLength, "bulk length");
+            if (length == Long.MIN_VALUE) {
+                in.position(argStart);
+                return null;
+            }
+            if (length < 0) {
+                throw new ProtocolDecoderException("invalid bulk length");
+            }
+
+            if (in.remaining() < length + 2) {
+                if (length >= STREAMING_THRESHOLD) {
+                    partial.bulkLength = (int) length;
+                    partial.bulk = new byte[(int) Math.min(length, Math.max(STREAMING_THRESHOLD, in.remaining()))];
+                    partial.filled = 0;
+                    continue;
+                }
+                in.position(argStart);
+                return null;
+            }
+
+            byte[] arg = new byte[(int) length];
+            in.get(arg);
+            expectCrlf(in);
+            addArg(partial, arg);
+        }
+
+        RespCommand command = new RespCommand(partial.args);
+        partial.reset();
+        return command;
+    }
+
+    /**
+     * Copy the available bytes of a streamed bulk string into its target array,
+     * growing it (at most to the declared length) as needed.
+     *
+     * @return true once the bulk string and its CRLF have been consumed
+     */
+    private boolean fillBulk(ByteBuffer in, PartialRequest partial) throws ProtocolDecoderException {
+        int count = Math.min(in.remaining(), partial.bulkLength - partial.filled);
+        int needed = partial.filled + count;
+        if (needed > partial.bulk.length) {
+            int capacity = (int) Math.min(partial.bulkLength, Math.max(needed, 2L * partial.bulk.length));
+            partial.bulk = Arrays.copyOf(partial.bulk, capacity);
+        }
+        in.get(partial.bulk, partial.filled, count);
+        partial.filled += count;
+
+        if (partial.filled < partial.bulkLength || in.remaining() < 2) {
+            return false;
+        }
+
+        expectCrlf(in);
+        addArg(partial, partial.bulk);
+        partial.bulk = null;
+        return true;
+    }
+
+    /**
+     * Store the next argument, adding slots (at most up to the declared count) as needed.
+     */
+    private void addArg(PartialRequest partial, byte[] arg) {
+        if (partial.next == partial.args.length) {
+            partial.args = Arrays.copyOf(partial.args, (int) Math.min(partial.count, 2L * partial.args.length));
+        }
+        partial.args[partial.next++] = arg;
+    }
+
+    private void expectCrlf(ByteBuffer in) throws ProtocolDecoderException {
+        if (in.get() != '\r' || in.get() != '\n') {
+            throw new ProtocolDecoderException("bulk string not terminated by CRLF");
+        }
+    }
+
+    /**
+     * Read a "&lt;prefix&gt;&lt;integer&gt;\r\n" header line without allocating.
+     *
+     * @return the parsed value, or Long.MIN_VALUE if the line is incomplete
+     */
+    private long readLengthLine(ByteBuffer in, long max, String what) throws ProtocolDecoderException {
+        int start = in.position();
+        int lineEnd = findLineEnd(in, start, 32);
+        if (lineEnd < 0) {
+            return Long.MIN_VALUE;
+        }
+
+        int end = lineEnd > start && in.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+        int i = start + 1;
+        boolean negative = i < end && in.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i >= end) {
+            throw new ProtocolDecoderException("invalid " + what);
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            byte b = in.get(i);
+            if (b < '0' || b > '9') {
+                throw new ProtocolDecoderException("invalid " + what);
+            }
+            value = value * 10 + (b - '0');
+            if (value > max) {
+                throw new ProtocolDecoderException(what + " exceeds limit of " + max);
+            }
+        }
+
+        in.position(lineEnd + 1);
+        return negative ? -value : value;
+    }
+
+    /**
+     * Find the '\n' terminating the line that starts at {@code start}.
+     *
+     * @return index of the '\n', or -1 if it has not arrived yet
+     */
+    private int findLineEnd(ByteBuffer in, int start, int maxLength) throws ProtocolDecoderException {
+        int limit = in.limit();
+        for (int i = start; i < limit; i++) {
+            if (in.get(i) == '\n') {
+                return i;
+            }
+            if (i - start >= maxLength) {
+                throw new ProtocolDecoderException("line too long (limit " + maxLength + " bytes)");
+            }
+        }
+        return -1;
+    }
+
+    private String readLine(ByteBuffer in, int lineEnd) {
+        int start = in.position();
+        byte[] line = new byte[lineEnd - start];
+        in.get(line);
+        in.get(); // '\n'
+        return new String(line, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse command line respecting quoted strings with escape sequences
+     *
+     * Features:
+     * - Handles both single (') and double (") quotes
+     * - Supports escaped quotes: \" and \'
+     * - Supports escaped backslash: \\
+     * - Supports escape sequences: \n, \r, \t
+     * - Preserves all whitespace within quotes
+     * - Validates quote closure
+     *
+     * Only used for inline commands; RESP multi-bulk requests are never re-scanned.
+     *
+     * Examples:
+     * - SET key "Hello World" -> ["SET", "key", "Hello World"]
+     * - SET "my key" "value" -> ["SET", "my key", "value"]
+     * - SET key "{\"name\": \"John\"}" -> ["SET", "key", "{\"name\": \"John\"}"]
+     * - SET key "He said \"Hi\"" -> ["SET", "key", "He said \"Hi\""]
+     *
+     * @param commandLine The command line to parse
+     * @return Array of parsed arguments
+     * @throws ProtocolDecoderException if quotes are not properly closed
+     */
+    static String[] parseCommandLine(String commandLine) throws ProtocolDecoderException {
+        List<String> parts = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        char quoteChar = '\0';
+
+        for (int i = 0; i < commandLine.length(); i++) {
+            char c = commandLine.charAt(i);
+
+            // Handle escape sequences
+            if (c == '\\' && i + 1 < commandLine.length()) {
+                char next = commandLine.charAt(i + 1);
+
+                // If in quotes, process escape sequences
+                if (inQuotes) {
+                    switch (next) {
+                        case '"':
+                        case '\'':
+                        case '\\':
+                            // Escaped quote or backslash - add the escaped character
+                            current.append(next);
+                            i++; // Skip next character
+                            continue;
+                        case 'n':
+                            current.append('\n');
+                            i++;
+                            continue;
+                        case 'r':
+                            current.append('\r');
+                            i++;
+                            continue;
+                        case 't':
+                            current.append('\t');
+                            i++;
+                            continue;
+                        default:
+                            // Unknown escape sequence - keep the backslash
+                            current.append(c);
+                            continue;
+                    }
+                } else {
+                    // Outside quotes, backslash is literal unless it's before a quote
+                    if (next == '"' || next == '\'') {
+                        // This is an escaped quote outside of quotes - unusual but handle it
+                        current.append(next);
+                        i++;
+                        continue;
+                    } else {
+                        current.append(c);
+                        continue;
+                    }
+                }
+            }
+
+            // Handle quote characters
+            if (!inQuotes && (c == '"' || c == '\'')) {
+                // Start of quoted string
+                inQuotes = true;
+                quoteChar = c;
+            } else if (inQuotes && c == quoteChar) {
+                // End of quoted string (only if it matches the opening quote)
+                inQuotes = false;
+                quoteChar = '\0';
+            } else if (!inQuotes && Character.isWhitespace(c)) {
+                // Whitespace outside quotes - delimiter
+                if (current.length() > 0) {
+                    parts.add(current.toString());
+                    current = new StringBuilder();
+                }
+            } else {
+                // Regular character (including quotes that don't match)
+                current.append(c);
+            }
+        }
+
+        // Add last part if any
+        if (current.length() > 0) {
+            parts.add(current.toString());
+        }
+
+        // Validate that all quotes are closed
+        if (inQuotes) {
+            throw new ProtocolDecoderException("unbalanced quotes in request");
+        }
+
+        return parts.toArray(new String[0]);
+    }
+
+    /**
+     * Progress of a multi-bulk request split across reads. One instance per
+     * connection; the parser itself is stateless and shared.
+     */
+    public static final class PartialRequest {
+
+        // Arguments of the request being read (null between requests), and how many were declared
+        private byte[][] args;
+        private int count;
+        private int next;
+
+        // Large argument being streamed in place, its declared length and how much of it has arrived
+        private byte[] bulk;
+        private int bulkLength;
+        private int filled;
+
+        void reset() {
+            args = null;
+            count = 0;
+            next = 0;
+            bulk = null;
+            bulkLength = 0;
+            filled = 0;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.ash.projects.redisclone.network;
+
+import com.ash.projects.redisclone.command.CommandContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.mina.filter.codec.ProtocolDecoderException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Optional Unix domain socket listener for co-located (sidecar) clients.
+ *
+ * Speaks exactly the same protocol as the TCP port: requests are parsed by
+ * {@link RespRequestParser} and executed by {@link RespCommandProcessor}, so
+ * pipelining, MULTI/EXEC and HELLO behave identically. Only the transport
+ * differs, which skips the TCP loopback stack entirely.
+ *
+ * Each connection is served by its own thread with blocking reads (virtual
+ * threads when network.server.execution.model=virtual on Java 21+), and a
+ * request is executed on that thread with no selector or executor hand-off,
+ * which is the cheapest path for a handful of local clients. Replies and
+ * pushes are queued and written by a second thread of the connection, so a
+ * client that stops reading never blocks whoever pushes to it (pub/sub
+ * delivery, tracking invalidations); the output buffer limits of the TCP
+ * server apply to that queue.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+@Component
+@ConditionalOnProperty(name = "network.server.unix.socket.enabled", havingValue = "true")
+public class UnixSocketServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnixSocketServer.class);
+
+    @Value("${network.server.unix.socket.path:/tmp/ashredis.sock}")
+    private String socketPath;
+
+    // POSIX permissions applied to the socket file, e.g. rw-rw---- to limit access to a group
+    @Value("${network.server.unix.socket.permissions:rw-rw----}")
+    private String socketPermissions;
+
+    @Value("${network.server.execution.model:ordered}")
+    private String executionModel;
+
+    @Value("${network.server.proto.max.inline.length:65536}")
+    private int maxInlineLength;
+
+    @Value("${network.server.proto.max.bulk.length:536870912}")
+    private int maxBulkLength;
+
+    // Same limits as the TCP server, see NetworkServer
+    @Value("${network.server.output.buffer.limit.normal:0 0 0}")
+    private String normalOutputLimit;
+
+    @Value("${network.server.output.buffer.limit.pubsub:33554432 8388608 60}")
+    private String pubsubOutputLimit;
+
+    @Value("${network.server.output.buffer.limit.replica:268435456 67108864 60}")
+    private String replicaOutputLimit;
+
+    @Value("${network.server.output.suspend.read.bytes:1048576}")
+    private long suspendReadBytes;
+
+    @Autowired
+    private RespCommandProcessor commandProcessor;
+
+    private final Map<CommandContext.ClientType, OutputBufferLimit> outputLimits =
+            new EnumMap<>(CommandContext.ClientType.class);
+
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+    private ServerSocketChannel serverChannel;
+    private RespRequestParser parser;
+    private ThreadFactory connectionThreads;
+    private Path path;
+
+    @PostConstruct
+    public void start() throws IOException {
+        path = Path.of(socketPath);
+        parser = new RespRequestParser(maxInlineLength, maxBulkLength);
+
+        outputLimits.put(CommandContext.ClientType.NORMAL, OutputBufferLimit.parse(normalOutputLimit));
+        outputLimits.put(CommandContext.ClientType.PUBSUB, OutputBufferLimit.parse(pubsubOutputLimit));
+        outputLimits.put(CommandContext.ClientType.REPLICA, OutputBufferLimit.parse(replicaOutputLimit));
+
+        ThreadFactory virtualFactory = "virtual".equalsIgnoreCase(executionModel)
+                ? ThreadFactories.virtual("ash-redis-uds-") : null;
+        connectionThreads = virtualFactory != null ? virtualFactory : ThreadFactories.platform("ash-redis-uds-");
+
+        // A socket file left behind by an unclean shutdown would make bind fail
+        Files.deleteIfExists(path);
+
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(path));
+
+        try {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(socketPermissions));
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            logger.warn("Could not set permissions '{}' on {}: {}", socketPermissions, path, e.getMessage());
+        }
+
+        Thread acceptThread = ThreadFactories.platform("ash-redis-uds-accept-").newThread(this::acceptLoop);
+        acceptThread.start();
+
+        logger.info("Unix domain socket server started on {}", path);
+    }
+
+    @PreDestroy
+    public void stop() {
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+            for (SocketChannel channel : connections) {
+                channel.close();
+            }
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+            logger.info("Unix domain socket server stopped");
+        } catch (IOException e) {
+            logger.warn("Error stopping Unix domain socket server", e);
+        }
+    }
+
+    private void acceptLoop() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                connections.add(channel);
+                connectionThreads.newThread(() -> serve(channel)).start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.error("Error accepting Unix socket connection", e);
+            }
+        }
+    }
+
+    /**
+     * Serve one connection until the client disconnects, sends QUIT or breaks the protocol.
+     */
+    private void serve(SocketChannel channel) {
+        Connection connection = new Connection(channel);
+        CommandContext context = commandProcessor.openSession(
+                message -> connection.send(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8))));
+        connection.context = context;
+        context.setClientAddress(socketPath + ":0");
+        connectionThreads.newThread(connection::writeLoop).start();
+        ByteBuffer in = ByteBuffer.allocate(16 * 1024);
+        RespRequestParser.PartialRequest partial = new RespRequestParser.PartialRequest();
+        List<RespCommand> batch = new ArrayList<>();
+        logger.debug("Unix socket session {} opened", context.getId());
+
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                ProtocolDecoderException protocolError = null;
+                try {
+                    parser.parse(in, batch, partial);
+                } catch (ProtocolDecoderException e) {
+                    protocolError = e;
+                }
+
+                if (!batch.isEmpty()) {
+                    connection.send(commandProcessor.execute(context, batch).buf());
+                    batch.clear();
+                }
+                if (protocolError != null) {
+                    logger.warn("Protocol error on Unix socket session {}: {}", context.getId(), protocolError.getMessage());
+                    connection.send(ByteBuffer.wrap(RespReply.error("Protocol error: " + protocolError.getMessage())
+                            .getBytes(StandardCharsets.UTF_8)));
+                    break;
+                }
+                if (context.isCloseRequested()) {
+                    break;
+                }
+
+                connection.awaitWritable();
+                in = prepareForRead(in);
+            }
+        } catch (IOException e) {
+            logger.debug("Unix socket session {} failed: {}", context.getId(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            commandProcessor.closeSession(context);
+            connections.remove(channel);
+            // The writer sends what is still queued (e.g. the reply to QUIT), then closes the channel
+            connection.finish();
+            logger.debug("Unix socket session {} closed", context.getId());
+        }
+    }
+
+    /**
+     * Keep the unparsed tail of the buffer for the next read, growing the buffer
+     * when a single header or small argument does not fit (large bulk values are
+     * streamed out of the buffer by the parser and never need it to grow).
+     */
+    private ByteBuffer prepareForRead(ByteBuffer in) {
+        if (in.position() == 0 && in.limit() == in.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(in.capacity() * 2);
+            larger.put(in);
+            return larger;
+        }
+        in.compact();
+        return in;
+    }
+
+    /**
+     * Outgoing side of one connection. Replies (from the connection's thread)
+     * and pushes (from any thread) are queued in order and written by the
+     * connection's writer thread; queueing never blocks, and a connection whose
+     * unsent output goes over its output buffer limit is closed.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private volatile CommandContext context;
+
+        // Guarded by this
+        private final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+        private long pendingBytes;
+        private long softLimitSince = -1;
+        private boolean finishing;
+        private boolean closed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void send(ByteBuffer out) {
+            synchronized (this) {
+                if (closed || finishing) {
+                    return;
+                }
+                queue.add(out);
+                pendingBytes += out.remaining();
+                if (!checkOutputBuffer()) {
+                    return;
+                }
+                notifyAll();
+            }
+        }
+
+        /**
+         * Close the connection if its unsent output is over the limit of its
+         * client class (same rules as NetworkServer). Caller holds this.
+         *
+         * @return false if the connection was closed
+         */
+        private boolean checkOutputBuffer() {
+            CommandContext current = context;
+            OutputBufferLimit limit = current != null
+                    ? outputLimits.getOrDefault(current.getClientType(), OutputBufferLimit.UNLIMITED)
+                    : OutputBufferLimit.UNLIMITED;
+
+            String exceeded = null;
+            if (limit.isHardLimitReached(pendingBytes)) {
+                exceeded = "hard";
+            } else if (limit.isSoftLimitReached(pendingBytes)) {
+                long now = System.currentTimeMillis();
+                if (softLimitSince < 0) {
+                    softLimitSince = now;
+                } else if (now - softLimitSince >= limit.getSoftMillis()) {
+                    exceeded = "soft";
+                }
+            } else {
+                softLimitSince = -1;
+            }
+            if (exceeded == null) {
+                return true;
+            }
+
+            logger.warn("Closing Unix socket client {} ({}): {} bytes of unsent output exceed the {} limit",
+                    current.getId(), current.getClientType(), pendingBytes, exceeded);
+            abort();
+            return false;
+        }
+
+        /**
+         * Drop the queue and close the channel; a write in progress and the
+         * connection's blocked read fail, which ends both threads. Caller holds this.
+         */
+        private void abort() {
+            closed = true;
+            queue.clear();
+            pendingBytes = 0;
+            notifyAll();
+            closeChannel();
+        }
+
+        /**
+         * Stop taking output; the writer closes the channel once the queue is empty.
+         */
+        synchronized void finish() {
+            finishing = true;
+            notifyAll();
+        }
+
+        /**
+         * Block the connection's reader while more than network.server.output.suspend.read.bytes
+         * are unsent, until half of that is left, so a client that pipelines
+         * without reading its replies can not make the queue grow without bound.
+         */
+        synchronized void awaitWritable() throws InterruptedException {
+            if (suspendReadBytes <= 0 || pendingBytes <= suspendReadBytes) {
+                return;
+            }
+            while (!closed && pendingBytes > suspendReadBytes / 2) {
+                wait();
+            }
+        }
+
+        void writeLoop() {
+            try {
+                while (true) {
+                    ByteBuffer out;
+                    synchronized (this) {
+                        while (queue.isEmpty() && !closed && !finishing) {
+                            wait();
+                        }
+                        if (closed || queue.isEmpty()) {
+                            break;
+                        }
+                        out = queue.peek();
+                    }
+
+                    int length = out.remaining();
+                    while (out.hasRemaining()) {
+                        channel.write(out);
+                    }
+
+                    synchronized (this) {
+                        if (closed) {
+                            break;
+                        }
+                        queue.poll();
+                        pendingBytes -= length;
+                        CommandContext current = context;
+                        if (current != null && !outputLimits.getOrDefault(current.getClientType(), OutputBufferLimit.UNLIMITED)
+                                .isSoftLimitReached(pendingBytes)) {
+                            softLimitSince = -1;
+                        }
+                        notifyAll();
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("Write to Unix socket client failed: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                synchronized (this) {
+                    closed = true;
+                    queue.clear();
+                    pendingBytes = 0;
+                    notifyAll();
+                }
+                closeChannel();
+            }
+        }
+
+        private void closeChannel() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // already closing
+            }
+        }
+    }
+}
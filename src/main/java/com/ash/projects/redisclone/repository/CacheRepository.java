@@ -1,10 +1,17 @@
 package com.ash.projects.redisclone.repository;
 
 import com.ash.projects.redisclone.model.CacheEntry;
+import com.ash.projects.redisclone.service.LatencyStatsService;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Delegating implementation of CacheRepositoryInterface.
@@ -23,6 +30,11 @@ import java.util.List;
  * IMPORTANT: This class is NOT annotated with @Repository.
  * It is managed as a bean by CacheRepositoryConfig with @Primary annotation.
  * This prevents circular dependencies and ensures proper bean creation order.
+ *
+ * In write-behind mode (cache.persistence.mode=write-behind) saves, deletes and
+ * expiry changes are buffered in a WriteBehindQueue and written to the store in
+ * batches; reads see the buffered writes first. In write-through mode the writes
+ * of concurrent callers can be group committed (see GroupCommitter).
  * 
  * @author ajsinha@gmail.com
  * Copyright (c) 2025 Ash Sinha. All rights reserved.
@@ -33,6 +45,11 @@ public class CacheRepository implements CacheRepositoryInterface {
     
     private final CacheRepositoryInterface delegate;
     private final String implementationType;
+    private final LatencyStatsService latencyStats;
+    // Null in write-through mode
+    private final WriteBehindQueue writeBehind;
+    // Null unless group commit is enabled (write-through mode only)
+    private final GroupCommitter groupCommit;
 
     /**
      * Constructor with delegate injection
@@ -41,12 +58,56 @@ public class CacheRepository implements CacheRepositoryInterface {
      * @param implementationType The type name for logging (e.g., "SQL" or "RocksDB")
      */
     public CacheRepository(CacheRepositoryInterface delegate, String implementationType) {
+        this(delegate, implementationType, null);
+    }
+
+    /**
+     * Constructor with delegate injection and latency recording
+     *
+     * @param delegate The actual repository implementation (SQL or RocksDB)
+     * @param implementationType The type name for logging (e.g., "SQL" or "RocksDB")
+     * @param latencyStats Receives the latency of every delegated call (may be null)
+     */
+    public CacheRepository(CacheRepositoryInterface delegate, String implementationType,
+                           LatencyStatsService latencyStats) {
+        this(delegate, implementationType, latencyStats, null);
+    }
+
+    /**
+     * Constructor with delegate injection, latency recording and write-behind
+     *
+     * @param delegate The actual repository implementation (SQL or RocksDB)
+     * @param implementationType The type name for logging (e.g., "SQL" or "RocksDB")
+     * @param latencyStats Receives the latency of every delegated call (may be null)
+     * @param writeBehind Buffers writes in front of the delegate (null for write-through)
+     */
+    public CacheRepository(CacheRepositoryInterface delegate, String implementationType,
+                           LatencyStatsService latencyStats, WriteBehindQueue writeBehind) {
+        this(delegate, implementationType, latencyStats, writeBehind, null);
+    }
+
+    /**
+     * Constructor with delegate injection, latency recording, write-behind and group commit
+     *
+     * @param delegate The actual repository implementation (SQL or RocksDB)
+     * @param implementationType The type name for logging (e.g., "SQL" or "RocksDB")
+     * @param latencyStats Receives the latency of every delegated call (may be null)
+     * @param writeBehind Buffers writes in front of the delegate (null for write-through)
+     * @param groupCommit Batches concurrent write-through writes (null to write one by one)
+     */
+    public CacheRepository(CacheRepositoryInterface delegate, String implementationType,
+                           LatencyStatsService latencyStats, WriteBehindQueue writeBehind,
+                           GroupCommitter groupCommit) {
         if (delegate == null) {
             throw new IllegalArgumentException("Delegate repository cannot be null");
         }
         this.delegate = delegate;
         this.implementationType = implementationType;
-        logger.info("CacheRepository initialized with {} implementation", implementationType);
+        this.latencyStats = latencyStats;
+        this.writeBehind = writeBehind;
+        this.groupCommit = writeBehind == null ? groupCommit : null;
+        logger.info("CacheRepository initialized with {} implementation ({})", implementationType,
+                writeBehind != null ? "write-behind" : this.groupCommit != null ? "write-through, group commit" : "write-through");
     }
 
     @PostConstruct
@@ -54,52 +115,303 @@ public class CacheRepository implements CacheRepositoryInterface {
     public void initializeDatabase() {
         logger.info("Initializing {} cache repository", implementationType);
         delegate.initializeDatabase();
+        if (writeBehind != null) {
+            writeBehind.start();
+        }
         logger.info("{} cache repository initialized successfully", implementationType);
     }
 
+    /**
+     * Write out buffered writes before the delegate is closed
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (writeBehind != null) {
+            writeBehind.stop();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
     @Override
     public void saveEntry(CacheEntry entry) {
-        delegate.saveEntry(entry);
+        if (writeBehind != null) {
+            writeBehind.save(entry);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (groupCommit != null) {
+                groupCommit.submit(RepositoryWrite.save(entry));
+            } else {
+                delegate.saveEntry(entry);
+            }
+        } finally {
+            recordCall("saveEntry", start);
+        }
+    }
+
+    @Override
+    public void saveEntries(List<CacheEntry> entries) {
+        if (writeBehind != null) {
+            entries.forEach(writeBehind::save);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (groupCommit != null) {
+                groupCommit.submit(entries.stream().map(RepositoryWrite::save).toList());
+            } else {
+                delegate.saveEntries(entries);
+            }
+        } finally {
+            recordCall("saveEntries", start);
+        }
     }
 
     @Override
     public CacheEntry loadEntry(String region, String key) {
-        return delegate.loadEntry(region, key);
+        WriteBehindQueue.PendingWrite pending = writeBehind != null ? writeBehind.get(region, key) : null;
+        if (pending != null && !pending.isExpiryOnly()) {
+            return pendingEntry(pending);
+        }
+        long start = System.nanoTime();
+        try {
+            return withPendingExpiry(delegate.loadEntry(region, key), pending);
+        } finally {
+            recordCall("loadEntry", start);
+        }
+    }
+
+    @Override
+    public List<CacheEntry> loadEntries(String region, List<String> keys) {
+        if (writeBehind != null) {
+            return loadEntriesWithPending(region, keys);
+        }
+        long start = System.nanoTime();
+        try {
+            return delegate.loadEntries(region, keys);
+        } finally {
+            recordCall("loadEntries", start);
+        }
     }
 
     @Override
     public List<CacheEntry> loadAllEntries() {
-        return delegate.loadAllEntries();
+        flush();
+        long start = System.nanoTime();
+        try {
+            return delegate.loadAllEntries();
+        } finally {
+            recordCall("loadAllEntries", start);
+        }
     }
 
     @Override
     public List<CacheEntry> loadEntriesByRegion(String region) {
-        return delegate.loadEntriesByRegion(region);
+        flush();
+        long start = System.nanoTime();
+        try {
+            return delegate.loadEntriesByRegion(region);
+        } finally {
+            recordCall("loadEntriesByRegion", start);
+        }
     }
 
     @Override
     public void deleteEntry(String region, String key) {
-        delegate.deleteEntry(region, key);
+        if (writeBehind != null) {
+            writeBehind.delete(region, key);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (groupCommit != null) {
+                groupCommit.submit(RepositoryWrite.delete(region, key));
+            } else {
+                delegate.deleteEntry(region, key);
+            }
+        } finally {
+            recordCall("deleteEntry", start);
+        }
+    }
+
+    @Override
+    public void deleteEntries(String region, Collection<String> keys) {
+        if (writeBehind != null) {
+            keys.forEach(key -> writeBehind.delete(region, key));
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (groupCommit != null) {
+                groupCommit.submit(keys.stream().map(key -> RepositoryWrite.delete(region, key)).toList());
+            } else {
+                delegate.deleteEntries(region, keys);
+            }
+        } finally {
+            recordCall("deleteEntries", start);
+        }
+    }
+
+    @Override
+    public void applyWrites(List<RepositoryWrite> writes) {
+        if (writeBehind != null) {
+            for (RepositoryWrite write : writes) {
+                switch (write.getKind()) {
+                    case SAVE -> writeBehind.save(write.getEntry());
+                    case DELETE -> writeBehind.delete(write.getRegion(), write.getKey());
+                    case EXPIRE -> writeBehind.updateExpiry(write.getRegion(), write.getKey(), write.getExpiresAt());
+                }
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (groupCommit != null) {
+                groupCommit.submit(writes);
+            } else {
+                delegate.applyWrites(writes);
+            }
+        } finally {
+            recordCall("applyWrites", start);
+        }
     }
 
     @Override
     public void deleteRegion(String region) {
-        delegate.deleteRegion(region);
+        if (writeBehind != null) {
+            writeBehind.discardRegion(region);
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.deleteRegion(region);
+        } finally {
+            recordCall("deleteRegion", start);
+        }
     }
 
     @Override
     public void updateExpiry(String region, String key, Long expiresAt) {
-        delegate.updateExpiry(region, key, expiresAt);
+        if (writeBehind != null) {
+            writeBehind.updateExpiry(region, key, expiresAt);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (groupCommit != null) {
+                groupCommit.submit(RepositoryWrite.expire(region, key, expiresAt));
+            } else {
+                delegate.updateExpiry(region, key, expiresAt);
+            }
+        } finally {
+            recordCall("updateExpiry", start);
+        }
     }
 
     @Override
     public void deleteExpiredEntries() {
-        delegate.deleteExpiredEntries();
+        long start = System.nanoTime();
+        try {
+            delegate.deleteExpiredEntries();
+        } finally {
+            recordCall("deleteExpiredEntries", start);
+        }
     }
 
     @Override
     public long getEntryCount(String region) {
-        return delegate.getEntryCount(region);
+        flush();
+        long start = System.nanoTime();
+        try {
+            return delegate.getEntryCount(region);
+        } finally {
+            recordCall("getEntryCount", start);
+        }
+    }
+
+    /**
+     * Count the call for the current thread (see RepositoryAccess) and record its latency
+     */
+    private void recordCall(String operation, long start) {
+        RepositoryAccess.record();
+        if (latencyStats != null) {
+            latencyStats.recordRepository(operation, (System.nanoTime() - start) / 1000);
+        }
+    }
+
+    /**
+     * Entry of a pending save, for a read, or null for a pending delete. The
+     * caller may put it in memory and compress it or move it off the heap, so
+     * it gets a copy with the value decoded, leaving the queued write as it was.
+     */
+    private static CacheEntry pendingEntry(WriteBehindQueue.PendingWrite pending) {
+        if (pending.isDelete()) {
+            return null;
+        }
+        CacheEntry entry = pending.getEntry().snapshot();
+        entry.setValue(entry.getValue());
+        return entry;
+    }
+
+    /**
+     * Pending writes answer from memory; only the rest is read from the delegate.
+     */
+    private List<CacheEntry> loadEntriesWithPending(String region, List<String> keys) {
+        List<CacheEntry> entries = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        List<Integer> storedIndexes = new ArrayList<>();
+        List<String> storedKeys = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            WriteBehindQueue.PendingWrite pending = writeBehind.get(region, keys.get(i));
+            if (pending != null && !pending.isExpiryOnly()) {
+                entries.set(i, pendingEntry(pending));
+            } else {
+                storedIndexes.add(i);
+                storedKeys.add(keys.get(i));
+            }
+        }
+        if (storedKeys.isEmpty()) {
+            return entries;
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<CacheEntry> stored = delegate.loadEntries(region, storedKeys);
+            for (int i = 0; i < stored.size(); i++) {
+                entries.set(storedIndexes.get(i),
+                        withPendingExpiry(stored.get(i), writeBehind.get(region, storedKeys.get(i))));
+            }
+            return entries;
+        } finally {
+            recordCall("loadEntries", start);
+        }
+    }
+
+    private static CacheEntry withPendingExpiry(CacheEntry stored, WriteBehindQueue.PendingWrite pending) {
+        if (stored != null && pending != null && pending.isExpiryOnly()) {
+            stored.setExpiresAt(pending.getExpiresAt());
+        }
+        return stored;
+    }
+
+    /**
+     * Persistence mode and write-behind figures for INFO
+     */
+    public Map<String, Object> getPersistenceStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("persistence_mode", writeBehind != null ? "write-behind" : "write-through");
+        if (writeBehind != null) {
+            stats.putAll(writeBehind.getStats());
+        }
+        if (groupCommit != null) {
+            stats.putAll(groupCommit.getStats());
+        }
+        return stats;
     }
 
     /**
@@ -4,6 +4,7 @@ import com.ash.projects.redisclone.repository.CacheRepository;
 import com.ash.projects.redisclone.repository.CacheRepositoryInterface;
 import com.ash.projects.redisclone.repository.CacheRepositoryRocksDB;
 import com.ash.projects.redisclone.repository.CacheRepositorySQL;
+import com.ash.projects.redisclone.service.LatencyStatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -51,6 +52,28 @@ public class CacheRepositoryConfig {
     @Value("${cache.rocksdb.base.path:./data/rocksdb}")
     private String rocksDbBasePath;
 
+    // write-through (default) or write-behind
+    @Value("${cache.persistence.mode:write-through}")
+    private String persistenceMode;
+
+    @Value("${cache.write.behind.flush.interval.ms:100}")
+    private long writeBehindFlushIntervalMs;
+
+    @Value("${cache.write.behind.batch.size:500}")
+    private int writeBehindBatchSize;
+
+    @Value("${cache.write.behind.max.pending:100000}")
+    private int writeBehindMaxPending;
+
+    @Value("${cache.repository.group.commit.enabled:true}")
+    private boolean groupCommitEnabled;
+
+    @Value("${cache.repository.group.commit.max.batch:256}")
+    private int groupCommitMaxBatch;
+
+    @Value("${cache.repository.group.commit.window.micros:0}")
+    private long groupCommitWindowMicros;
+
     /**
      * Creates the implementation bean based on configuration.
      * This bean will be used internally by the CacheRepository.
@@ -86,12 +109,28 @@ public class CacheRepositoryConfig {
      */
     @Bean
     @Primary
-    public CacheRepository cacheRepository(CacheRepositoryInterface cacheRepositoryImplementation) {
+    public CacheRepository cacheRepository(CacheRepositoryInterface cacheRepositoryImplementation,
+                                           LatencyStatsService latencyStats) {
         String implementationType = repositoryType.toLowerCase().trim();
         String typeName = "rocksdb".equals(implementationType) ? "RocksDB" : "SQL";
         
         logger.info("Creating primary CacheRepository bean with {} implementation", typeName);
+
+        WriteBehindQueue writeBehind = null;
+        String mode = persistenceMode.toLowerCase().trim();
+        if ("write-behind".equals(mode)) {
+            writeBehind = new WriteBehindQueue(cacheRepositoryImplementation, latencyStats,
+                    writeBehindFlushIntervalMs, writeBehindBatchSize, writeBehindMaxPending);
+        } else if (!"write-through".equals(mode)) {
+            logger.warn("Unknown persistence mode '{}', defaulting to write-through", mode);
+        }
+
+        GroupCommitter groupCommit = null;
+        if (writeBehind == null && groupCommitEnabled) {
+            groupCommit = new GroupCommitter(cacheRepositoryImplementation, latencyStats,
+                    groupCommitMaxBatch, groupCommitWindowMicros);
+        }
         
-        return new CacheRepository(cacheRepositoryImplementation, typeName);
+        return new CacheRepository(cacheRepositoryImplementation, typeName, latencyStats, writeBehind, groupCommit);
     }
 }
@@ -3,6 +3,7 @@ package com.ash.projects.redisclone.repository;
 import com.ash.projects.redisclone.model.CacheEntry;
 import jakarta.annotation.PostConstruct;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CacheRepositoryInterface {
@@ -11,14 +12,30 @@ public interface CacheRepositoryInterface {
 
     void saveEntry(CacheEntry entry);
 
+    /**
+     * Save several entries in one write (a single batch / transaction where the store supports it).
+     */
+    void saveEntries(List<CacheEntry> entries);
+
     CacheEntry loadEntry(String region, String key);
 
+    /**
+     * Load several keys of one region in one read.
+     * The result is positional: element i is the entry for keys.get(i), or null if it is not stored.
+     */
+    List<CacheEntry> loadEntries(String region, List<String> keys);
+
     List<CacheEntry> loadAllEntries();
 
     List<CacheEntry> loadEntriesByRegion(String region);
 
     void deleteEntry(String region, String key);
 
+    /**
+     * Delete several keys of one region in one write.
+     */
+    void deleteEntries(String region, Collection<String> keys);
+
     void deleteRegion(String region);
 
     void updateExpiry(String region, String key, Long expiresAt);
@@ -26,4 +43,41 @@ public interface CacheRepositoryInterface {
     void deleteExpiredEntries();
 
     long getEntryCount(String region);
+
+    /**
+     * Apply several writes, in order, as one unit of work where the store
+     * supports it (one transaction, one WriteBatch). The default applies runs
+     * of consecutive saves, and of consecutive deletes of one region, with the
+     * batch methods above.
+     *
+     * Unlike the single-write methods, a failure is not only logged: it is
+     * thrown, and the writes may have been applied partially. Writes are
+     * idempotent, so the whole list can be applied again.
+     */
+    default void applyWrites(List<RepositoryWrite> writes) {
+        int i = 0;
+        while (i < writes.size()) {
+            RepositoryWrite write = writes.get(i);
+            int end = i + 1;
+            while (end < writes.size() && writes.get(end).getKind() == write.getKind()
+                    && (write.getKind() == RepositoryWrite.Kind.SAVE
+                        || writes.get(end).getRegion().equals(write.getRegion()))) {
+                end++;
+            }
+            List<RepositoryWrite> run = writes.subList(i, end);
+            switch (write.getKind()) {
+                case SAVE -> saveEntries(run.stream().map(RepositoryWrite::getEntry).toList());
+                case DELETE -> deleteEntries(write.getRegion(), run.stream().map(RepositoryWrite::getKey).toList());
+                case EXPIRE -> run.forEach(expire -> updateExpiry(expire.getRegion(), expire.getKey(), expire.getExpiresAt()));
+            }
+            i = end;
+        }
+    }
+
+    /**
+     * Make every write accepted so far durable. Writes are synchronous unless
+     * the repository buffers them (write-behind), so by default there is nothing to do.
+     */
+    default void flush() {
+    }
 }
@@ -278,10 +278,10 @@ public class CacheRepositoryRocksDB implements CacheRepositoryInterface {
         try {
             RocksDB db = getOrCreateRegionDb(entry.getRegion());
 
-            // Serialize the entire CacheEntry to JSON
-            String entryJson = objectMapper.writeValueAsString(entry);
+            // Serialize the entire CacheEntry straight to UTF-8 JSON bytes
+            // (no intermediate String, which matters for multi-megabyte values)
             byte[] keyBytes = createCompositeKey(entry.getKey());
-            byte[] valueBytes = entryJson.getBytes(StandardCharsets.UTF_8);
+            byte[] valueBytes = objectMapper.writeValueAsBytes(entry);
 
             // Write to RocksDB
             db.put(keyBytes, valueBytes);
@@ -292,6 +292,83 @@ public class CacheRepositoryRocksDB implements CacheRepositoryInterface {
         }
     }
 
+    /**
+     * Save entries with one WriteBatch per region, so a batch costs one WAL append
+     * and one memtable insert pass instead of a put per key.
+     */
+    @Override
+    public void saveEntries(List<CacheEntry> entries) {
+        Map<String, List<CacheEntry>> byRegion = new LinkedHashMap<>();
+        for (CacheEntry entry : entries) {
+            byRegion.computeIfAbsent(entry.getRegion(), r -> new ArrayList<>()).add(entry);
+        }
+
+        for (Map.Entry<String, List<CacheEntry>> regionEntries : byRegion.entrySet()) {
+            String region = regionEntries.getKey();
+            try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+                RocksDB db = getOrCreateRegionDb(region);
+
+                for (CacheEntry entry : regionEntries.getValue()) {
+                    batch.put(createCompositeKey(entry.getKey()), objectMapper.writeValueAsBytes(entry));
+                }
+                db.write(writeOptions, batch);
+
+                logger.debug("Saved {} entries in batch: region={}", regionEntries.getValue().size(), region);
+            } catch (Exception e) {
+                logger.error("Error saving entry batch: region={}, size={}", region, regionEntries.getValue().size(), e);
+            }
+        }
+    }
+
+    /**
+     * Apply the writes with one WriteBatch per region (each region is its own
+     * database), keeping their order within a region. An expiry change reads
+     * the entry, from earlier writes of the same list first.
+     */
+    @Override
+    public void applyWrites(List<RepositoryWrite> writes) {
+        Map<String, List<RepositoryWrite>> byRegion = new LinkedHashMap<>();
+        for (RepositoryWrite write : writes) {
+            byRegion.computeIfAbsent(write.getRegion(), r -> new ArrayList<>()).add(write);
+        }
+
+        for (Map.Entry<String, List<RepositoryWrite>> regionWrites : byRegion.entrySet()) {
+            String region = regionWrites.getKey();
+            try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+                RocksDB db = getOrCreateRegionDb(region);
+                // Latest state of the keys written by this batch, null once deleted
+                Map<String, CacheEntry> written = new HashMap<>();
+
+                for (RepositoryWrite write : regionWrites.getValue()) {
+                    byte[] keyBytes = createCompositeKey(write.getKey());
+                    switch (write.getKind()) {
+                        case SAVE -> {
+                            batch.put(keyBytes, objectMapper.writeValueAsBytes(write.getEntry()));
+                            written.put(write.getKey(), write.getEntry());
+                        }
+                        case DELETE -> {
+                            batch.delete(keyBytes);
+                            written.put(write.getKey(), null);
+                        }
+                        case EXPIRE -> {
+                            CacheEntry entry = written.containsKey(write.getKey())
+                                    ? written.get(write.getKey()) : loadEntry(region, write.getKey());
+                            if (entry != null) {
+                                entry.setExpiresAt(write.getExpiresAt());
+                                batch.put(keyBytes, objectMapper.writeValueAsBytes(entry));
+                            }
+                        }
+                    }
+                }
+                db.write(writeOptions, batch);
+
+                logger.debug("Applied {} writes in batch: region={}", regionWrites.getValue().size(), region);
+            } catch (Exception e) {
+                throw new IllegalStateException("Error applying write batch to region " + region, e);
+            }
+        }
+    }
+
     @Override
     public CacheEntry loadEntry(String region, String key) {
         try {
@@ -303,8 +380,7 @@ public class CacheRepositoryRocksDB implements CacheRepositoryInterface {
                 return null;
             }
 
-            String entryJson = new String(valueBytes, StandardCharsets.UTF_8);
-            CacheEntry entry = objectMapper.readValue(entryJson, CacheEntry.class);
+            CacheEntry entry = objectMapper.readValue(valueBytes, CacheEntry.class);
 
             logger.debug("Loaded entry: region={}, key={}", region, key);
             return entry;
@@ -315,6 +391,42 @@ public class CacheRepositoryRocksDB implements CacheRepositoryInterface {
         }
     }
 
+    @Override
+    public List<CacheEntry> loadEntries(String region, List<String> keys) {
+        List<CacheEntry> entries = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        if (keys.isEmpty()) {
+            return entries;
+        }
+
+        try {
+            RocksDB db = getOrCreateRegionDb(region);
+
+            List<byte[]> keyBytes = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                keyBytes.add(createCompositeKey(key));
+            }
+
+            List<byte[]> values = db.multiGetAsList(keyBytes);
+            for (int i = 0; i < values.size(); i++) {
+                byte[] valueBytes = values.get(i);
+                if (valueBytes == null) {
+                    continue;
+                }
+                try {
+                    entries.set(i, objectMapper.readValue(valueBytes, CacheEntry.class));
+                } catch (Exception e) {
+                    logger.error("Error deserializing entry: region={}, key={}", region, keys.get(i), e);
+                }
+            }
+
+            logger.debug("Loaded {} keys in batch: region={}", keys.size(), region);
+        } catch (Exception e) {
+            logger.error("Error loading entry batch: region={}, size={}", region, keys.size(), e);
+        }
+
+        return entries;
+    }
+
     @Override
     public List<CacheEntry> loadAllEntries() {
         List<CacheEntry> allEntries = new ArrayList<>();
@@ -340,10 +452,8 @@ public class CacheRepositoryRocksDB implements CacheRepositoryInterface {
 
                 while (iterator.isValid()) {
                     byte[] valueBytes = iterator.value();
-                    String entryJson = new String(valueBytes, StandardCharsets.UTF_8);
-
                     try {
-                        CacheEntry entry = objectMapper.readValue(entryJson, CacheEntry.class);
+                        CacheEntry entry = objectMapper.readValue(valueBytes, CacheEntry.class);
                         entries.add(entry);
                     } catch (Exception e) {
                         logger.error("Error deserializing entry in region: {}", region, e);
@@ -374,6 +484,25 @@ public class CacheRepositoryRocksDB implements CacheRepositoryInterface {
         }
     }
 
+    @Override
+    public void deleteEntries(String region, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+            RocksDB db = getOrCreateRegionDb(region);
+            for (String key : keys) {
+                batch.delete(createCompositeKey(key));
+            }
+            db.write(writeOptions, batch);
+
+            logger.debug("Deleted {} entries in batch: region={}", keys.size(), region);
+        } catch (Exception e) {
+            logger.error("Error deleting entry batch: region={}, size={}", region, keys.size(), e);
+        }
+    }
+
     @Override
     public void deleteRegion(String region) {
         try {
@@ -465,10 +594,8 @@ public class CacheRepositoryRocksDB implements CacheRepositoryInterface {
 
                 while (iterator.isValid()) {
                     byte[] valueBytes = iterator.value();
-                    String entryJson = new String(valueBytes, StandardCharsets.UTF_8);
-
                     try {
-                        CacheEntry entry = objectMapper.readValue(entryJson, CacheEntry.class);
+                        CacheEntry entry = objectMapper.readValue(valueBytes, CacheEntry.class);
 
                         if (entry.getExpiresAt() != null && entry.getExpiresAt() < currentTime) {
                             keysToDelete.add(entry.getKey());
@@ -482,10 +609,8 @@ public class CacheRepositoryRocksDB implements CacheRepositoryInterface {
             }
 
             // Delete expired entries
-            for (String key : keysToDelete) {
-                deleteEntry(region, key);
-                deleted++;
-            }
+            deleteEntries(region, keysToDelete);
+            deleted = keysToDelete.size();
 
         } catch (Exception e) {
             logger.error("Error deleting expired entries in region: {}", region, e);
@@ -10,9 +10,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.List;
+import java.util.*;
 
 /**
  * SQL-based implementation of CacheRepositoryInterface.
@@ -28,6 +30,19 @@ public class CacheRepositorySQL implements CacheRepositoryInterface {
 
     private static final Logger logger = LoggerFactory.getLogger(CacheRepositorySQL.class);
 
+    // Keys per IN (...) query; stays below SQLite's default limit of 999 bound parameters
+    private static final int MAX_IN_CLAUSE_KEYS = 500;
+
+    private static final String UPSERT_SQL = """
+        INSERT OR REPLACE INTO cache_entries 
+        (region, key, data_type, value_data, created_at, last_accessed_at, expires_at, in_memory)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String DELETE_SQL = "DELETE FROM cache_entries WHERE region = ? AND key = ?";
+
+    private static final String UPDATE_EXPIRY_SQL = "UPDATE cache_entries SET expires_at = ? WHERE region = ? AND key = ?";
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
@@ -64,30 +79,99 @@ public class CacheRepositorySQL implements CacheRepositoryInterface {
     @Override
     public void saveEntry(CacheEntry entry) {
         try {
-            String valueJson = objectMapper.writeValueAsString(entry.getValue());
-
-            String sql = """
-                INSERT OR REPLACE INTO cache_entries 
-                (region, key, data_type, value_data, created_at, last_accessed_at, expires_at, in_memory)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-
-            jdbcTemplate.update(sql,
-                    entry.getRegion(),
-                    entry.getKey(),
-                    entry.getDataType().name(),
-                    valueJson,
-                    entry.getCreatedAt(),
-                    entry.getLastAccessedAt(),
-                    entry.getExpiresAt(),
-                    entry.isInMemory() ? 1 : 0
-            );
-
+            jdbcTemplate.update(UPSERT_SQL, toRow(entry));
         } catch (Exception e) {
             logger.error("Error saving entry: region={}, key={}", entry.getRegion(), entry.getKey(), e);
         }
     }
 
+    /**
+     * Save entries as one JDBC batch: a single prepared statement, one round trip per driver batch.
+     */
+    @Override
+    public void saveEntries(List<CacheEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Object[]> rows = new ArrayList<>(entries.size());
+            for (CacheEntry entry : entries) {
+                rows.add(toRow(entry));
+            }
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        } catch (Exception e) {
+            logger.error("Error saving entry batch: size={}", entries.size(), e);
+        }
+    }
+
+    /**
+     * Apply the writes in one transaction, so SQLite syncs its journal once for
+     * the whole list instead of once per statement. Consecutive writes of the
+     * same kind share a JDBC batch; the order of the writes is kept.
+     */
+    @Override
+    public void applyWrites(List<RepositoryWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute((Connection connection) -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement upsert = connection.prepareStatement(UPSERT_SQL);
+                 PreparedStatement delete = connection.prepareStatement(DELETE_SQL);
+                 PreparedStatement expire = connection.prepareStatement(UPDATE_EXPIRY_SQL)) {
+                PreparedStatement pending = null;
+                for (RepositoryWrite write : writes) {
+                    PreparedStatement statement = switch (write.getKind()) {
+                        case SAVE -> upsert;
+                        case DELETE -> delete;
+                        case EXPIRE -> expire;
+                    };
+                    if (pending != null && pending != statement) {
+                        pending.executeBatch();
+                    }
+                    bind(statement, write);
+                    statement.addBatch();
+                    pending = statement;
+                }
+                pending.executeBatch();
+                connection.commit();
+                return null;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e instanceof SQLException ? (SQLException) e : new SQLException(e);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    private void bind(PreparedStatement statement, RepositoryWrite write) throws Exception {
+        Object[] row = switch (write.getKind()) {
+            case SAVE -> toRow(write.getEntry());
+            case DELETE -> new Object[] {write.getRegion(), write.getKey()};
+            case EXPIRE -> new Object[] {write.getExpiresAt(), write.getRegion(), write.getKey()};
+        };
+        for (int i = 0; i < row.length; i++) {
+            statement.setObject(i + 1, row[i]);
+        }
+    }
+
+    private Object[] toRow(CacheEntry entry) throws Exception {
+        return new Object[] {
+                entry.getRegion(),
+                entry.getKey(),
+                entry.getDataType().name(),
+                objectMapper.writeValueAsString(entry.getValue()),
+                entry.getCreatedAt(),
+                entry.getLastAccessedAt(),
+                entry.getExpiresAt(),
+                entry.isInMemory() ? 1 : 0
+        };
+    }
+
     @Override
     public CacheEntry loadEntry(String region, String key) {
         try {
@@ -103,6 +187,41 @@ public class CacheRepositorySQL implements CacheRepositoryInterface {
         }
     }
 
+    @Override
+    public List<CacheEntry> loadEntries(String region, List<String> keys) {
+        List<CacheEntry> entries = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        if (keys.isEmpty()) {
+            return entries;
+        }
+
+        try {
+            Map<String, CacheEntry> found = new HashMap<>();
+            for (int from = 0; from < keys.size(); from += MAX_IN_CLAUSE_KEYS) {
+                List<String> chunk = keys.subList(from, Math.min(from + MAX_IN_CLAUSE_KEYS, keys.size()));
+
+                String sql = "SELECT * FROM cache_entries WHERE region = ? AND key IN ("
+                        + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                Object[] params = new Object[chunk.size() + 1];
+                params[0] = region;
+                for (int i = 0; i < chunk.size(); i++) {
+                    params[i + 1] = chunk.get(i);
+                }
+
+                for (CacheEntry entry : jdbcTemplate.query(sql, new CacheEntryRowMapper(), params)) {
+                    found.put(entry.getKey(), entry);
+                }
+            }
+
+            for (int i = 0; i < keys.size(); i++) {
+                entries.set(i, found.get(keys.get(i)));
+            }
+        } catch (Exception e) {
+            logger.error("Error loading entry batch: region={}, size={}", region, keys.size(), e);
+        }
+
+        return entries;
+    }
+
     @Override
     public List<CacheEntry> loadAllEntries() {
         try {
@@ -128,13 +247,29 @@ public class CacheRepositorySQL implements CacheRepositoryInterface {
     @Override
     public void deleteEntry(String region, String key) {
         try {
-            String sql = "DELETE FROM cache_entries WHERE region = ? AND key = ?";
-            jdbcTemplate.update(sql, region, key);
+            jdbcTemplate.update(DELETE_SQL, region, key);
         } catch (Exception e) {
             logger.error("Error deleting entry: region={}, key={}", region, key, e);
         }
     }
 
+    @Override
+    public void deleteEntries(String region, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Object[]> rows = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                rows.add(new Object[] {region, key});
+            }
+            jdbcTemplate.batchUpdate(DELETE_SQL, rows);
+        } catch (Exception e) {
+            logger.error("Error deleting entry batch: region={}, size={}", region, keys.size(), e);
+        }
+    }
+
     @Override
     public void deleteRegion(String region) {
         try {
@@ -148,8 +283,7 @@ public class CacheRepositorySQL implements CacheRepositoryInterface {
     @Override
     public void updateExpiry(String region, String key, Long expiresAt) {
         try {
-            String sql = "UPDATE cache_entries SET expires_at = ? WHERE region = ? AND key = ?";
-            jdbcTemplate.update(sql, expiresAt, region, key);
+            jdbcTemplate.update(UPDATE_EXPIRY_SQL, expiresAt, region, key);
         } catch (Exception e) {
             logger.error("Error updating expiry: region={}, key={}", region, key, e);
         }
@@ -0,0 +1,195 @@
+package com.ash.projects.redisclone.repository;
+
+import com.ash.projects.redisclone.service.LatencyStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Group commit for write-through persistence: writes of concurrent callers are
+ * collected and applied with one applyWrites call (one JDBC transaction, one
+ * RocksDB WriteBatch per region), and every caller returns once the batch
+ * holding its write has been applied. Writes stay synchronous and durable;
+ * only the per-write cost of the store (transaction commit, WAL append) is
+ * shared.
+ *
+ * There is no committer thread. The first caller to find no commit running
+ * becomes the leader: it optionally waits up to the commit window for more
+ * writes, applies up to max-batch queued writes, wakes the waiting callers and
+ * hands over. Writes arriving while a batch is being applied form the next
+ * batch, so batches grow with the load and a lone writer pays no extra delay
+ * (with the default window of 0).
+ *
+ * Writes are applied in the order they were queued.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class GroupCommitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitter.class);
+
+    private final CacheRepositoryInterface target;
+    private final LatencyStatsService latencyStats;
+    private final int maxBatch;
+    private final long windowNanos;
+
+    private final ConcurrentLinkedQueue<QueuedWrite> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition committed = lock.newCondition();
+    private final Condition batchFull = lock.newCondition();
+    private boolean leaderActive;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    /**
+     * @param target        store the batches are applied to
+     * @param latencyStats  receives the duration of every batch (may be null)
+     * @param maxBatch      most writes applied together
+     * @param windowMicros  how long a leader waits for more writes before applying, 0 = not at all
+     */
+    public GroupCommitter(CacheRepositoryInterface target, LatencyStatsService latencyStats,
+                          int maxBatch, long windowMicros) {
+        this.target = target;
+        this.latencyStats = latencyStats;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.windowNanos = Math.max(0, windowMicros) * 1000;
+    }
+
+    /**
+     * Queue a write and return once it has been applied.
+     */
+    public void submit(RepositoryWrite write) {
+        submit(List.of(write));
+    }
+
+    /**
+     * Queue several writes and return once all of them have been applied.
+     */
+    public void submit(List<RepositoryWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        // Batches are applied in queue order, so the last write is applied last
+        QueuedWrite queuedWrite = null;
+        for (RepositoryWrite write : writes) {
+            queuedWrite = new QueuedWrite(write);
+            queue.add(queuedWrite);
+        }
+        int waiting = queued.addAndGet(writes.size());
+
+        lock.lock();
+        try {
+            if (waiting >= maxBatch) {
+                batchFull.signal();
+            }
+            while (!queuedWrite.done) {
+                if (leaderActive) {
+                    committed.awaitUninterruptibly();
+                    continue;
+                }
+                leaderActive = true;
+                lock.unlock();
+                try {
+                    lead();
+                } finally {
+                    lock.lock();
+                    leaderActive = false;
+                    committed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long batchCount = batches.get();
+        stats.put("group_commit_batches", batchCount);
+        stats.put("group_commit_writes", writes.get());
+        stats.put("group_commit_avg_batch", batchCount > 0 ? String.format("%.2f", (double) writes.get() / batchCount) : "0");
+        stats.put("group_commit_failed_batches", failedBatches.get());
+        return stats;
+    }
+
+    private void lead() {
+        if (windowNanos > 0 && queued.get() < maxBatch) {
+            lock.lock();
+            try {
+                batchFull.awaitNanos(windowNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<QueuedWrite> batch = new ArrayList<>(Math.min(maxBatch, Math.max(1, queued.get())));
+        QueuedWrite next;
+        while (batch.size() < maxBatch && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        queued.addAndGet(-batch.size());
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<RepositoryWrite> batchWrites = new ArrayList<>(batch.size());
+        for (QueuedWrite queuedWrite : batch) {
+            batchWrites.add(queuedWrite.write);
+        }
+        long start = System.nanoTime();
+        try {
+            target.applyWrites(batchWrites);
+        } catch (Exception e) {
+            // Fall back to one write at a time, so one bad write does not fail its neighbours
+            failedBatches.incrementAndGet();
+            logger.warn("Group commit of {} writes failed, applying them one by one: {}", batch.size(), e.getMessage());
+            for (RepositoryWrite write : batchWrites) {
+                applySingle(write);
+            }
+        } finally {
+            if (latencyStats != null) {
+                latencyStats.recordRepository("groupCommit", (System.nanoTime() - start) / 1000);
+            }
+            batches.incrementAndGet();
+            writes.addAndGet(batch.size());
+            // Release the callers even if the fallback failed too; the single-write methods log their errors
+            for (QueuedWrite queuedWrite : batch) {
+                queuedWrite.done = true;
+            }
+        }
+    }
+
+    private void applySingle(RepositoryWrite write) {
+        switch (write.getKind()) {
+            case SAVE -> target.saveEntry(write.getEntry());
+            case DELETE -> target.deleteEntry(write.getRegion(), write.getKey());
+            case EXPIRE -> target.updateExpiry(write.getRegion(), write.getKey(), write.getExpiresAt());
+        }
+    }
+
+    private static final class QueuedWrite {
+        private final RepositoryWrite write;
+        // Set by the leader before it signals committed
+        private volatile boolean done;
+
+        QueuedWrite(RepositoryWrite write) {
+            this.write = write;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ash.projects.redisclone.repository;
+
+/**
+ * Per-thread count of calls into the persistent repository.
+ *
+ * CacheRepository records every delegated data call, so the command layer can
+ * tell whether a command was served from memory or had to go to RocksDB / the
+ * database (see SLOWLOG) by comparing the count before and after it runs.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public final class RepositoryAccess {
+
+    private static final ThreadLocal<int[]> CALLS = ThreadLocal.withInitial(() -> new int[1]);
+
+    private RepositoryAccess() {
+    }
+
+    static void record() {
+        CALLS.get()[0]++;
+    }
+
+    /**
+     * @return repository calls made by the current thread so far (wraps around, compare by difference)
+     */
+    public static int count() {
+        return CALLS.get()[0];
+    }
+}
@@ -0,0 +1,48 @@
+package com.ash.projects.redisclone.repository;
+
+import com.ash.projects.redisclone.model.CacheEntry;
+
+/**
+ * One mutation of the persistent store, so several of them can be applied as a
+ * single batch (see CacheRepositoryInterface.applyWrites). All kinds are
+ * idempotent: applying a write twice leaves the same state.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public final class RepositoryWrite {
+
+    public enum Kind { SAVE, DELETE, EXPIRE }
+
+    private final Kind kind;
+    private final String region;
+    private final String key;
+    private final CacheEntry entry;
+    private final Long expiresAt;
+
+    private RepositoryWrite(Kind kind, String region, String key, CacheEntry entry, Long expiresAt) {
+        this.kind = kind;
+        this.region = region;
+        this.key = key;
+        this.entry = entry;
+        this.expiresAt = expiresAt;
+    }
+
+    public static RepositoryWrite save(CacheEntry entry) {
+        return new RepositoryWrite(Kind.SAVE, entry.getRegion(), entry.getKey(), entry, null);
+    }
+
+    public static RepositoryWrite delete(String region, String key) {
+        return new RepositoryWrite(Kind.DELETE, region, key, null, null);
+    }
+
+    public static RepositoryWrite expire(String region, String key, Long expiresAt) {
+        return new RepositoryWrite(Kind.EXPIRE, region, key, null, expiresAt);
+    }
+
+    public Kind getKind() { return kind; }
+    public String getRegion() { return region; }
+    public String getKey() { return key; }
+    public CacheEntry getEntry() { return entry; }
+    public Long getExpiresAt() { return expiresAt; }
+}
@@ -0,0 +1,377 @@
+package com.ash.projects.redisclone.repository;
+
+import com.ash.projects.redisclone.model.CacheEntry;
+import com.ash.projects.redisclone.service.LatencyStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer between CacheRepository and the persistent store
+ * (cache.persistence.mode=write-behind).
+ *
+ * Writes only record the latest pending mutation of each key in a per-region
+ * dirty map, so repeated writes of a hot key coalesce into one store write.
+ * A background thread flushes the dirty maps in batches, each applied with
+ * one applyWrites call (one transaction / WriteBatch), every flush interval or
+ * as soon as batch-size keys are dirty, which bounds how far the store lags
+ * behind memory. When max-pending keys are dirty, writers of new keys block
+ * until the flusher catches up.
+ *
+ * Reads go through {@link #get(String, String)} first, so a key is read back
+ * as written even before it reaches the store. A pending mutation is only
+ * dropped once it has been written, and only if the key was not written
+ * again meanwhile; a failed flush keeps everything pending for the next one.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class WriteBehindQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private final CacheRepositoryInterface target;
+    private final LatencyStatsService latencyStats;
+    private final long flushIntervalMs;
+    private final int batchSize;
+    private final int maxPending;
+
+    // Region -> key -> latest pending mutation
+    private final Map<String, Map<String, PendingWrite>> dirty = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // Held while writing to the store: one flush at a time, region drops wait for it
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ReentrantLock signalLock = new ReentrantLock();
+    private final Condition flushRequested = signalLock.newCondition();
+    private final Condition drained = signalLock.newCondition();
+
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong flushedWrites = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong throttledWrites = new AtomicLong();
+    private volatile long lastFlushLagMs;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    /**
+     * @param target          store the pending writes are flushed to
+     * @param latencyStats    receives the duration of every flush (may be null)
+     * @param flushIntervalMs longest time between two flushes
+     * @param batchSize       dirty keys that trigger an early flush; also the store batch size
+     * @param maxPending      dirty keys at which writers of new keys block
+     */
+    public WriteBehindQueue(CacheRepositoryInterface target, LatencyStatsService latencyStats,
+                            long flushIntervalMs, int batchSize, int maxPending) {
+        this.target = target;
+        this.latencyStats = latencyStats;
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxPending = Math.max(this.batchSize, maxPending);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "ash-redis-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Write-behind persistence started: flush every {} ms or {} keys, at most {} pending keys",
+                flushIntervalMs, batchSize, maxPending);
+    }
+
+    /**
+     * Stop the flusher and write out everything still pending.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        signal(flushRequested);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (pending.get() > 0) {
+            logger.error("Write-behind stopped with {} writes not persisted", pending.get());
+        } else {
+            logger.info("Write-behind stopped, all writes persisted");
+        }
+    }
+
+    /**
+     * Queue a snapshot of the entry: before the write is flushed the entry
+     * itself can leave memory (and its off-heap value be freed and reused), or
+     * its hash, list or set be changed in place.
+     */
+    public void save(CacheEntry entry) {
+        enqueue(entry.getRegion(), entry.getKey(), new PendingWrite(Kind.SAVE, entry.snapshot(), null));
+    }
+
+    public void delete(String region, String key) {
+        enqueue(region, key, new PendingWrite(Kind.DELETE, null, null));
+    }
+
+    public void updateExpiry(String region, String key, Long expiresAt) {
+        enqueue(region, key, new PendingWrite(Kind.EXPIRE, null, expiresAt));
+    }
+
+    /**
+     * @return the pending mutation of the key, or null if the store is up to date
+     */
+    public PendingWrite get(String region, String key) {
+        Map<String, PendingWrite> regionQueue = dirty.get(region);
+        return regionQueue != null ? regionQueue.get(key) : null;
+    }
+
+    /**
+     * Drop the pending writes of a region that is being deleted from the store.
+     */
+    public void discardRegion(String region) {
+        flushLock.lock();
+        try {
+            Map<String, PendingWrite> regionQueue = dirty.remove(region);
+            if (regionQueue != null) {
+                pending.addAndGet(-regionQueue.size());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        signal(drained);
+    }
+
+    /**
+     * Write everything pending to the store, on the calling thread.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            for (Map.Entry<String, Map<String, PendingWrite>> region : dirty.entrySet()) {
+                if (!flushRegion(region.getKey(), region.getValue())) {
+                    break;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        signal(drained);
+    }
+
+    public int getPendingCount() {
+        return Math.max(0, pending.get());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("write_behind_pending", getPendingCount());
+        stats.put("write_behind_coalesced", coalesced.get());
+        stats.put("write_behind_flushed", flushedWrites.get());
+        stats.put("write_behind_flushes", flushes.get());
+        stats.put("write_behind_failed_flushes", failedFlushes.get());
+        stats.put("write_behind_throttled", throttledWrites.get());
+        stats.put("write_behind_last_lag_ms", lastFlushLagMs);
+        return stats;
+    }
+
+    private void enqueue(String region, String key, PendingWrite write) {
+        Map<String, PendingWrite> regionQueue = dirty.computeIfAbsent(region, k -> new ConcurrentHashMap<>());
+        if (!regionQueue.containsKey(key)) {
+            awaitCapacity();
+        }
+        boolean[] added = new boolean[1];
+        regionQueue.compute(key, (k, previous) -> {
+            added[0] = previous == null;
+            return previous == null ? write : previous.merge(write);
+        });
+        if (added[0]) {
+            if (pending.incrementAndGet() >= batchSize) {
+                signal(flushRequested);
+            }
+        } else {
+            coalesced.incrementAndGet();
+        }
+    }
+
+    /**
+     * Backpressure: block while max-pending keys are waiting for the store.
+     */
+    private void awaitCapacity() {
+        if (pending.get() < maxPending || !running) {
+            return;
+        }
+        throttledWrites.incrementAndGet();
+        signalLock.lock();
+        try {
+            while (pending.get() >= maxPending && running) {
+                flushRequested.signal();
+                drained.await(flushIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            signalLock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            signalLock.lock();
+            try {
+                if (pending.get() < batchSize) {
+                    flushRequested.await(flushIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                signalLock.unlock();
+            }
+            if (pending.get() > 0) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * @return false if the store failed; the remaining writes stay pending
+     */
+    private boolean flushRegion(String region, Map<String, PendingWrite> regionQueue) {
+        List<Map.Entry<String, PendingWrite>> batch = new ArrayList<>(Math.min(batchSize, regionQueue.size()));
+        for (Map.Entry<String, PendingWrite> write : regionQueue.entrySet()) {
+            batch.add(Map.entry(write.getKey(), write.getValue()));
+            if (batch.size() >= batchSize) {
+                if (!writeBatch(region, regionQueue, batch)) {
+                    return false;
+                }
+                batch.clear();
+            }
+        }
+        return batch.isEmpty() || writeBatch(region, regionQueue, batch);
+    }
+
+    private boolean writeBatch(String region, Map<String, PendingWrite> regionQueue,
+                               List<Map.Entry<String, PendingWrite>> batch) {
+        List<RepositoryWrite> writes = new ArrayList<>(batch.size());
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        long oldest = now;
+        try {
+            for (Map.Entry<String, PendingWrite> write : batch) {
+                PendingWrite pendingWrite = write.getValue();
+                oldest = Math.min(oldest, pendingWrite.enqueuedAt);
+                writes.add(switch (pendingWrite.kind) {
+                    case SAVE -> RepositoryWrite.save(pendingWrite.entry);
+                    case DELETE -> RepositoryWrite.delete(region, write.getKey());
+                    case EXPIRE -> RepositoryWrite.expire(region, write.getKey(), pendingWrite.expiresAt);
+                });
+            }
+            // One transaction / WriteBatch per flushed batch
+            target.applyWrites(writes);
+        } catch (Exception e) {
+            failedFlushes.incrementAndGet();
+            logger.error("Write-behind flush of {} writes to region '{}' failed, will retry: {}",
+                    batch.size(), region, e.getMessage());
+            return false;
+        } finally {
+            if (latencyStats != null) {
+                latencyStats.recordRepository("writeBehindFlush", (System.nanoTime() - start) / 1000);
+            }
+        }
+
+        for (Map.Entry<String, PendingWrite> write : batch) {
+            // Keep it if the key was written again while this batch was being stored
+            if (regionQueue.remove(write.getKey(), write.getValue())) {
+                pending.decrementAndGet();
+            }
+        }
+        flushedWrites.addAndGet(batch.size());
+        flushes.incrementAndGet();
+        lastFlushLagMs = now - oldest;
+        return true;
+    }
+
+    private void signal(Condition condition) {
+        signalLock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            signalLock.unlock();
+        }
+    }
+
+    enum Kind { SAVE, DELETE, EXPIRE }
+
+    /**
+     * The latest not yet persisted mutation of a key. Every write creates a new
+     * instance, so the flusher can tell whether the key changed while it was
+     * being stored.
+     */
+    public static final class PendingWrite {
+        private final Kind kind;
+        private final CacheEntry entry;
+        private final Long expiresAt;
+        private final long enqueuedAt;
+
+        PendingWrite(Kind kind, CacheEntry entry, Long expiresAt) {
+            this(kind, entry, expiresAt, System.currentTimeMillis());
+        }
+
+        private PendingWrite(Kind kind, CacheEntry entry, Long expiresAt, long enqueuedAt) {
+            this.kind = kind;
+            this.entry = entry;
+            this.expiresAt = expiresAt;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        /**
+         * Coalesce a newer write into this one. An expiry change of a pending
+         * save is carried by the saved entry itself; the age of the oldest
+         * unflushed write is kept for the lag figure.
+         */
+        PendingWrite merge(PendingWrite newer) {
+            if (newer.kind == Kind.EXPIRE && kind != Kind.EXPIRE) {
+                // A new snapshot: the flusher may be writing the queued one right now
+                CacheEntry updated = kind == Kind.SAVE ? entry.withExpiresAt(newer.expiresAt) : entry;
+                return new PendingWrite(kind, updated, expiresAt, enqueuedAt);
+            }
+            return new PendingWrite(newer.kind, newer.entry, newer.expiresAt, enqueuedAt);
+        }
+
+        public boolean isDelete() {
+            return kind == Kind.DELETE;
+        }
+
+        public boolean isExpiryOnly() {
+            return kind == Kind.EXPIRE;
+        }
+
+        /**
+         * @return the entry to save, null for a delete or an expiry change
+         */
+        public CacheEntry getEntry() {
+            return entry;
+        }
+
+        public Long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
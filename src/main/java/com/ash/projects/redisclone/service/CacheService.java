@@ -1,5 +1,8 @@
 package com.ash.projects.redisclone.service;
 
+import com.ash.projects.redisclone.eviction.EvictionPolicies;
+import com.ash.projects.redisclone.eviction.EvictionPolicy;
+import com.ash.projects.redisclone.eviction.SampledEvictor;
 import com.ash.projects.redisclone.model.*;
 import com.ash.projects.redisclone.repository.CacheRepositoryInterface;
 // CHANGED: Import interface instead of concrete implementation
@@ -16,11 +19,15 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -44,6 +51,10 @@ public class CacheService {
     @Value("${cache.max.memory.objects:100000}")
     private int maxMemoryObjects;
 
+    // Estimated bytes of in-memory entries before LRU entries are evicted to storage (0 = no byte limit)
+    @Value("${cache.max.memory.bytes:0}")
+    private long maxMemoryBytes;
+
     @Value("${cache.default.region:region0}")
     private String defaultRegion;
 
@@ -59,6 +70,10 @@ public class CacheService {
     @Value("${cache.heap.monitor.interval.ms:30000}")
     private long heapMonitorInterval;
 
+    // Answer reads of keys missing from the region's key set without asking the repository
+    @Value("${cache.negative.lookup.enabled:true}")
+    private boolean negativeLookupEnabled;
+
     // CHANGED: Inject interface instead of concrete implementation
     @Autowired
     private CacheRepositoryInterface cacheRepository;
@@ -75,11 +90,120 @@ public class CacheService {
     // Region -> (Key -> CacheEntry)
     private final Map<String, Map<String, CacheEntry>> memoryCache = new ConcurrentHashMap<>();
 
-    // Region -> Set of all keys (including those in DB)
+    // Count and estimated size of the entries in memoryCache
+    private final MemoryAccountant memoryAccountant = new MemoryAccountant();
+
+    // Region -> Set of all keys (including those in DB), a CompactKeySet
     private final Map<String, Set<String>> allKeys = new ConcurrentHashMap<>();
 
-    // LRU tracking
-    private final Map<String, LinkedHashMap<String, Long>> lruTracking = new ConcurrentHashMap<>();
+    // Keep the key bytes of the key sets in direct (off-heap) buffers
+    @Value("${cache.key.directory.off.heap:true}")
+    private boolean keyDirectoryOffHeap;
+
+    // String values kept off the heap, see SlabValueStore (null = on the heap)
+    private SlabValueStore offHeapValues;
+
+    @Value("${cache.offheap.values.enabled:false}")
+    private boolean offHeapValuesEnabled;
+
+    @Value("${cache.offheap.values.max.bytes:1073741824}")
+    private long offHeapMaxBytes;
+
+    // Page size, also the largest value kept off the heap
+    @Value("${cache.offheap.values.page.bytes:1048576}")
+    private int offHeapPageBytes;
+
+    // Shorter values stay on the heap, where they cost less than a handle plus a chunk
+    @Value("${cache.offheap.values.min.bytes:64}")
+    private int offHeapMinValueBytes;
+
+    // Map the pages from this file instead of allocating direct buffers
+    @Value("${cache.offheap.values.file:}")
+    private String offHeapFile;
+
+    // How long a released chunk stays readable (and unused) for readers still holding it
+    @Value("${cache.offheap.values.free.delay.ms:1000}")
+    private long offHeapFreeDelayMs;
+
+    @Value("${cache.offheap.values.defrag.threshold.percent:30}")
+    private int offHeapDefragThresholdPercent;
+
+    // Compression of large string values in memory, per region
+    private ValueCompression valueCompression;
+
+    // none, fast (lz4) or high (zstd), see ValueCompression
+    @Value("${cache.compression.codec:none}")
+    private String compressionCodec;
+
+    // Per region overrides, region:codec pairs
+    @Value("${cache.compression.regions:}")
+    private String regionCompressionCodecs;
+
+    @Value("${cache.compression.min.bytes:1024}")
+    private int compressionMinBytes;
+
+    @Value("${cache.compression.dictionary.enabled:true}")
+    private boolean compressionDictionaryEnabled;
+
+    @Value("${cache.compression.dictionary.bytes:32768}")
+    private int compressionDictionaryBytes;
+
+    // Region -> keys with a TTL, by expiry time
+    private final Map<String, ExpiryIndex> expiryIndexes = new ConcurrentHashMap<>();
+
+    @Value("${cache.expiry.tick.ms:100}")
+    private long expiryTickMs;
+
+    // Share of each expiry tick the active expire cycle may spend
+    @Value("${cache.expiry.cycle.time.percent:25}")
+    private int expiryCycleTimePercent;
+
+    // Due keys sampled per batch (one region write lock and one repository delete)
+    @Value("${cache.expiry.batch.size:200}")
+    private int expiryBatchSize;
+
+    // A region gets another batch while no more than this share of the last one was still alive
+    @Value("${cache.expiry.acceptable.stale.percent:10}")
+    private int expiryAcceptableStalePercent;
+
+    // Region the next active expire cycle starts with (where the last one ran out of time)
+    private volatile String nextExpiryRegion;
+
+    private final LongAdder expiredKeys = new LongAdder();
+    private final LongAdder expiryTimeCapReached = new LongAdder();
+
+    // lru, lfu, w-tinylfu, volatile-ttl or random
+    @Value("${cache.eviction.policy:lru}")
+    private String evictionPolicy;
+
+    // Per region overrides, e.g. sessions:lfu,reports:w-tinylfu
+    @Value("${cache.eviction.policy.regions:}")
+    private String regionEvictionPolicies;
+
+    // Entries sampled per eviction
+    @Value("${cache.eviction.samples:5}")
+    private int evictionSamples;
+
+    @Value("${cache.eviction.lfu.log.factor:10}")
+    private int lfuLogFactor;
+
+    @Value("${cache.eviction.lfu.decay.minutes:1}")
+    private long lfuDecayMinutes;
+
+    // Share of max memory objects forming the W-TinyLFU admission window
+    @Value("${cache.eviction.tinylfu.window.percent:1}")
+    private int tinyLfuWindowPercent;
+
+    private EvictionPolicies evictionPolicies;
+
+    // Sampled eviction over memoryCache; reads only update per-entry state
+    private SampledEvictor evictor;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder memoryMisses = new LongAdder();
+    private final LongAdder negativeLookups = new LongAdder();
+    private final LongAdder evictedKeys = new LongAdder();
+    private final LongAdder rejectedAdmissions = new LongAdder();
 
     private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
 
@@ -87,7 +211,26 @@ public class CacheService {
 
     @PostConstruct
     public void initialize() {
-        logger.info("Initializing Cache Service with max memory objects: {}", maxMemoryObjects);
+        logger.info("Initializing Cache Service with max memory objects: {}, max memory bytes: {}",
+                maxMemoryObjects, maxMemoryBytes > 0 ? maxMemoryBytes : "unlimited");
+
+        evictionPolicies = new EvictionPolicies(maxMemoryObjects, lfuLogFactor, lfuDecayMinutes, tinyLfuWindowPercent)
+                .configure(evictionPolicy, regionEvictionPolicies);
+        evictor = new SampledEvictor(memoryCache, evictionPolicies::forRegion, evictionSamples);
+        logger.info("Eviction policy: {}, region overrides: {}",
+                evictionPolicies.getDefault().getName(), evictionPolicies.getRegionOverrides());
+
+        valueCompression = new ValueCompression(compressionMinBytes, compressionDictionaryEnabled, compressionDictionaryBytes)
+                .configure(compressionCodec, regionCompressionCodecs);
+        logger.info("Value compression: {}, region overrides: {}",
+                valueCompression.getDefaultCodec(), valueCompression.getRegionOverrides());
+
+        if (offHeapValuesEnabled) {
+            offHeapValues = new SlabValueStore(offHeapMaxBytes, offHeapPageBytes, offHeapFreeDelayMs,
+                    offHeapDefragThresholdPercent, offHeapFile);
+            logger.info("Off-heap string values: up to {} bytes in {} byte pages{}", offHeapMaxBytes, offHeapPageBytes,
+                    offHeapFile.isBlank() ? "" : ", mapped from " + offHeapFile);
+        }
 
         // Ensure default region exists
         getOrCreateRegion(defaultRegion);
@@ -126,9 +269,12 @@ public class CacheService {
             // Register all keys in allKeys map
             for (Map.Entry<String, List<CacheEntry>> regionEntry : entriesByRegion.entrySet()) {
                 String region = regionEntry.getKey();
-                Set<String> regionKeySet = allKeys.computeIfAbsent(region, k -> ConcurrentHashMap.newKeySet());
+                Set<String> regionKeySet = allKeys.computeIfAbsent(region, k -> newKeySet());
                 for (CacheEntry entry : regionEntry.getValue()) {
                     regionKeySet.add(entry.getKey());
+                    if (entry.getExpiresAt() != null) {
+                        trackExpiry(region, entry.getKey(), entry.getExpiresAt());
+                    }
                 }
             }
 
@@ -151,6 +297,10 @@ public class CacheService {
                     if (currentIndex < regionEntries.size()) {
                         hasMoreEntries = true;
                         CacheEntry entry = regionEntries.get(currentIndex);
+                        if (exceedsMemoryBudget(1, MemoryAccountant.estimate(entry))) {
+                            hasMoreEntries = false;
+                            break;
+                        }
                         loadEntryIntoMemory(entry);
                         regionIndexes.put(region, currentIndex + 1);
                         loadedCount++;
@@ -171,9 +321,13 @@ public class CacheService {
 
     private void loadEntryIntoMemory(CacheEntry entry) {
         String region = entry.getRegion();
-        memoryCache.computeIfAbsent(region, k -> new ConcurrentHashMap<>()).put(entry.getKey(), entry);
+        putInMemoryMap(region, entry.getKey(), entry, MemoryAccountant.estimate(entry));
         entry.setInMemory(true);
-        updateLRU(region, entry.getKey());
+        recordAccess(entry);
+    }
+
+    private Set<String> newKeySet() {
+        return new CompactKeySet(keyDirectoryOffHeap);
     }
 
     private ReadWriteLock getRegionLock(String region) {
@@ -186,8 +340,7 @@ public class CacheService {
 
     private void getOrCreateRegion(String region) {
         memoryCache.computeIfAbsent(region, k -> new ConcurrentHashMap<>());
-        allKeys.computeIfAbsent(region, k -> ConcurrentHashMap.newKeySet());
-        lruTracking.computeIfAbsent(region, k -> new LinkedHashMap<>(16, 0.75f, true));
+        allKeys.computeIfAbsent(region, k -> newKeySet());
     }
 
     // SET operation
@@ -235,67 +388,205 @@ public class CacheService {
 
     // GET operation
     public String get(String region, String key) {
+        return readValue(region, key, entry -> (String) entry.getValue());
+    }
+
+    /**
+     * GET for the network layer: hands the value's UTF-8 bytes to sink, still
+     * under the region's read lock. An off-heap value is passed as a view of
+     * its off-heap bytes and a compressed one is decompressed into bytes, so no
+     * String is ever built for them.
+     *
+     * @return false if the key does not exist or does not hold a string (sink not called)
+     */
+    public boolean get(String region, String key, Consumer<ByteBuffer> sink) {
+        return readValue(region, key, entry -> {
+            Object value = entry.getStoredValue();
+            if (value instanceof OffHeapValue offHeap) {
+                sink.accept(offHeap.asByteBuffer());
+            } else if (value instanceof CompressedValue compressed) {
+                sink.accept(ByteBuffer.wrap(compressed.toBytes()));
+            } else {
+                sink.accept(ByteBuffer.wrap(((String) value).getBytes(StandardCharsets.UTF_8)));
+            }
+            return Boolean.TRUE;
+        }) != null;
+    }
+
+    private <T> T readValue(String region, String key, Function<CacheEntry, T> reader) {
         region = region != null ? region : defaultRegion;
 
+        CacheEntry entry;
         ReadWriteLock lock = getRegionLock(region);
         lock.readLock().lock();
         try {
-            CacheEntry entry = getEntry(region, key);
-            if (entry == null || entry.isExpired()) {
-                return null;
+            entry = getEntry(region, key);
+            if (entry != null && !entry.isExpired() && entry.getDataType() == DataType.STRING) {
+                recordAccess(entry);
+                return reader.apply(entry);
             }
+        } finally {
+            lock.readLock().unlock();
+        }
 
-            if (entry.getDataType() != DataType.STRING) {
-                return null;
-            }
+        if (entry != null && entry.isExpired()) {
+            expireOnAccess(region, List.of(key));
+        }
+        return null;
+    }
+
+    // MGET operation - memory hits first, then one repository read for the misses
+    public List<String> mget(String region, List<String> keys) {
+        region = region != null ? region : defaultRegion;
 
-            entry.updateAccessTime();
-            updateLRU(region, key);
+        List<String> values = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        List<String> expired = new ArrayList<>();
 
-            return (String) entry.getValue();
+        ReadWriteLock lock = getRegionLock(region);
+        lock.readLock().lock();
+        try {
+            List<Integer> missIndexes = new ArrayList<>();
+            List<String> missKeys = new ArrayList<>();
+
+            Map<String, CacheEntry> regionCache = memoryCache.get(region);
+            for (int i = 0; i < keys.size(); i++) {
+                String key = keys.get(i);
+                CacheEntry entry = regionCache != null ? regionCache.get(key) : null;
+                if (entry != null) {
+                    memoryHits.increment();
+                    if (entry.isExpired()) {
+                        expired.add(key);
+                    } else {
+                        values.set(i, readString(entry));
+                    }
+                } else if (mayExist(region, key)) {
+                    memoryMisses.increment();
+                    missIndexes.add(i);
+                    missKeys.add(key);
+                }
+            }
+
+            if (!missKeys.isEmpty()) {
+                List<CacheEntry> loaded = cacheRepository.loadEntries(region, missKeys);
+                for (int i = 0; i < loaded.size(); i++) {
+                    CacheEntry entry = loaded.get(i);
+                    if (entry == null) {
+                        continue;
+                    }
+                    if (entry.isExpired()) {
+                        expired.add(missKeys.get(i));
+                        continue;
+                    }
+                    admitIntoMemory(entry);
+                    values.set(missIndexes.get(i), readString(entry));
+                }
+            }
         } finally {
             lock.readLock().unlock();
         }
+
+        expireOnAccess(region, expired);
+        return values;
+    }
+
+    private String readString(CacheEntry entry) {
+        if (entry.getDataType() != DataType.STRING) {
+            return null;
+        }
+
+        recordAccess(entry);
+
+        return (String) entry.getValue();
     }
 
-    // DELETE operation
+    // MSET operation - all values are persisted with one repository write
+    public void mset(String region, Map<String, String> keyValues) {
+        region = region != null ? region : defaultRegion;
+        getOrCreateRegion(region);
+
+        ReadWriteLock lock = getRegionLock(region);
+        lock.writeLock().lock();
+        try {
+            List<CacheEntry> entries = new ArrayList<>(keyValues.size());
+            for (Map.Entry<String, String> keyValue : keyValues.entrySet()) {
+                CacheEntry entry = new CacheEntry(keyValue.getKey(), region, DataType.STRING, keyValue.getValue());
+                putEntryInMemory(region, keyValue.getKey(), entry);
+                entries.add(entry);
+            }
+
+            // Persist to database
+            cacheRepository.saveEntries(entries);
+
+            for (Map.Entry<String, String> keyValue : keyValues.entrySet()) {
+                String key = keyValue.getKey();
+
+                // Replicate if enabled - wrap entire block to handle lazy proxy
+                try {
+                    if (replicationService != null) {
+                        replicationService.replicateSet(region, key, keyValue.getValue(), DataType.STRING, null);
+                    }
+                } catch (Exception e) {
+                    // Only warn for actual replication failures, not missing bean
+                    if (!e.getMessage().contains("Optional dependency")) {
+                        logger.warn("Failed to replicate SET operation: {}", e.getMessage());
+                    }
+                }
+
+                // Publish event if enabled - wrap entire block to handle lazy proxy
+                try {
+                    if (pubSubService != null) {
+                        pubSubService.publishChange(region, key, "SET");
+                    }
+                } catch (Exception e) {
+                    // Only warn for actual publish failures, not missing bean
+                    if (!e.getMessage().contains("Optional dependency")) {
+                        logger.warn("Failed to publish change event: {}", e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // DELETE operation - removed from memory per key, from the database in one batch
     public long del(String region, String... keys) {
         region = region != null ? region : defaultRegion;
 
         ReadWriteLock lock = getRegionLock(region);
         lock.writeLock().lock();
         try {
-            long deleted = 0;
             for (String key : keys) {
-                if (deleteEntry(region, key)) {
-                    deleted++;
+                removeFromMemory(region, key);
+            }
+            cacheRepository.deleteEntries(region, Arrays.asList(keys));
 
-                    // Replicate if enabled - wrap entire block to handle lazy proxy
-                    try {
-                        if (replicationService != null) {
-                            replicationService.replicateDelete(region, key);
-                        }
-                    } catch (Exception e) {
-                        // Only warn for actual replication failures, not missing bean
-                        if (!e.getMessage().contains("Optional dependency")) {
-                            logger.warn("Failed to replicate DELETE operation: {}", e.getMessage());
-                        }
+            for (String key : keys) {
+                // Replicate if enabled - wrap entire block to handle lazy proxy
+                try {
+                    if (replicationService != null) {
+                        replicationService.replicateDelete(region, key);
                     }
+                } catch (Exception e) {
+                    // Only warn for actual replication failures, not missing bean
+                    if (!e.getMessage().contains("Optional dependency")) {
+                        logger.warn("Failed to replicate DELETE operation: {}", e.getMessage());
+                    }
+                }
 
-                    // Publish event if enabled - wrap entire block to handle lazy proxy
-                    try {
-                        if (pubSubService != null) {
-                            pubSubService.publishChange(region, key, "DEL");
-                        }
-                    } catch (Exception e) {
-                        // Only warn for actual publish failures, not missing bean
-                        if (!e.getMessage().contains("Optional dependency")) {
-                            logger.warn("Failed to publish change event: {}", e.getMessage());
-                        }
+                // Publish event if enabled - wrap entire block to handle lazy proxy
+                try {
+                    if (pubSubService != null) {
+                        pubSubService.publishChange(region, key, "DEL");
+                    }
+                } catch (Exception e) {
+                    // Only warn for actual publish failures, not missing bean
+                    if (!e.getMessage().contains("Optional dependency")) {
+                        logger.warn("Failed to publish change event: {}", e.getMessage());
                     }
                 }
             }
-            return deleted;
+            return keys.length;
         } finally {
             lock.writeLock().unlock();
         }
@@ -305,23 +596,31 @@ public class CacheService {
     public long exists(String region, String... keys) {
         region = region != null ? region : defaultRegion;
 
+        long count = 0;
+        List<String> expired = new ArrayList<>();
+
         ReadWriteLock lock = getRegionLock(region);
         lock.readLock().lock();
         try {
-            long count = 0;
+            // The key set and the expiry index answer this without loading entries
+            Set<String> regionKeys = allKeys.getOrDefault(region, Collections.emptySet());
+            long now = System.currentTimeMillis();
             for (String key : keys) {
-                Set<String> regionKeys = allKeys.get(region);
-                if (regionKeys != null && regionKeys.contains(key)) {
-                    CacheEntry entry = getEntry(region, key);
-                    if (entry != null && !entry.isExpired()) {
-                        count++;
-                    }
+                if (!regionKeys.contains(key)) {
+                    continue;
+                }
+                if (isDue(region, key, now)) {
+                    expired.add(key);
+                } else {
+                    count++;
                 }
             }
-            return count;
         } finally {
             lock.readLock().unlock();
         }
+
+        expireOnAccess(region, expired);
+        return count;
     }
 
     // EXPIRE operation
@@ -335,9 +634,14 @@ public class CacheService {
             if (entry == null) {
                 return false;
             }
+            if (entry.isExpired()) {
+                publishExpired(region, removeExpired(region, List.of(key), false));
+                return false;
+            }
 
             long expiresAt = System.currentTimeMillis() + (seconds * 1000);
             entry.setExpiresAt(expiresAt);
+            trackExpiry(region, key, expiresAt);
 
             // Update in database
             cacheRepository.updateExpiry(region, key, expiresAt);
@@ -354,6 +658,18 @@ public class CacheService {
                 }
             }
 
+            // Publish event if enabled - wrap entire block to handle lazy proxy
+            try {
+                if (pubSubService != null) {
+                    pubSubService.publishChange(region, key, "EXPIRE");
+                }
+            } catch (Exception e) {
+                // Only warn for actual publish failures, not missing bean
+                if (!e.getMessage().contains("Optional dependency")) {
+                    logger.warn("Failed to publish change event: {}", e.getMessage());
+                }
+            }
+
             return true;
         } finally {
             lock.writeLock().unlock();
@@ -364,18 +680,23 @@ public class CacheService {
     public long ttl(String region, String key) {
         region = region != null ? region : defaultRegion;
 
+        CacheEntry entry;
         ReadWriteLock lock = getRegionLock(region);
         lock.readLock().lock();
         try {
-            CacheEntry entry = getEntry(region, key);
+            entry = getEntry(region, key);
             if (entry == null) {
                 return -2; // Key does not exist
             }
-
-            return entry.getTtlSeconds();
+            if (!entry.isExpired()) {
+                return entry.getTtlSeconds();
+            }
         } finally {
             lock.readLock().unlock();
         }
+
+        expireOnAccess(region, List.of(key));
+        return -2;
     }
 
     // PERSIST operation
@@ -389,20 +710,48 @@ public class CacheService {
             if (entry == null) {
                 return false;
             }
+            if (entry.isExpired()) {
+                publishExpired(region, removeExpired(region, List.of(key), false));
+                return false;
+            }
 
             entry.setExpiresAt(null);
+            trackExpiry(region, key, null);
             cacheRepository.updateExpiry(region, key, null);
 
+            // Publish event if enabled - wrap entire block to handle lazy proxy
+            try {
+                if (pubSubService != null) {
+                    pubSubService.publishChange(region, key, "PERSIST");
+                }
+            } catch (Exception e) {
+                // Only warn for actual publish failures, not missing bean
+                if (!e.getMessage().contains("Optional dependency")) {
+                    logger.warn("Failed to publish change event: {}", e.getMessage());
+                }
+            }
+
             return true;
         } finally {
             lock.writeLock().unlock();
         }
     }
 
-    // KEYS pattern operation
+    /**
+     * KEYS pattern
+     *
+     * A pattern without wildcards is a single key lookup. Otherwise only the
+     * keys starting with the pattern's literal prefix ("user:123:" for
+     * "user:123:*") are visited, through the key set's ordered index, and the
+     * glob is matched against those; only patterns starting with a wildcard
+     * visit the whole region.
+     */
     public Set<String> keys(String region, String pattern) {
         region = region != null ? region : defaultRegion;
 
+        Set<String> matched = new HashSet<>();
+        List<String> expired = new ArrayList<>();
+
         ReadWriteLock lock = getRegionLock(region);
         lock.readLock().lock();
         try {
@@ -411,37 +760,233 @@ public class CacheService {
                 return Collections.emptySet();
             }
 
-            Pattern regexPattern = convertGlobToRegex(pattern);
-            return regionKeys.stream()
-                    .filter(key -> regexPattern.matcher(key).matches())
-                    .collect(Collectors.toSet());
+            GlobPattern glob = GlobPattern.compile(pattern);
+            long now = System.currentTimeMillis();
+            String keysRegion = region;
+            Consumer<String> collect = key -> {
+                if (!glob.matches(key)) {
+                    return;
+                }
+                if (isDue(keysRegion, key, now)) {
+                    expired.add(key);
+                } else {
+                    matched.add(key);
+                }
+            };
+
+            if (glob.isLiteral()) {
+                if (regionKeys.contains(glob.getLiteralPrefix())) {
+                    collect.accept(glob.getLiteralPrefix());
+                }
+            } else if (!glob.getLiteralPrefix().isEmpty() && regionKeys instanceof CompactKeySet keySet) {
+                keySet.forEachWithPrefix(glob.getLiteralPrefix(), collect);
+            } else {
+                regionKeys.forEach(collect);
+            }
         } finally {
             lock.readLock().unlock();
         }
+
+        expireOnAccess(region, expired);
+        return matched;
     }
 
-    private Pattern convertGlobToRegex(String pattern) {
-        String regex = pattern
-                .replace(".", "\\.")
-                .replace("*", ".*")
-                .replace("?", ".");
-        return Pattern.compile(regex);
+    /**
+     * SCAN cursor [MATCH pattern] [COUNT count] [TYPE type]
+     *
+     * Visits about count keys of the region's key set from the cursor on,
+     * without locking the region or copying its keys. Keys that are not in
+     * memory are only loaded (in one batch) when a TYPE filter needs them.
+     *
+     * @param type a DataType, or null for any type
+     */
+    public RedisCommandService.ScanResult scan(String region, long cursor, String pattern, int count, DataType type) {
+        region = region != null ? region : defaultRegion;
+
+        Set<String> regionKeys = allKeys.get(region);
+        if (!(regionKeys instanceof CompactKeySet keySet)) {
+            return new RedisCommandService.ScanResult(0, Collections.emptyList());
+        }
+
+        GlobPattern glob = pattern == null || "*".equals(pattern) ? null : GlobPattern.compile(pattern);
+        List<String> matched = new ArrayList<>();
+        List<String> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        String scanRegion = region;
+        long nextCursor = keySet.scan(cursor, Math.max(1, count), key -> {
+            if (glob != null && !glob.matches(key)) {
+                return;
+            }
+            if (isDue(scanRegion, key, now)) {
+                expired.add(key);
+            } else {
+                matched.add(key);
+            }
+        });
+        expireOnAccess(region, expired);
+
+        if (type == null) {
+            return new RedisCommandService.ScanResult(nextCursor, matched);
+        }
+
+        Map<String, CacheEntry> regionCache = memoryCache.getOrDefault(region, Collections.emptyMap());
+        List<String> typed = new ArrayList<>(matched.size());
+        List<String> notInMemory = new ArrayList<>();
+        for (String key : matched) {
+            CacheEntry entry = regionCache.get(key);
+            if (entry == null) {
+                notInMemory.add(key);
+            } else if (entry.getDataType() == type && !entry.isExpired()) {
+                typed.add(key);
+            }
+        }
+        if (!notInMemory.isEmpty()) {
+            for (CacheEntry entry : cacheRepository.loadEntries(region, notInMemory)) {
+                if (entry != null && entry.getDataType() == type && !entry.isExpired()) {
+                    typed.add(entry.getKey());
+                }
+            }
+        }
+        return new RedisCommandService.ScanResult(nextCursor, typed);
     }
 
     // Helper methods
     private void putEntry(String region, String key, CacheEntry entry) {
-        allKeys.computeIfAbsent(region, k -> ConcurrentHashMap.newKeySet()).add(key);
+        putEntryInMemory(region, key, entry);
+
+        // Persist to database
+        cacheRepository.saveEntry(entry);
+    }
+
+    private void putEntryInMemory(String region, String key, CacheEntry entry) {
+        allKeys.computeIfAbsent(region, k -> newKeySet()).add(key);
+        trackExpiry(region, key, entry.getExpiresAt());
 
-        if (getCurrentMemoryObjectCount() >= maxMemoryObjects) {
-            evictLRUEntry();
+        long bytes = MemoryAccountant.estimate(entry);
+        CacheEntry existing = memoryCache.getOrDefault(region, Collections.emptyMap()).get(key);
+        int addedEntries = existing != null ? 0 : 1;
+        long addedBytes = bytes - (existing != null ? existing.getMemoryBytes() : 0);
+        while (exceedsMemoryBudget(addedEntries, addedBytes) && evictOneEntry()) {
+            // Evict until the new entry fits (or nothing is left in memory)
         }
 
-        memoryCache.get(region).put(key, entry);
+        putInMemoryMap(region, key, entry, bytes);
         entry.setInMemory(true);
-        updateLRU(region, key);
+        recordAccess(entry);
+    }
 
-        // Persist to database
-        cacheRepository.saveEntry(entry);
+    private void putInMemoryMap(String region, String key, CacheEntry entry, long bytes) {
+        if (compress(region, entry) || moveOffHeap(entry)) {
+            bytes = MemoryAccountant.estimate(entry);
+        }
+        CacheEntry previous = memoryCache.computeIfAbsent(region, k -> new ConcurrentHashMap<>()).put(key, entry);
+        if (previous == entry) {
+            // Changed in place (e.g. a hash by ExtendedCacheService): only its size needs updating
+            memoryAccountant.remove(region, entry);
+            memoryAccountant.add(region, entry, bytes);
+            return;
+        }
+        EvictionPolicy policy = evictionPolicies.forRegion(region);
+        if (previous != null) {
+            memoryAccountant.remove(region, previous);
+            policy.onRemove(previous);
+            releaseValue(region, previous);
+            // An overwritten key keeps its popularity (e.g. its LFU counter)
+            entry.setEvictionState(previous.getEvictionState());
+        }
+        memoryAccountant.add(region, entry, bytes);
+        policy.onInsert(entry, CoarseClock.currentTimeMillis());
+    }
+
+    /**
+     * Compress a string value entering memory, if its region compresses and it
+     * is long enough. A compressed value stays on the heap.
+     *
+     * @return true if the value was compressed
+     */
+    private boolean compress(String region, CacheEntry entry) {
+        if (entry.getDataType() != DataType.STRING || !(entry.getStoredValue() instanceof String value)) {
+            return false;
+        }
+        CompressedValue compressed = valueCompression.compress(region, value);
+        if (compressed == null) {
+            return false;
+        }
+        entry.setValue(compressed);
+        return true;
+    }
+
+    /**
+     * Copy a string value entering memory into the off-heap store, if enabled,
+     * long enough and there is room; the entry then only holds the handle.
+     *
+     * @return true if the value was moved
+     */
+    private boolean moveOffHeap(CacheEntry entry) {
+        if (offHeapValues == null || entry.getDataType() != DataType.STRING
+                || !(entry.getStoredValue() instanceof String value) || value.length() < offHeapMinValueBytes) {
+            return false;
+        }
+        OffHeapValue stored = offHeapValues.store(value);
+        if (stored == null) {
+            return false;
+        }
+        entry.setValue(stored);
+        return true;
+    }
+
+    /**
+     * Free the off-heap copy of an entry that has left memory (readers still
+     * holding the entry can read it until cache.offheap.values.free.delay.ms),
+     * or take its compressed value out of the compression figures.
+     */
+    private void releaseValue(String region, CacheEntry entry) {
+        Object value = entry.getStoredValue();
+        if (value instanceof OffHeapValue offHeap) {
+            offHeapValues.release(offHeap);
+        } else if (value instanceof CompressedValue compressed) {
+            valueCompression.onRemove(region, compressed);
+        }
+    }
+
+    /**
+     * Put an entry just read from storage in memory if it fits. When memory is
+     * full it is only kept if the region's eviction policy admits it in place
+     * of a victim (W-TinyLFU); otherwise it is served from storage this time.
+     */
+    private void admitIntoMemory(CacheEntry entry) {
+        long bytes = MemoryAccountant.estimate(entry);
+        if (!exceedsMemoryBudget(1, bytes)) {
+            loadEntryIntoMemory(entry);
+            return;
+        }
+        EvictionPolicy policy = evictionPolicies.forRegion(entry.getRegion());
+        if (!policy.hasAdmissionFilter()) {
+            return;
+        }
+        SampledEvictor.Candidate victim = evictor.selectVictim(CoarseClock.currentTimeMillis());
+        if (victim == null) {
+            return;
+        }
+        if (!policy.admit(entry, victim.getEntry(), CoarseClock.currentTimeMillis())) {
+            rejectedAdmissions.increment();
+            return;
+        }
+        evictToDatabase(victim.getRegion(), victim.getEntry());
+        if (!exceedsMemoryBudget(1, bytes)) {
+            loadEntryIntoMemory(entry);
+        }
+    }
+
+    /**
+     * @return true if adding this many entries / bytes would go over
+     *         cache.max.memory.objects or cache.max.memory.bytes
+     */
+    private boolean exceedsMemoryBudget(int addedEntries, long addedBytes) {
+        if (memoryAccountant.getEntryCount() + addedEntries > maxMemoryObjects) {
+            return true;
+        }
+        return maxMemoryBytes > 0 && memoryAccountant.getUsedBytes() + addedBytes > maxMemoryBytes;
     }
 
     private CacheEntry getEntry(String region, String key) {
@@ -449,124 +994,329 @@ public class CacheService {
         if (regionCache != null) {
             CacheEntry entry = regionCache.get(key);
             if (entry != null) {
+                memoryHits.increment();
                 return entry;
             }
         }
+        if (!mayExist(region, key)) {
+            return null;
+        }
+        memoryMisses.increment();
 
-        // Try loading from database
+        // Try loading from database; an expired entry is returned (not cached) for the caller to delete
         CacheEntry entry = cacheRepository.loadEntry(region, key);
         if (entry != null && !entry.isExpired()) {
-            if (getCurrentMemoryObjectCount() < maxMemoryObjects) {
-                loadEntryIntoMemory(entry);
-            }
-            return entry;
+            admitIntoMemory(entry);
         }
 
-        return null;
+        return entry;
     }
 
-    private boolean deleteEntry(String region, String key) {
+    private void removeFromMemory(String region, String key) {
         Set<String> regionKeys = allKeys.get(region);
         if (regionKeys != null) {
             regionKeys.remove(key);
         }
+        trackExpiry(region, key, null);
 
         Map<String, CacheEntry> regionCache = memoryCache.get(region);
         if (regionCache != null) {
-            regionCache.remove(key);
+            CacheEntry removed = regionCache.remove(key);
+            if (removed != null) {
+                memoryAccountant.remove(region, removed);
+                evictionPolicies.forRegion(region).onRemove(removed);
+                releaseValue(region, removed);
+            }
         }
+    }
 
-        removeLRU(region, key);
-        cacheRepository.deleteEntry(region, key);
+    /**
+     * Keep the region's expiry index in step with a key's TTL (null = no TTL).
+     */
+    private void trackExpiry(String region, String key, Long expiresAt) {
+        if (expiresAt != null) {
+            expiryIndexes.computeIfAbsent(region, k -> new ExpiryIndex()).schedule(key, expiresAt);
+        } else {
+            ExpiryIndex index = expiryIndexes.get(region);
+            if (index != null) {
+                index.cancel(key);
+            }
+        }
+    }
 
-        return true;
+    /**
+     * Negative lookup: the region's key set holds every key, including the
+     * ones only in storage, and is rebuilt at startup, so a key that is not
+     * in it does not exist and the repository is not asked for it.
+     *
+     * @return false if the key certainly does not exist
+     */
+    private boolean mayExist(String region, String key) {
+        if (!negativeLookupEnabled) {
+            return true;
+        }
+        Set<String> regionKeys = allKeys.get(region);
+        if (regionKeys != null && regionKeys.contains(key)) {
+            return true;
+        }
+        negativeLookups.increment();
+        return false;
     }
 
-    private void updateLRU(String region, String key) {
-        // Get or create LRU tracking for region
-        LinkedHashMap<String, Long> regionLRU = lruTracking.computeIfAbsent(
-                region,
-                k -> new LinkedHashMap<>(16, 0.75f, true)
-        );
+    /**
+     * Entry of a key for ExtendedCacheService (hashes, lists, sets, sorted
+     * sets): from memory, else from storage, or null if it does not exist or
+     * has expired.
+     */
+    CacheEntry readEntry(String region, String key) {
+        region = region != null ? region : defaultRegion;
 
-        synchronized (regionLRU) {
-            regionLRU.put(key, System.currentTimeMillis());
+        CacheEntry entry;
+        ReadWriteLock lock = getRegionLock(region);
+        lock.readLock().lock();
+        try {
+            entry = getEntry(region, key);
+            if (entry != null && !entry.isExpired()) {
+                recordAccess(entry);
+                return entry;
+            }
+        } finally {
+            lock.readLock().unlock();
         }
+
+        if (entry != null) {
+            expireOnAccess(region, List.of(key));
+        }
+        return null;
     }
 
-    private void removeLRU(String region, String key) {
-        LinkedHashMap<String, Long> regionLRU = lruTracking.get(region);
-        if (regionLRU != null) {
-            synchronized (regionLRU) {
-                regionLRU.remove(key);
-            }
+    /**
+     * Store an entry created or changed by ExtendedCacheService, in memory and
+     * in the repository, so later reads through either service see it.
+     */
+    void writeEntry(CacheEntry entry) {
+        String region = entry.getRegion() != null ? entry.getRegion() : defaultRegion;
+        getOrCreateRegion(region);
+
+        ReadWriteLock lock = getRegionLock(region);
+        lock.writeLock().lock();
+        try {
+            putEntry(region, entry.getKey(), entry);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
-    private void evictLRUEntry() {
-        String oldestRegion = null;
-        String oldestKey = null;
-        long oldestTime = Long.MAX_VALUE;
+    /**
+     * @return true if the key has a TTL that has passed, per the expiry index
+     *         (answered without loading the entry)
+     */
+    private boolean isDue(String region, String key, long now) {
+        ExpiryIndex index = expiryIndexes.get(region);
+        Long expiresAt = index != null ? index.getExpiresAt(key) : null;
+        return expiresAt != null && now > expiresAt;
+    }
 
-        for (Map.Entry<String, LinkedHashMap<String, Long>> regionEntry : lruTracking.entrySet()) {
-            LinkedHashMap<String, Long> regionLRU = regionEntry.getValue();
-            synchronized (regionLRU) {
-                if (!regionLRU.isEmpty()) {
-                    Map.Entry<String, Long> first = regionLRU.entrySet().iterator().next();
-                    if (first.getValue() < oldestTime) {
-                        oldestTime = first.getValue();
-                        oldestRegion = regionEntry.getKey();
-                        oldestKey = first.getKey();
-                    }
+    /**
+     * Lazy expiration: delete keys a read has found expired. Reads only hold
+     * the region's read lock, which can not be upgraded, so this runs once it
+     * has been released and checks the keys again under the write lock.
+     */
+    private void expireOnAccess(String region, List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> expired = Collections.emptyList();
+        ReadWriteLock lock = getRegionLock(region);
+        lock.writeLock().lock();
+        try {
+            expired = removeExpired(region, keys, false);
+        } catch (Exception e) {
+            logger.error("Error removing expired entries from region '{}'", region, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishExpired(region, expired);
+    }
+
+    /**
+     * Delete those of the given keys that have expired from memory, the key
+     * set, the expiry index and (in one call) the repository. The caller holds
+     * the region's write lock.
+     *
+     * @param polled the keys have just been taken out of the expiry index as
+     *               due, so a key that is not in memory needs no other check
+     * @return the keys deleted
+     */
+    private List<String> removeExpired(String region, Collection<String> keys, boolean polled) {
+        long now = System.currentTimeMillis();
+        Map<String, CacheEntry> regionCache = memoryCache.getOrDefault(region, Collections.emptyMap());
+        Set<String> regionKeys = allKeys.getOrDefault(region, Collections.emptySet());
+        List<String> expired = new ArrayList<>();
+        for (String key : keys) {
+            CacheEntry entry = regionCache.get(key);
+            boolean isExpired;
+            if (entry != null) {
+                isExpired = entry.isExpired();
+                if (!isExpired && polled) {
+                    // The in-memory entry is authoritative
+                    trackExpiry(region, key, entry.getExpiresAt());
                 }
+            } else {
+                isExpired = regionKeys.contains(key) && (polled || isDue(region, key, now));
             }
+            if (isExpired) {
+                removeFromMemory(region, key);
+                expired.add(key);
+            }
+        }
+        if (!expired.isEmpty()) {
+            cacheRepository.deleteEntries(region, expired);
         }
+        return expired;
+    }
 
-        if (oldestRegion != null && oldestKey != null) {
-            evictToDatabase(oldestRegion, oldestKey);
+    private void publishExpired(String region, List<String> expired) {
+        expiredKeys.add(expired.size());
+        for (String key : expired) {
+            // Publish event if enabled - wrap entire block to handle lazy proxy
+            try {
+                if (pubSubService != null) {
+                    pubSubService.publishChange(region, key, "EXPIRED");
+                }
+            } catch (Exception e) {
+                // Only warn for actual publish failures, not missing bean
+                if (!e.getMessage().contains("Optional dependency")) {
+                    logger.warn("Failed to publish change event: {}", e.getMessage());
+                }
+            }
         }
     }
 
-    private void evictToDatabase(String region, String key) {
+    /**
+     * Lock-free access bookkeeping: refresh the entry's stamp from the coarse
+     * clock (a no-op if it already carries this tick) and let the region's
+     * eviction policy count the read.
+     */
+    private void recordAccess(CacheEntry entry) {
+        long now = CoarseClock.currentTimeMillis();
+        entry.updateAccessTime(now);
+        evictionPolicies.forRegion(entry.getRegion()).onAccess(entry, now);
+    }
+
+    private void evictToDatabase(String region, CacheEntry entry) {
         Map<String, CacheEntry> regionCache = memoryCache.get(region);
-        if (regionCache != null) {
-            CacheEntry entry = regionCache.remove(key);
-            if (entry != null) {
-                entry.setInMemory(false);
-                cacheRepository.saveEntry(entry);
-                removeLRU(region, key);
-                logger.debug("Evicted entry: region={}, key={}", region, key);
+        // Only if it was not replaced since it was chosen
+        if (regionCache != null && regionCache.remove(entry.getKey(), entry)) {
+            memoryAccountant.remove(region, entry);
+            evictionPolicies.forRegion(region).onRemove(entry);
+            evictedKeys.increment();
+            entry.setInMemory(false);
+            if (entry.getStoredValue() instanceof OffHeapValue value) {
+                // Back on the heap: the entry is written out (maybe later, by write-behind) after the chunk is gone
+                entry.setValue(value.asString());
+                offHeapValues.release(value);
+            } else {
+                releaseValue(region, entry);
             }
+            cacheRepository.saveEntry(entry);
+            logger.debug("Evicted entry: region={}, key={}", region, entry.getKey());
         }
     }
 
     private int getCurrentMemoryObjectCount() {
-        return memoryCache.values().stream()
-                .mapToInt(Map::size)
-                .sum();
+        return (int) memoryAccountant.getEntryCount();
     }
 
-    // Scheduled cleanup of expired entries
-    @Scheduled(fixedDelayString = "${cache.cleanup.interval.seconds:60}000")
-    public void cleanupExpiredEntries() {
-        logger.debug("Running expired entries cleanup");
+    /**
+     * Active expiration, after the Redis active expire cycle. Each region in
+     * turn gets batches of due keys from its expiry index (sampling only keys
+     * with a TTL, never loading keys that are not in memory) and keeps going
+     * while at least (100 - cache.expiry.acceptable.stale.percent)% of a batch
+     * had expired, i.e. while it still has a backlog. The cycle stops once it
+     * has used cache.expiry.cycle.time.percent of the tick, and the next one
+     * resumes with the region it stopped in, so a mass expiry is spread over
+     * many short cycles and never holds a region lock for long.
+     */
+    @Scheduled(fixedDelayString = "${cache.expiry.tick.ms:100}")
+    public void activeExpireCycle() {
+        List<String> regions = new ArrayList<>(expiryIndexes.keySet());
+        if (regions.isEmpty()) {
+            return;
+        }
 
-        int cleanedCount = 0;
+        long start = System.nanoTime();
+        long budgetNanos = Math.max(1, expiryTickMs * 1_000_000L * expiryCycleTimePercent / 100);
+        long now = System.currentTimeMillis();
+        int batch = Math.max(1, expiryBatchSize);
+        int keepGoingAt = batch * (100 - Math.min(100, Math.max(0, expiryAcceptableStalePercent))) / 100;
+        int first = Math.max(0, regions.indexOf(nextExpiryRegion));
+
+        for (int i = 0; i < regions.size(); i++) {
+            String region = regions.get((first + i) % regions.size());
+            ExpiryIndex index = expiryIndexes.get(region);
+            if (index == null) {
+                continue;
+            }
+            int expired;
+            do {
+                if (System.nanoTime() - start >= budgetNanos) {
+                    nextExpiryRegion = region;
+                    expiryTimeCapReached.increment();
+                    return;
+                }
+                expired = reapExpired(region, index, now, batch);
+            } while (expired > 0 && expired >= keepGoingAt);
+        }
+        nextExpiryRegion = null;
+    }
 
-        for (String region : new HashSet<>(allKeys.keySet())) {
-            Set<String> regionKeys = new HashSet<>(allKeys.getOrDefault(region, Collections.emptySet()));
+    /**
+     * Delete up to max due keys of one region.
+     *
+     * @return the number of keys deleted
+     */
+    private int reapExpired(String region, ExpiryIndex index, long now, int max) {
+        List<String> expired = Collections.emptyList();
 
-            for (String key : regionKeys) {
-                CacheEntry entry = getEntry(region, key);
-                if (entry != null && entry.isExpired()) {
-                    deleteEntry(region, key);
-                    cleanedCount++;
-                }
+        ReadWriteLock lock = getRegionLock(region);
+        lock.writeLock().lock();
+        try {
+            // The region may have been deleted since the index was picked
+            if (expiryIndexes.get(region) != index) {
+                return 0;
+            }
+            List<String> due = new ArrayList<>();
+            if (index.pollDue(now, max, due) == 0) {
+                return 0;
             }
+            expired = removeExpired(region, due, true);
+        } catch (Exception e) {
+            logger.error("Error removing expired entries from region '{}'", region, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        publishExpired(region, expired);
+        if (!expired.isEmpty()) {
+            logger.debug("Removed {} expired entries from region '{}'", expired.size(), region);
         }
+        return expired.size();
+    }
 
-        if (cleanedCount > 0) {
-            logger.info("Cleaned up {} expired entries", cleanedCount);
+    /**
+     * Off-heap value store upkeep: reuse the chunks whose free delay is over,
+     * then defragment the size classes that have too much free space.
+     */
+    @Scheduled(fixedDelayString = "${cache.offheap.values.maintenance.interval.ms:1000}")
+    public void maintainOffHeapValues() {
+        if (offHeapValues == null) {
+            return;
+        }
+        offHeapValues.reclaim();
+        int moved = offHeapValues.defragment();
+        if (moved > 0) {
+            logger.debug("Off-heap defragmentation moved {} values", moved);
         }
     }
 
@@ -607,7 +1357,7 @@ public class CacheService {
 
                 // Evict LRU entries in batch
                 for (int i = 0; i < targetEvictions; i++) {
-                    if (evictOldestLRUEntry()) {
+                    if (evictOneEntry()) {
                         evictedCount++;
                     } else {
                         break; // No more entries to evict
@@ -634,35 +1384,16 @@ public class CacheService {
     }
 
     /**
-     * Evict the oldest (least recently used) entry across all regions.
+     * Evict one entry, chosen by the eviction policy of its region.
      * Returns true if an entry was evicted, false if no entries available.
      */
-    private boolean evictOldestLRUEntry() {
-        String oldestRegion = null;
-        String oldestKey = null;
-        long oldestTime = Long.MAX_VALUE;
-
-        // Find the globally oldest entry across all regions
-        for (Map.Entry<String, LinkedHashMap<String, Long>> regionEntry : lruTracking.entrySet()) {
-            LinkedHashMap<String, Long> regionLRU = regionEntry.getValue();
-            synchronized (regionLRU) {
-                if (!regionLRU.isEmpty()) {
-                    Map.Entry<String, Long> first = regionLRU.entrySet().iterator().next();
-                    if (first.getValue() < oldestTime) {
-                        oldestTime = first.getValue();
-                        oldestRegion = regionEntry.getKey();
-                        oldestKey = first.getKey();
-                    }
-                }
-            }
-        }
-
-        if (oldestRegion != null && oldestKey != null) {
-            evictToDatabase(oldestRegion, oldestKey);
-            return true;
+    private boolean evictOneEntry() {
+        SampledEvictor.Candidate victim = evictor.selectVictim(CoarseClock.currentTimeMillis());
+        if (victim == null) {
+            return false;
         }
-
-        return false;
+        evictToDatabase(victim.getRegion(), victim.getEntry());
+        return true;
     }
 
     public Set<String> getAllRegions() {
@@ -679,7 +1410,7 @@ public class CacheService {
      * This method cleans up:
      * 1. All entries from the database
      * 2. All in-memory cache entries
-     * 3. All metadata (allKeys, lruTracking, regionLocks, memoryCache)
+     * 3. All metadata (allKeys, regionLocks, memoryCache, pooled eviction candidates)
      *
      * @param region The region to delete
      */
@@ -710,9 +1441,15 @@ public class CacheService {
             logger.debug("Deleted region '{}' from database", region);
 
             // 3. Clean up in-memory structures
-            memoryCache.remove(region);
+            Map<String, CacheEntry> regionCache = memoryCache.remove(region);
+            memoryAccountant.removeRegion(region, regionCache != null ? regionCache.size() : 0);
+            if (regionCache != null && offHeapValues != null) {
+                regionCache.values().forEach(entry -> releaseValue(region, entry));
+            }
+            valueCompression.removeRegion(region);
             allKeys.remove(region);
-            lruTracking.remove(region);
+            expiryIndexes.remove(region);
+            evictor.removeRegion(region);
             regionLocks.remove(region);
 
             // 4. Publish event if enabled
@@ -738,6 +1475,39 @@ public class CacheService {
         stats.put("name", region);
         stats.put("totalKeys", allKeys.getOrDefault(region, Collections.emptySet()).size());
         stats.put("memoryKeys", memoryCache.getOrDefault(region, Collections.emptyMap()).size());
+        stats.put("memoryBytes", memoryAccountant.getRegionBytes(region));
+        stats.put("keyDirectoryBytes", allKeys.get(region) instanceof CompactKeySet keySet ? keySet.getMemoryBytes() : 0);
+        ExpiryIndex index = expiryIndexes.get(region);
+        stats.put("expiringKeys", index != null ? index.size() : 0);
+        stats.putAll(valueCompression.getRegionStats(region));
+        return stats;
+    }
+
+    /**
+     * Memory budget figures for INFO
+     */
+    public Map<String, Object> getMemoryStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("used_memory_dataset", memoryAccountant.getUsedBytes());
+        stats.put("maxmemory", maxMemoryBytes);
+        stats.put("memory_entries", memoryAccountant.getEntryCount());
+        stats.put("max_memory_entries", maxMemoryObjects);
+        stats.put("key_directory_bytes", allKeys.values().stream()
+                .mapToLong(keys -> keys instanceof CompactKeySet keySet ? keySet.getMemoryBytes() : 0)
+                .sum());
+        stats.put("eviction_policy", evictionPolicies.getDefault().getName());
+        stats.put("evicted_keys", evictedKeys.sum());
+        stats.put("memory_hits", memoryHits.sum());
+        stats.put("memory_misses", memoryMisses.sum());
+        stats.put("negative_lookups", negativeLookups.sum());
+        stats.put("rejected_admissions", rejectedAdmissions.sum());
+        stats.put("expires", expiryIndexes.values().stream().mapToLong(ExpiryIndex::size).sum());
+        stats.put("expired_keys", expiredKeys.sum());
+        stats.put("expired_time_cap_reached_count", expiryTimeCapReached.sum());
+        stats.putAll(valueCompression.getStats());
+        if (offHeapValues != null) {
+            stats.putAll(offHeapValues.getStats());
+        }
         return stats;
     }
 
@@ -769,9 +1539,16 @@ public class CacheService {
                 }
             }
 
+            // Write-behind: make sure everything reached the store
+            cacheRepository.flush();
+
             // Clear in-memory structures
             memoryCache.clear();
-            lruTracking.clear();
+            memoryAccountant.reset();
+            evictor.reset();
+            if (offHeapValues != null) {
+                offHeapValues.close();
+            }
 
             logger.info("Cache Service shutdown complete - Persisted {} total entries", totalPersisted);
 
@@ -0,0 +1,182 @@
+package com.ash.projects.redisclone.service;
+
+import com.ash.projects.redisclone.command.CommandContext;
+import com.ash.projects.redisclone.network.RespReply;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-assisted client-side caching (CLIENT TRACKING).
+ *
+ * While tracking is on, every key a connection reads is remembered. When the key
+ * changes (SET, DEL, EXPIRE, PERSIST, expiry, region deletion, replicated writes -
+ * anything CacheService publishes through PubSubService) each connection that read
+ * it gets one invalidation push and the key is forgotten until it is read again.
+ *
+ * Invalidation message: ["invalidate", [key, ...], region], sent as a RESP3 push
+ * (">") or, for RESP2 connections, as a plain array. A null key array means every
+ * key of the region is invalid (region deleted).
+ *
+ * The table is bounded by tracking.table.max.keys; when full, the oldest entries
+ * are invalidated early, exactly as if the keys had been modified.
+ */
+@Service
+public class ClientTrackingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientTrackingService.class);
+
+    private static final char SEPARATOR = '\0';
+
+    @Value("${tracking.table.max.keys:1000000}")
+    private int maxTrackedKeys;
+
+    @Value("${cache.default.region:region0}")
+    private String defaultRegion;
+
+    @Autowired
+    private PubSubService pubSubService;
+
+    // "region\0key" -> connections that may hold a cached copy (insertion ordered for eviction)
+    private final Map<String, Set<CommandContext>> trackingTable = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private final Set<CommandContext> trackingClients = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void initialize() {
+        pubSubService.subscribeToAllChanges(this::onChange);
+        logger.info("Client tracking initialized (max tracked keys: {})", maxTrackedKeys);
+    }
+
+    public void enable(CommandContext context) {
+        context.setTracking(true);
+        trackingClients.add(context);
+    }
+
+    /**
+     * Turn tracking off and forget everything the connection has read (also used on disconnect).
+     */
+    public void disable(CommandContext context) {
+        context.setTracking(false);
+        if (!trackingClients.remove(context)) {
+            return;
+        }
+
+        synchronized (trackingTable) {
+            Iterator<Set<CommandContext>> it = trackingTable.values().iterator();
+            while (it.hasNext()) {
+                Set<CommandContext> clients = it.next();
+                clients.remove(context);
+                if (clients.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Remember that a connection is about to read these keys.
+     * Called before the read executes, so a concurrent write is never missed.
+     */
+    public void track(CommandContext context, String region, String[] keys) {
+        if (keys.length == 0) {
+            return;
+        }
+        String resolvedRegion = region != null ? region : defaultRegion;
+
+        List<String> overflow = null;
+        synchronized (trackingTable) {
+            for (String key : keys) {
+                trackingTable.computeIfAbsent(tableKey(resolvedRegion, key), k -> ConcurrentHashMap.newKeySet())
+                        .add(context);
+            }
+
+            int excess = trackingTable.size() - maxTrackedKeys;
+            if (excess > 0) {
+                overflow = new ArrayList<>(excess);
+                Iterator<String> it = trackingTable.keySet().iterator();
+                while (excess-- > 0 && it.hasNext()) {
+                    overflow.add(it.next());
+                }
+            }
+        }
+
+        if (overflow != null) {
+            for (String tableKey : overflow) {
+                int separator = tableKey.indexOf(SEPARATOR);
+                invalidate(tableKey.substring(0, separator), tableKey.substring(separator + 1));
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tracking_clients", trackingClients.size());
+        stats.put("tracking_total_keys", trackingTable.size());
+        return stats;
+    }
+
+    private void onChange(PubSubService.ChangeEvent event) {
+        if (trackingClients.isEmpty()) {
+            return;
+        }
+        if ("DELETE_REGION".equals(event.getOperation())) {
+            invalidateRegion(event.getRegion());
+        } else {
+            invalidate(event.getRegion(), event.getKey());
+        }
+    }
+
+    private void invalidate(String region, String key) {
+        Set<CommandContext> clients = trackingTable.remove(tableKey(region, key));
+        if (clients == null) {
+            return;
+        }
+        for (CommandContext context : clients) {
+            if (context.isTracking()) {
+                context.push(invalidation(region, List.of(key), context.getProtocolVersion()));
+            }
+        }
+    }
+
+    private void invalidateRegion(String region) {
+        String prefix = region + SEPARATOR;
+        Set<CommandContext> clients = new HashSet<>();
+
+        synchronized (trackingTable) {
+            Iterator<Map.Entry<String, Set<CommandContext>>> it = trackingTable.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Set<CommandContext>> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    clients.addAll(entry.getValue());
+                    it.remove();
+                }
+            }
+        }
+
+        for (CommandContext context : clients) {
+            if (context.isTracking()) {
+                context.push(invalidation(region, null, context.getProtocolVersion()));
+            }
+        }
+    }
+
+    private String invalidation(String region, List<String> keys, int protocol) {
+        String keyArray = keys != null ? RespReply.bulkArray(keys)
+                : protocol >= RespReply.RESP3 ? "_\r\n" : "*-1\r\n";
+        return RespReply.pushHeader(3, protocol)
+                + RespReply.bulk("invalidate")
+                + keyArray
+                + RespReply.bulk(region);
+    }
+
+    private static String tableKey(String region, String key) {
+        return region + SEPARATOR + key;
+    }
+}
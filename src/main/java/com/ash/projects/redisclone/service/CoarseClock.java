@@ -0,0 +1,39 @@
+package com.ash.projects.redisclone.service;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Millisecond clock refreshed by a background thread, for hot paths that only
+ * need an approximate time (e.g. access stamps for eviction): reading it is a
+ * single volatile load instead of a System.currentTimeMillis() call.
+ *
+ * The value lags real time by at most RESOLUTION_MS (plus scheduling delay) and
+ * never goes backwards. Do not use it for expiry decisions.
+ */
+public final class CoarseClock {
+
+    static final long RESOLUTION_MS = 10;
+
+    private static volatile long now = System.currentTimeMillis();
+
+    static {
+        Thread ticker = new Thread(() -> {
+            while (true) {
+                LockSupport.parkNanos(RESOLUTION_MS * 1_000_000);
+                long current = System.currentTimeMillis();
+                if (current > now) {
+                    now = current;
+                }
+            }
+        }, "ash-redis-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private CoarseClock() {
+    }
+
+    public static long currentTimeMillis() {
+        return now;
+    }
+}
@@ -0,0 +1,618 @@
+package com.ash.projects.redisclone.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Set of the keys of one region without any per-key objects, so it can hold
+ * far more keys than the heap could as Strings and adds almost nothing to GC
+ * marking.
+ *
+ * The UTF-8 bytes of every key are appended to an arena of ByteBuffer chunks
+ * (direct, i.e. off-heap, by default). An open-addressed table of longs with
+ * linear probing holds, per key, its 32-bit hash and the position of its bytes.
+ * The same table entries are also kept in key byte order, in blocks of long
+ * arrays, so the keys with a given prefix are found without visiting the
+ * others. A key costs its UTF-8 length plus about 25 to 50 bytes: 11 to 23
+ * in the table (8 per slot, 35 to 70% full), 8 to 16 in the ordered index
+ * (blocks half to fully used) and a 4-byte length with padding to 8 bytes in
+ * the arena. Space of removed keys is reclaimed by compacting the arena once
+ * it holds more garbage than live keys.
+ *
+ * SCAN uses the Redis cursor: a table slot in reverse-binary order, each call
+ * visiting the keys whose home slot comes next. As the table size is a power
+ * of two, a key present for a whole scan is returned even if the table grows
+ * meanwhile (it may then be returned twice, as in Redis). Removal shifts the
+ * following keys of a probe run back, which never changes a key's home slot.
+ *
+ * All operations take an internal read/write lock. The iterator is weakly
+ * consistent, built on scan.
+ */
+public class CompactKeySet extends AbstractSet<String> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final float MAX_LOAD = 0.7f;
+
+    private static final int MIN_CHUNK_BYTES = 64 * 1024;
+    // Largest offset a slot can address: 20 bits of 8-byte units
+    private static final int MAX_CHUNK_BYTES = 8 * 1024 * 1024;
+    // Chunk number + 1 is kept in 12 bits, 0 marks an empty slot
+    private static final int MAX_CHUNKS = (1 << 12) - 1;
+
+    private static final int SCAN_PAGE = 256;
+
+    // Entries per block of the ordered index; a full block is split in two
+    private static final int BLOCK_SIZE = 512;
+
+    private final boolean direct;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // hash (32 bits) | chunk + 1 (12 bits) | offset in chunk / 8 (20 bits), 0 = empty
+    private long[] slots = new long[INITIAL_CAPACITY];
+    private int size;
+
+    // Records: int length, UTF-8 bytes, padded to 8 bytes
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount;
+    private int chunkPosition;
+    private long arenaBytes;
+    private long liveBytes;
+    private long garbageBytes;
+
+    // The slots again, ordered by key bytes (unsigned, i.e. code point order)
+    private List<Block> blocks = new ArrayList<>();
+
+    private static final class Block {
+        final long[] entries = new long[BLOCK_SIZE];
+        int size;
+    }
+
+    /**
+     * @param direct keep the key bytes in direct (off-heap) buffers; they then
+     *               count against -XX:MaxDirectMemorySize instead of the heap
+     */
+    public CompactKeySet(boolean direct) {
+        this.direct = direct;
+    }
+
+    static int hash(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    @Override
+    public boolean add(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        lock.writeLock().lock();
+        try {
+            if (find(bytes, hash) >= 0) {
+                return false;
+            }
+            if (size + 1 > slots.length * MAX_LOAD && slots.length < MAX_CAPACITY) {
+                resize(slots.length * 2);
+            }
+            long slot = ((long) hash << 32) | append(bytes);
+            insert(slot);
+            orderedInsert(slot, bytes);
+            size++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof String key)) {
+            return false;
+        }
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        lock.writeLock().lock();
+        try {
+            int index = find(bytes, hash);
+            if (index < 0) {
+                return false;
+            }
+            long record = recordBytes(bytes.length);
+            liveBytes -= record;
+            garbageBytes += record;
+            orderedRemove(slots[index], bytes);
+            deleteSlot(index);
+            size--;
+            if (garbageBytes > liveBytes && garbageBytes >= MIN_CHUNK_BYTES) {
+                compact();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String key)) {
+            return false;
+        }
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        lock.readLock().lock();
+        try {
+            return find(bytes, hash) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slots = new long[INITIAL_CAPACITY];
+            size = 0;
+            chunks = new ByteBuffer[4];
+            chunkCount = 0;
+            chunkPosition = 0;
+            arenaBytes = 0;
+            liveBytes = 0;
+            garbageBytes = 0;
+            blocks = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return bytes held by the table, the ordered index and the key arena
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return ((long) slots.length + (long) blocks.size() * BLOCK_SIZE) * Long.BYTES + arenaBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit about count keys starting at cursor. The keys of a page are
+     * collected under the lock and handed to action after it is released.
+     *
+     * @param cursor 0 to start, otherwise a value returned by a previous call
+     * @param count  number of keys to visit; whole home slots are always visited
+     * @param action called for every key visited
+     * @return the cursor for the next page, 0 once the whole set has been visited
+     */
+    public long scan(long cursor, int count, Consumer<String> action) {
+        List<String> page = new ArrayList<>();
+        long next;
+        lock.readLock().lock();
+        try {
+            if (size == 0) {
+                return 0;
+            }
+            long mask = slots.length - 1;
+            next = cursor;
+            do {
+                collectHomeSlot((int) (next & mask), page);
+                next = nextCursor(next, mask);
+            } while (next != 0 && page.size() < count);
+        } finally {
+            lock.readLock().unlock();
+        }
+        page.forEach(action);
+        return next;
+    }
+
+    /**
+     * Visit the keys starting with prefix, in key byte order, without looking
+     * at any other key. Keys are collected under the lock and handed to action
+     * after it is released.
+     */
+    public void forEachWithPrefix(String prefix, Consumer<String> action) {
+        byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+        List<String> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (blocks.isEmpty()) {
+                return;
+            }
+            int b = findBlock(bytes);
+            int position = lowerBound(blocks.get(b), bytes);
+            collect:
+            for (; b < blocks.size(); b++, position = 0) {
+                Block block = blocks.get(b);
+                for (; position < block.size; position++) {
+                    if (!startsWith(block.entries[position], bytes)) {
+                        break collect;
+                    }
+                    matches.add(readKey(block.entries[position]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.forEach(action);
+    }
+
+    /**
+     * Increment the reversed bits of the cursor (Redis dictScan), so slots of
+     * a larger or smaller table map onto the ones already visited.
+     */
+    static long nextCursor(long cursor, long mask) {
+        long v = cursor | ~mask;
+        v = Long.reverse(v);
+        v++;
+        return Long.reverse(v);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<String> pending = new ArrayDeque<>();
+            private long cursor;
+            private boolean done;
+            private String last;
+
+            @Override
+            public boolean hasNext() {
+                while (pending.isEmpty() && !done) {
+                    cursor = scan(cursor, SCAN_PAGE, pending::add);
+                    done = cursor == 0;
+                }
+                return !pending.isEmpty();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = pending.poll();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                CompactKeySet.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    // ==================== TABLE ====================
+
+    private static int slotHash(long slot) {
+        return (int) (slot >>> 32);
+    }
+
+    private static int slotChunk(long slot) {
+        return (int) ((slot >>> 20) & 0xFFF) - 1;
+    }
+
+    private static int slotOffset(long slot) {
+        return (int) (slot & 0xFFFFF) << 3;
+    }
+
+    private int find(byte[] bytes, int hash) {
+        int mask = slots.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == 0) {
+                return -1;
+            }
+            if (slotHash(slot) == hash && keyEquals(slot, bytes)) {
+                return i;
+            }
+        }
+    }
+
+    private void insert(long slot) {
+        int mask = slots.length - 1;
+        int i = slotHash(slot) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = slot;
+    }
+
+    /**
+     * Empty a slot and move later keys of its probe run back into the hole
+     * when their home slot allows it, so lookups never need tombstones.
+     */
+    private void deleteSlot(int index) {
+        int mask = slots.length - 1;
+        int hole = index;
+        int i = index;
+        while (true) {
+            i = (i + 1) & mask;
+            long slot = slots[i];
+            if (slot == 0) {
+                break;
+            }
+            int home = slotHash(slot) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                slots[hole] = slot;
+                hole = i;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        for (long slot : old) {
+            if (slot != 0) {
+                insert(slot);
+            }
+        }
+    }
+
+    private void collectHomeSlot(int home, List<String> page) {
+        int mask = slots.length - 1;
+        for (int i = home; slots[i] != 0; i = (i + 1) & mask) {
+            if ((slotHash(slots[i]) & mask) == home) {
+                page.add(readKey(slots[i]));
+            }
+        }
+    }
+
+    /**
+     * Find a slot of a table by its value (not its key), e.g. to rewrite it.
+     */
+    private static int indexOfSlot(long[] table, long slot) {
+        int mask = table.length - 1;
+        int i = slotHash(slot) & mask;
+        while (table[i] != slot) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    // ==================== ORDERED INDEX ====================
+
+    /**
+     * @return the last block whose first key is not greater than bytes, or the first block
+     */
+    private int findBlock(byte[] bytes) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        int found = 0;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (compare(blocks.get(middle).entries[0], bytes) <= 0) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the position of the first entry of the block not less than bytes
+     */
+    private int lowerBound(Block block, byte[] bytes) {
+        int low = 0;
+        int high = block.size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(block.entries[middle], bytes) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void orderedInsert(long slot, byte[] bytes) {
+        if (blocks.isEmpty()) {
+            Block first = new Block();
+            first.entries[first.size++] = slot;
+            blocks.add(first);
+            return;
+        }
+        int b = findBlock(bytes);
+        Block block = blocks.get(b);
+        int position = lowerBound(block, bytes);
+        System.arraycopy(block.entries, position, block.entries, position + 1, block.size - position);
+        block.entries[position] = slot;
+        block.size++;
+        if (block.size == BLOCK_SIZE) {
+            Block upper = new Block();
+            upper.size = BLOCK_SIZE / 2;
+            System.arraycopy(block.entries, BLOCK_SIZE / 2, upper.entries, 0, upper.size);
+            block.size = BLOCK_SIZE / 2;
+            blocks.add(b + 1, upper);
+        }
+    }
+
+    private void orderedRemove(long slot, byte[] bytes) {
+        int b = findBlock(bytes);
+        Block block = blocks.get(b);
+        int position = lowerBound(block, bytes);
+        if (position == block.size || block.entries[position] != slot) {
+            throw new IllegalStateException("Key directory order index out of step");
+        }
+        System.arraycopy(block.entries, position + 1, block.entries, position, block.size - position - 1);
+        block.size--;
+        if (block.size == 0) {
+            blocks.remove(b);
+        }
+    }
+
+    // ==================== ARENA ====================
+
+    private static int recordBytes(int keyLength) {
+        return (Integer.BYTES + keyLength + 7) & ~7;
+    }
+
+    /**
+     * Copy a key into the arena.
+     *
+     * @return the chunk and offset bits of its slot
+     */
+    private long append(byte[] bytes) {
+        int record = recordBytes(bytes.length);
+        ByteBuffer chunk = chunkCount > 0 ? chunks[chunkCount - 1] : null;
+        if (chunk == null || chunkPosition + record > chunk.capacity()) {
+            chunk = newChunk(record);
+        }
+        int offset = chunkPosition;
+        chunk.putInt(offset, bytes.length);
+        chunk.put(offset + Integer.BYTES, bytes);
+        chunkPosition += record;
+        liveBytes += record;
+        return ((long) chunkCount << 20) | (offset >>> 3);
+    }
+
+    private ByteBuffer newChunk(int record) {
+        if (chunkCount == MAX_CHUNKS) {
+            throw new IllegalStateException("Key directory is full (" + arenaBytes + " bytes of keys)");
+        }
+        int capacity;
+        if (record > MAX_CHUNK_BYTES) {
+            // A key this long gets a chunk of its own, at offset 0
+            capacity = record;
+        } else {
+            int previous = chunkCount > 0 ? chunks[chunkCount - 1].capacity() : MIN_CHUNK_BYTES / 2;
+            capacity = Math.max(record, Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, previous * 2)));
+        }
+        ByteBuffer chunk = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.min(MAX_CHUNKS, chunks.length * 2));
+        }
+        chunks[chunkCount++] = chunk;
+        chunkPosition = 0;
+        arenaBytes += capacity;
+        return chunk;
+    }
+
+    /**
+     * Copy the live keys, in key order, into a fresh arena and drop the old
+     * chunks; the ordered index is repacked on the way. Keys stay in their
+     * slots, so a running scan is not disturbed.
+     *
+     * The new slot values go into a copy of the table, as one of them can
+     * equal the old value of another key with the same hash that is still to
+     * be found in the table.
+     */
+    private void compact() {
+        long[] rewritten = slots.clone();
+        ByteBuffer[] oldChunks = chunks;
+        List<Block> oldBlocks = blocks;
+        chunks = new ByteBuffer[4];
+        chunkCount = 0;
+        chunkPosition = 0;
+        arenaBytes = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+        blocks = new ArrayList<>();
+        Block packed = null;
+        for (Block block : oldBlocks) {
+            for (int i = 0; i < block.size; i++) {
+                long slot = block.entries[i];
+                byte[] bytes = readBytes(oldChunks[slotChunk(slot)], slotOffset(slot));
+                long moved = (slot & 0xFFFFFFFF00000000L) | append(bytes);
+                rewritten[indexOfSlot(slots, slot)] = moved;
+                if (packed == null || packed.size == BLOCK_SIZE / 2) {
+                    packed = new Block();
+                    blocks.add(packed);
+                }
+                packed.entries[packed.size++] = moved;
+            }
+        }
+        slots = rewritten;
+    }
+
+    private boolean keyEquals(long slot, byte[] bytes) {
+        ByteBuffer chunk = chunks[slotChunk(slot)];
+        int offset = slotOffset(slot);
+        if (chunk.getInt(offset) != bytes.length) {
+            return false;
+        }
+        int start = offset + Integer.BYTES;
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compare a key in the arena with bytes, as unsigned bytes.
+     */
+    private int compare(long slot, byte[] bytes) {
+        ByteBuffer chunk = chunks[slotChunk(slot)];
+        int offset = slotOffset(slot);
+        int length = chunk.getInt(offset);
+        int start = offset + Integer.BYTES;
+        int common = Math.min(length, bytes.length);
+        for (int i = 0; i < common; i++) {
+            int difference = Byte.toUnsignedInt(chunk.get(start + i)) - Byte.toUnsignedInt(bytes[i]);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - bytes.length;
+    }
+
+    private boolean startsWith(long slot, byte[] prefix) {
+        ByteBuffer chunk = chunks[slotChunk(slot)];
+        int offset = slotOffset(slot);
+        if (chunk.getInt(offset) < prefix.length) {
+            return false;
+        }
+        int start = offset + Integer.BYTES;
+        for (int i = 0; i < prefix.length; i++) {
+            if (chunk.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readKey(long slot) {
+        return new String(readBytes(chunks[slotChunk(slot)], slotOffset(slot)), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(ByteBuffer chunk, int offset) {
+        byte[] bytes = new byte[chunk.getInt(offset)];
+        chunk.get(offset + Integer.BYTES, bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ash.projects.redisclone.service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The keys of one region that have a TTL, grouped by expiry time into buckets
+ * of RESOLUTION_MS, so the keys due at a given moment are found without
+ * looking at the rest of the keyspace (or loading anything from storage).
+ *
+ * A key is in at most one bucket: scheduling it again moves it, and removing
+ * its TTL takes it out. Keys without a TTL never enter the index. Only buckets
+ * that lie entirely in the past are drained, so every key handed out is due,
+ * at most RESOLUTION_MS late. Changes to the same key must not race each other
+ * (CacheService makes them under the region's write lock).
+ */
+public class ExpiryIndex {
+
+    static final long RESOLUTION_MS = 100;
+
+    // Bucket number (expiresAt / RESOLUTION_MS) -> keys expiring within it
+    private final ConcurrentSkipListMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
+
+    // Key -> its expiry time, to find the key's bucket when the TTL changes
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+
+    static long bucketOf(long expiresAt) {
+        return expiresAt / RESOLUTION_MS;
+    }
+
+    /**
+     * Set (or move) the expiry time of a key.
+     */
+    public void schedule(String key, long expiresAt) {
+        Long previous = deadlines.put(key, expiresAt);
+        if (previous != null) {
+            if (bucketOf(previous) == bucketOf(expiresAt)) {
+                return;
+            }
+            removeFromBucket(key, previous);
+        }
+        buckets.compute(bucketOf(expiresAt), (bucket, keys) -> {
+            Set<String> bucketKeys = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            bucketKeys.add(key);
+            return bucketKeys;
+        });
+    }
+
+    /**
+     * Forget the TTL of a key (deleted, or made persistent).
+     */
+    public void cancel(String key) {
+        Long previous = deadlines.remove(key);
+        if (previous != null) {
+            removeFromBucket(key, previous);
+        }
+    }
+
+    private void removeFromBucket(String key, long expiresAt) {
+        buckets.computeIfPresent(bucketOf(expiresAt), (bucket, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Take up to max due keys out of the index, oldest buckets first. A bucket
+     * holding more than max keys is drained over several calls.
+     *
+     * @param now the current time; keys expiring at or after it stay
+     * @param due receives the keys taken
+     * @return the number of keys taken
+     */
+    public int pollDue(long now, int max, List<String> due) {
+        int taken = 0;
+        for (Map.Entry<Long, Set<String>> bucket : buckets.headMap(bucketOf(now), false).entrySet()) {
+            Set<String> keys = bucket.getValue();
+            Iterator<String> iterator = keys.iterator();
+            while (taken < max && iterator.hasNext()) {
+                String key = iterator.next();
+                iterator.remove();
+                Long expiresAt = deadlines.get(key);
+                if (expiresAt != null && bucketOf(expiresAt) == bucket.getKey() && deadlines.remove(key, expiresAt)) {
+                    due.add(key);
+                    taken++;
+                }
+            }
+            if (keys.isEmpty()) {
+                buckets.remove(bucket.getKey(), keys);
+            }
+            if (taken >= max) {
+                break;
+            }
+        }
+        return taken;
+    }
+
+    public Long getExpiresAt(String key) {
+        return deadlines.get(key);
+    }
+
+    /**
+     * @return the number of keys with a TTL
+     */
+    public int size() {
+        return deadlines.size();
+    }
+}
@@ -1,7 +1,6 @@
 package com.ash.projects.redisclone.service;
 
 import com.ash.projects.redisclone.model.*;
-import com.ash.projects.redisclone.repository.CacheRepositoryInterface;
 import com.ash.projects.redisclone.repository.CacheRepositorySQL;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -10,6 +9,7 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 
 /**
  * Extended cache operations for Hash, List, Set, and Sorted Set data types
@@ -20,9 +20,6 @@ public class ExtendedCacheService {
     @Autowired
     private CacheService cacheService;
 
-    @Autowired
-    private CacheRepositoryInterface cacheRepository;
-
     private final Map<String, ReadWriteLock> typeLocks = new ConcurrentHashMap<>();
 
     private ReadWriteLock getLock(String region, String key) {
@@ -519,12 +516,107 @@ public class ExtendedCacheService {
         }
     }
 
+    // ==================== SCAN OPERATIONS ====================
+
+    /**
+     * HSCAN - Iterate hash fields; the result holds field, value pairs
+     */
+    public RedisCommandService.ScanResult hscan(String region, String key, long cursor, String pattern, int count) {
+        ReadWriteLock lock = getLock(region, key);
+        lock.readLock().lock();
+        try {
+            CacheEntry entry = getEntry(region, key, DataType.HASH);
+            @SuppressWarnings("unchecked")
+            Map<String, String> hash = entry != null ? (Map<String, String>) entry.getValue() : null;
+            if (hash == null) {
+                return new RedisCommandService.ScanResult(0, new ArrayList<>());
+            }
+            return scanElements(hash.entrySet().iterator(), cursor, pattern, count,
+                    Map.Entry::getKey, e -> e.getValue());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * SSCAN - Iterate set members
+     */
+    public RedisCommandService.ScanResult sscan(String region, String key, long cursor, String pattern, int count) {
+        ReadWriteLock lock = getLock(region, key);
+        lock.readLock().lock();
+        try {
+            CacheEntry entry = getEntry(region, key, DataType.SET);
+            @SuppressWarnings("unchecked")
+            Set<String> set = entry != null ? (Set<String>) entry.getValue() : null;
+            if (set == null) {
+                return new RedisCommandService.ScanResult(0, new ArrayList<>());
+            }
+            return scanElements(set.iterator(), cursor, pattern, count, member -> member, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * ZSCAN - Iterate sorted set members; the result holds member, score pairs
+     */
+    public RedisCommandService.ScanResult zscan(String region, String key, long cursor, String pattern, int count) {
+        ReadWriteLock lock = getLock(region, key);
+        lock.readLock().lock();
+        try {
+            CacheEntry entry = getEntry(region, key, DataType.SORTED_SET);
+            @SuppressWarnings("unchecked")
+            TreeSet<SortedSetEntry> sortedSet = entry != null ? (TreeSet<SortedSetEntry>) entry.getValue() : null;
+            if (sortedSet == null) {
+                return new RedisCommandService.ScanResult(0, new ArrayList<>());
+            }
+            return scanElements(sortedSet.iterator(), cursor, pattern, count,
+                    SortedSetEntry::getMember, e -> String.valueOf(e.getScore()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The cursor of a per-key scan is the number of elements already visited in
+     * the collection's iteration order; only the requested page is copied.
+     */
+    private <T> RedisCommandService.ScanResult scanElements(Iterator<T> elements, long cursor, String pattern, int count,
+                                                            Function<T, String> name, Function<T, String> value) {
+        GlobPattern glob = pattern == null || "*".equals(pattern) ? null : GlobPattern.compile(pattern);
+        List<String> result = new ArrayList<>();
+
+        long position = 0;
+        while (position < cursor && elements.hasNext()) {
+            elements.next();
+            position++;
+        }
+
+        int visited = 0;
+        while (visited < Math.max(1, count) && elements.hasNext()) {
+            T element = elements.next();
+            position++;
+            visited++;
+            String elementName = name.apply(element);
+            if (glob == null || glob.matches(elementName)) {
+                result.add(elementName);
+                if (value != null) {
+                    result.add(value.apply(element));
+                }
+            }
+        }
+
+        return new RedisCommandService.ScanResult(elements.hasNext() ? position : 0, result);
+    }
+
     // ==================== HELPER METHODS ====================
 
+    /**
+     * @return the key's entry if it exists and holds the expected type, else null
+     */
     private CacheEntry getEntry(String region, String key, DataType expectedType) {
-        // This would need to integrate with CacheService
-        // For now, placeholder implementation
-        return null;
+        CacheEntry entry = cacheService.readEntry(region, key);
+        return entry != null && entry.getDataType() == expectedType ? entry : null;
     }
 
     private CacheEntry getOrCreateEntry(String region, String key, DataType dataType) {
@@ -536,6 +628,6 @@ public class ExtendedCacheService {
     }
 
     private void saveEntry(CacheEntry entry) {
-        cacheRepository.saveEntry(entry);
+        cacheService.writeEntry(entry);
     }
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.ash.projects.redisclone.service;
+
+/**
+ * Redis glob pattern (KEYS, SCAN MATCH, PSUBSCRIBE), matched directly instead
+ * of being translated to a regex, so no character of a key is ever taken as
+ * regex syntax.
+ *
+ * Supported: {@code *} (any sequence), {@code ?} (any one character),
+ * {@code [abc]}, {@code [^abc]}, {@code [a-z]} and {@code \x} to match a
+ * special character literally, same as Redis stringmatchlen.
+ *
+ * The literal prefix (everything before the first wildcard) lets ordered key
+ * indexes jump straight to the keys that can match.
+ */
+public final class GlobPattern {
+
+    private final String pattern;
+    private final String literalPrefix;
+    private final boolean literal;
+
+    private GlobPattern(String pattern) {
+        this.pattern = pattern;
+        StringBuilder prefix = new StringBuilder();
+        int p = 0;
+        while (p < pattern.length()) {
+            char c = pattern.charAt(p);
+            if (c == '*' || c == '?' || c == '[') {
+                break;
+            }
+            if (c == '\\' && p + 1 < pattern.length()) {
+                c = pattern.charAt(++p);
+            }
+            prefix.append(c);
+            p++;
+        }
+        this.literalPrefix = prefix.toString();
+        this.literal = p == pattern.length();
+    }
+
+    public static GlobPattern compile(String pattern) {
+        return new GlobPattern(pattern);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return the text every match starts with ("user:" for "user:*")
+     */
+    public String getLiteralPrefix() {
+        return literalPrefix;
+    }
+
+    /**
+     * @return true if the pattern has no wildcards, i.e. only matches {@link #getLiteralPrefix()}
+     */
+    public boolean isLiteral() {
+        return literal;
+    }
+
+    /**
+     * @return true if the pattern matches every string
+     */
+    public boolean matchesAll() {
+        if (pattern.isEmpty()) {
+            return false;
+        }
+        for (int p = 0; p < pattern.length(); p++) {
+            if (pattern.charAt(p) != '*') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean matches(String text) {
+        if (literal) {
+            return literalPrefix.equals(text);
+        }
+        int p = 0;
+        int i = 0;
+        // Where to resume after the last '*' if the rest does not match
+        int starPattern = -1;
+        int starText = 0;
+        while (i < text.length()) {
+            if (p < pattern.length()) {
+                if (pattern.charAt(p) == '*') {
+                    starPattern = p++;
+                    starText = i;
+                    continue;
+                }
+                int next = matchOne(p, text.charAt(i));
+                if (next >= 0) {
+                    p = next;
+                    i++;
+                    continue;
+                }
+            }
+            if (starPattern < 0) {
+                return false;
+            }
+            // Let the last '*' take one more character
+            p = starPattern + 1;
+            i = ++starText;
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    /**
+     * Match one character against the single-character token at p.
+     *
+     * @return the position after the token, or -1 if it does not match
+     */
+    private int matchOne(int p, char c) {
+        char token = pattern.charAt(p);
+        if (token == '?') {
+            return p + 1;
+        }
+        if (token == '\\' && p + 1 < pattern.length()) {
+            return pattern.charAt(p + 1) == c ? p + 2 : -1;
+        }
+        if (token != '[') {
+            return token == c ? p + 1 : -1;
+        }
+
+        int j = p + 1;
+        boolean negate = j < pattern.length() && pattern.charAt(j) == '^';
+        if (negate) {
+            j++;
+        }
+        boolean matched = false;
+        while (j < pattern.length() && pattern.charAt(j) != ']') {
+            char start = pattern.charAt(j);
+            if (start == '\\' && j + 1 < pattern.length()) {
+                j++;
+                matched |= pattern.charAt(j) == c;
+            } else if (j + 2 < pattern.length() && pattern.charAt(j + 1) == '-' && pattern.charAt(j + 2) != ']') {
+                char end = pattern.charAt(j + 2);
+                matched |= start <= end ? (c >= start && c <= end) : (c >= end && c <= start);
+                j += 2;
+            } else {
+                matched |= start == c;
+            }
+            j++;
+        }
+        // An unterminated class ends with the pattern, as in Redis
+        int next = j < pattern.length() ? j + 1 : j;
+        return matched != negate ? next : -1;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
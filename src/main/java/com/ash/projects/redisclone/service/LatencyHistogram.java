@@ -0,0 +1,144 @@
+package com.ash.projects.redisclone.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in microseconds, laid out like HdrHistogram.
+ *
+ * Values below 32 get a bucket each; above that every power of two is split
+ * into 32 equal sub-buckets, so a reported percentile is within about 3% of the
+ * true value. Values up to 2^36 us (about 19 hours) are tracked; anything longer
+ * lands in the last bucket. Recording is one atomic increment plus two adders,
+ * with no allocation.
+ *
+ * @author ajsinha@gmail.com
+ * Copyright (c) 2025 Ash Sinha. All rights reserved.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE_BITS = 36;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_VALUE);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        totalMicros.add(value);
+
+        long max = maxMicros.get();
+        while (value > max && !maxMicros.compareAndSet(max, value)) {
+            max = maxMicros.get();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalMicros() {
+        return totalMicros.sum();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public double getMeanMicros() {
+        long calls = getCount();
+        return calls == 0 ? 0 : (double) getTotalMicros() / calls;
+    }
+
+    /**
+     * @param percentile 0-100, e.g. 99.9
+     * @return the upper bound of the bucket holding that percentile (never above the max), 0 if empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = snapshot();
+        long total = 0;
+        for (long bucket : snapshot) {
+            total += bucket;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    /**
+     * Cumulative counts at power-of-two boundaries, as in Redis LATENCY HISTOGRAM:
+     * key 2^k maps to the number of calls that took less than 2^k microseconds.
+     * Stops at the first boundary that covers every recorded call.
+     */
+    public Map<Long, Long> getPowerOfTwoBuckets() {
+        long[] snapshot = snapshot();
+        long total = 0;
+        for (long bucket : snapshot) {
+            total += bucket;
+        }
+
+        Map<Long, Long> buckets = new LinkedHashMap<>();
+        long cumulative = 0;
+        int index = 0;
+        for (int bits = 0; bits <= MAX_VALUE_BITS && total > 0; bits++) {
+            long boundary = 1L << bits;
+            int boundaryIndex = bits == MAX_VALUE_BITS ? snapshot.length : bucketIndex(boundary);
+            while (index < boundaryIndex) {
+                cumulative += snapshot[index++];
+            }
+            if (cumulative > 0) {
+                buckets.put(boundary, cumulative);
+            }
+            if (cumulative >= total) {
+                break;
+            }
+        }
+        return buckets;
+    }
+
+    private long[] snapshot() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket) << shift) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,84 @@
+package com.ash.projects.redisclone.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Continuous latency statistics (INFO commandstats / latencystats, LATENCY HISTOGRAM,
+ * the /stats page and /metrics).
+ *
+ * Every command run through the CommandRegistry is recorded under its name, and
+ * every call into the persistent repository under its operation name, so slow
+ * commands can be told apart from a slow RocksDB / database underneath them.
+ * Recording is lock-free; after the first call of a name it does not allocate.
+ */
+@Service
+public class LatencyStatsService {
+
+    private final Map<String, CallStats> commandStats = new ConcurrentHashMap<>();
+
+    private final Map<String, CallStats> repositoryStats = new ConcurrentHashMap<>();
+
+    /**
+     * @param failed true if the command replied with an error
+     */
+    public void recordCommand(String command, long micros, boolean failed) {
+        CallStats stats = commandStats.computeIfAbsent(command, k -> new CallStats());
+        stats.histogram.record(micros);
+        if (failed) {
+            stats.failedCalls.increment();
+        }
+    }
+
+    /**
+     * A known command refused before it ran (wrong arity, permissions...).
+     */
+    public void recordRejected(String command) {
+        commandStats.computeIfAbsent(command, k -> new CallStats()).rejectedCalls.increment();
+    }
+
+    public void recordRepository(String operation, long micros) {
+        repositoryStats.computeIfAbsent(operation, k -> new CallStats()).histogram.record(micros);
+    }
+
+    /**
+     * @return statistics per command name, sorted by name
+     */
+    public Map<String, CallStats> getCommandStats() {
+        return new TreeMap<>(commandStats);
+    }
+
+    /**
+     * @return statistics per repository operation, sorted by name
+     */
+    public Map<String, CallStats> getRepositoryStats() {
+        return new TreeMap<>(repositoryStats);
+    }
+
+    public void reset() {
+        commandStats.clear();
+        repositoryStats.clear();
+    }
+
+    /**
+     * Calls, failures and latency distribution of one command or operation.
+     */
+    public static class CallStats {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder failedCalls = new LongAdder();
+        private final LongAdder rejectedCalls = new LongAdder();
+
+        public LatencyHistogram getHistogram() { return histogram; }
+        public long getCalls() { return histogram.getCount(); }
+        public long getFailedCalls() { return failedCalls.sum(); }
+        public long getRejectedCalls() { return rejectedCalls.sum(); }
+        public long getP50() { return histogram.getValueAtPercentile(50); }
+        public long getP99() { return histogram.getValueAtPercentile(99); }
+        public long getP999() { return histogram.getValueAtPercentile(99.9); }
+        public long getMax() { return histogram.getMaxMicros(); }
+    }
+}
@@ -0,0 +1,137 @@
+package com.ash.projects.redisclone.service;
+
+import com.ash.projects.redisclone.model.CacheEntry;
+import com.ash.projects.redisclone.model.CompressedValue;
+import com.ash.projects.redisclone.model.OffHeapValue;
+import com.ash.projects.redisclone.model.SortedSetEntry;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals of the in-memory entries: count and estimated bytes, overall
+ * and per region, so the memory budget is checked in O(1) on every write.
+ *
+ * An entry is charged its estimate when it enters memory; the charge is kept
+ * on the entry and exactly that amount is released when it leaves, so the
+ * totals never drift even if the estimate of a value would change later.
+ *
+ * Estimates assume a 64-bit JVM with compressed references and compact
+ * (Latin-1) strings, and include the bookkeeping of the memory map, the LRU
+ * list and the key index.
+ */
+public class MemoryAccountant {
+
+    // CacheEntry object + memory map node + LRU node + key index node
+    private static final long ENTRY_OVERHEAD = 224;
+    private static final long STRING_OVERHEAD = 40;
+    private static final long ARRAY_OVERHEAD = 16;
+    private static final long COLLECTION_ELEMENT_OVERHEAD = 48;
+    private static final long OBJECT_ESTIMATE = 64;
+    // Handle of a value kept off the heap (its bytes are not on the heap)
+    private static final long OFF_HEAP_HANDLE = 32;
+    // CompressedValue object + its byte array header
+    private static final long COMPRESSED_OVERHEAD = 48;
+
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong entryCount = new AtomicLong();
+    private final Map<String, AtomicLong> regionBytes = new ConcurrentHashMap<>();
+
+    /**
+     * Charge an entry that has just been put in memory.
+     *
+     * @param bytes the entry's estimate, see {@link #estimate(CacheEntry)}
+     */
+    public void add(String region, CacheEntry entry, long bytes) {
+        entry.setMemoryBytes(bytes);
+        usedBytes.addAndGet(bytes);
+        entryCount.incrementAndGet();
+        regionBytes.computeIfAbsent(region, k -> new AtomicLong()).addAndGet(bytes);
+    }
+
+    /**
+     * Release an entry that has just been removed from memory.
+     */
+    public void remove(String region, CacheEntry entry) {
+        long bytes = entry.getMemoryBytes();
+        entry.setMemoryBytes(0);
+        usedBytes.addAndGet(-bytes);
+        entryCount.decrementAndGet();
+        AtomicLong regionTotal = regionBytes.get(region);
+        if (regionTotal != null) {
+            regionTotal.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * Release a whole region whose memory map has been dropped.
+     */
+    public void removeRegion(String region, int entries) {
+        AtomicLong bytes = regionBytes.remove(region);
+        if (bytes != null) {
+            usedBytes.addAndGet(-bytes.get());
+        }
+        entryCount.addAndGet(-entries);
+    }
+
+    public void reset() {
+        usedBytes.set(0);
+        entryCount.set(0);
+        regionBytes.clear();
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getEntryCount() {
+        return entryCount.get();
+    }
+
+    public long getRegionBytes(String region) {
+        AtomicLong bytes = regionBytes.get(region);
+        return bytes != null ? bytes.get() : 0;
+    }
+
+    public static long estimate(CacheEntry entry) {
+        return ENTRY_OVERHEAD + estimate(entry.getKey()) + estimate(entry.getStoredValue());
+    }
+
+    static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String string) {
+            return STRING_OVERHEAD + string.length();
+        }
+        if (value instanceof OffHeapValue) {
+            return OFF_HEAP_HANDLE;
+        }
+        if (value instanceof CompressedValue compressed) {
+            return COMPRESSED_OVERHEAD + compressed.compressedLength();
+        }
+        if (value instanceof byte[] bytes) {
+            return ARRAY_OVERHEAD + bytes.length;
+        }
+        if (value instanceof SortedSetEntry sortedSetEntry) {
+            return COLLECTION_ELEMENT_OVERHEAD + estimate(sortedSetEntry.getMember());
+        }
+        if (value instanceof Map<?, ?> map) {
+            long bytes = OBJECT_ESTIMATE;
+            for (Map.Entry<?, ?> element : map.entrySet()) {
+                bytes += COLLECTION_ELEMENT_OVERHEAD + estimate(element.getKey()) + estimate(element.getValue());
+            }
+            return bytes;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = OBJECT_ESTIMATE;
+            for (Object element : collection) {
+                bytes += COLLECTION_ELEMENT_OVERHEAD + estimate(element);
+            }
+            return bytes;
+        }
+        return OBJECT_ESTIMATE;
+    }
+}
@@ -1,21 +1,68 @@
 package com.ash.projects.redisclone.service;
 
+import com.ash.projects.redisclone.command.CommandContext;
+import com.ash.projects.redisclone.network.RespReply;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
+/**
+ * Publish/subscribe for channels (PUBLISH, SUBSCRIBE, PSUBSCRIBE and in-process
+ * callbacks) and change events (region / key / all-changes subscribers).
+ *
+ * Channel messages are never delivered on the publisher's thread: PUBLISH puts
+ * the message (framed once per protocol version) on each receiver's bounded
+ * delivery queue and returns. A small pool drains the queues, writing every
+ * pending message of a connection in one push, and keeps the order of the
+ * messages per receiver. When a receiver's queue is full the message is dropped
+ * for that receiver and counted (pubsub_dropped_messages); a connection that
+ * does not read at all is closed by its pubsub output buffer limit.
+ */
 @Service
 public class PubSubService {
 
     private static final Logger logger = LoggerFactory.getLogger(PubSubService.class);
 
-    // Channel -> Subscribers
-    private final Map<String, Set<Consumer<String>>> channelSubscribers = new ConcurrentHashMap<>();
+    // Most messages written to a connection in one push
+    private static final int MAX_DELIVERY_BATCH = 256;
+
+    @Value("${pubsub.delivery.threads:2}")
+    private int deliveryThreads;
+
+    // Undelivered messages kept per subscriber before new ones are dropped
+    @Value("${pubsub.subscriber.queue.size:10000}")
+    private int subscriberQueueSize;
+
+    private ExecutorService deliveryExecutor;
+
+    // Channel -> in-process subscribers, each with its own delivery queue
+    private final Map<String, Map<Consumer<String>, DeliveryQueue<String>>> channelSubscribers = new ConcurrentHashMap<>();
+
+    // Channel -> subscribed connections
+    private final Map<String, Set<NetworkSubscriber>> networkChannels = new ConcurrentHashMap<>();
+
+    // Glob pattern -> subscribed connections
+    private final Map<String, PatternSubscription> networkPatterns = new ConcurrentHashMap<>();
+
+    private final Map<CommandContext, NetworkSubscriber> networkSubscribers = new ConcurrentHashMap<>();
+
+    private final LongAdder droppedMessages = new LongAdder();
 
     // Region -> Subscribers
     private final Map<String, Set<Consumer<ChangeEvent>>> regionSubscribers = new ConcurrentHashMap<>();
@@ -23,35 +70,116 @@ public class PubSubService {
     // Key -> Subscribers (region-specific)
     private final Map<String, Map<String, Set<Consumer<ChangeEvent>>>> keySubscribers = new ConcurrentHashMap<>();
 
+    // Subscribers to every change in every region (e.g. client tracking)
+    private final Set<Consumer<ChangeEvent>> allChangeSubscribers = new CopyOnWriteArraySet<>();
+
+    @PostConstruct
+    public void initialize() {
+        AtomicInteger threadCount = new AtomicInteger();
+        deliveryExecutor = Executors.newFixedThreadPool(Math.max(1, deliveryThreads), runnable -> {
+            Thread thread = new Thread(runnable, "ash-redis-pubsub-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Pub/Sub initialized (delivery threads: {}, subscriber queue size: {})",
+                Math.max(1, deliveryThreads), subscriberQueueSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryExecutor.shutdown();
+        try {
+            deliveryExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
-     * Publish a message to a channel
+     * Publish a message to a channel. Only enqueues; delivery is asynchronous.
+     *
+     * @return the number of receivers the message was queued for
      */
     public long publish(String channel, String message) {
-        Set<Consumer<String>> subscribers = channelSubscribers.get(channel);
+        long receivers = 0;
 
-        if (subscribers == null || subscribers.isEmpty()) {
-            return 0;
+        Map<Consumer<String>, DeliveryQueue<String>> local = channelSubscribers.get(channel);
+        if (local != null) {
+            for (DeliveryQueue<String> queue : local.values()) {
+                receivers += enqueue(queue, message);
+            }
         }
 
-        int count = 0;
-        for (Consumer<String> subscriber : subscribers) {
-            try {
-                subscriber.accept(message);
-                count++;
-            } catch (Exception e) {
-                logger.error("Error notifying subscriber on channel: {}", channel, e);
+        Set<NetworkSubscriber> subscribers = networkChannels.get(channel);
+        if (subscribers != null && !subscribers.isEmpty()) {
+            String[] frames = new String[2];
+            for (NetworkSubscriber subscriber : subscribers) {
+                receivers += enqueue(subscriber.queue, frame(frames, subscriber, "message", null, channel, message));
             }
         }
 
-        logger.debug("Published message to channel '{}' with {} subscribers", channel, count);
-        return count;
+        for (PatternSubscription subscription : networkPatterns.values()) {
+            if (subscription.subscribers.isEmpty() || !subscription.glob.matches(channel)) {
+                continue;
+            }
+            String[] frames = new String[2];
+            for (NetworkSubscriber subscriber : subscription.subscribers) {
+                receivers += enqueue(subscriber.queue,
+                        frame(frames, subscriber, "pmessage", subscription.pattern, channel, message));
+            }
+        }
+
+        logger.debug("Published message to channel '{}' for {} receivers", channel, receivers);
+        return receivers;
+    }
+
+    private <T> int enqueue(DeliveryQueue<T> queue, T message) {
+        if (queue.offer(message)) {
+            return 1;
+        }
+        droppedMessages.increment();
+        return 0;
+    }
+
+    /**
+     * ["message", channel, payload] or ["pmessage", pattern, channel, payload],
+     * framed at most once per protocol version for all receivers of one publish.
+     */
+    private static String frame(String[] frames, NetworkSubscriber subscriber, String kind,
+                                String pattern, String channel, String message) {
+        int protocol = subscriber.context.getProtocolVersion();
+        int slot = protocol == RespReply.RESP3 ? 1 : 0;
+        if (frames[slot] == null) {
+            StringBuilder frame = new StringBuilder(RespReply.pushHeader(pattern != null ? 4 : 3, protocol))
+                    .append(RespReply.bulk(kind));
+            if (pattern != null) {
+                frame.append(RespReply.bulk(pattern));
+            }
+            frames[slot] = frame.append(RespReply.bulk(channel)).append(RespReply.bulk(message)).toString();
+        }
+        return frames[slot];
     }
 
     /**
      * Subscribe to a channel
      */
     public void subscribe(String channel, Consumer<String> subscriber) {
-        channelSubscribers.computeIfAbsent(channel, k -> new CopyOnWriteArraySet<>()).add(subscriber);
+        // Added inside compute, so a concurrent unsubscribe cannot drop the map meanwhile
+        channelSubscribers.compute(channel, (k, subscribers) -> {
+            if (subscribers == null) {
+                subscribers = new ConcurrentHashMap<>();
+            }
+            subscribers.computeIfAbsent(subscriber, s -> new DeliveryQueue<>(messages -> {
+                for (String message : messages) {
+                    try {
+                        subscriber.accept(message);
+                    } catch (Exception e) {
+                        logger.error("Error notifying subscriber on channel: {}", channel, e);
+                    }
+                }
+            }));
+            return subscribers;
+        });
         logger.info("New subscriber added to channel: {}", channel);
     }
 
@@ -59,14 +187,149 @@ public class PubSubService {
      * Unsubscribe from a channel
      */
     public void unsubscribe(String channel, Consumer<String> subscriber) {
-        Set<Consumer<String>> subscribers = channelSubscribers.get(channel);
-        if (subscribers != null) {
+        channelSubscribers.computeIfPresent(channel, (k, subscribers) -> {
             subscribers.remove(subscriber);
-            if (subscribers.isEmpty()) {
-                channelSubscribers.remove(channel);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        logger.info("Subscriber removed from channel: {}", channel);
+    }
+
+    // ========== NETWORK SUBSCRIPTIONS ==========
+
+    /**
+     * SUBSCRIBE / PSUBSCRIBE for one channel or pattern of a connection.
+     *
+     * @return the connection's total number of channel and pattern subscriptions
+     */
+    public int subscribe(CommandContext context, String channel, boolean pattern) {
+        NetworkSubscriber subscriber = networkSubscribers.computeIfAbsent(context, NetworkSubscriber::new);
+        // Added inside compute, as unsubscribe removes the emptied set inside computeIfPresent;
+        // otherwise a subscriber could be added to a set that is no longer in the map
+        if (pattern) {
+            if (subscriber.patterns.add(channel)) {
+                networkPatterns.compute(channel, (k, subscription) -> {
+                    if (subscription == null) {
+                        subscription = new PatternSubscription(k);
+                    }
+                    subscription.subscribers.add(subscriber);
+                    return subscription;
+                });
             }
+        } else if (subscriber.channels.add(channel)) {
+            networkChannels.compute(channel, (k, subscribers) -> {
+                if (subscribers == null) {
+                    subscribers = ConcurrentHashMap.newKeySet();
+                }
+                subscribers.add(subscriber);
+                return subscribers;
+            });
+        }
+
+        context.setClientType(CommandContext.ClientType.PUBSUB);
+        return subscriber.count();
+    }
+
+    /**
+     * UNSUBSCRIBE / PUNSUBSCRIBE for one channel or pattern of a connection.
+     *
+     * @return the connection's remaining number of subscriptions
+     */
+    public int unsubscribe(CommandContext context, String channel, boolean pattern) {
+        NetworkSubscriber subscriber = networkSubscribers.get(context);
+        if (subscriber == null) {
+            return 0;
+        }
+
+        if (pattern) {
+            if (subscriber.patterns.remove(channel)) {
+                networkPatterns.computeIfPresent(channel, (k, subscription) -> {
+                    subscription.subscribers.remove(subscriber);
+                    return subscription.subscribers.isEmpty() ? null : subscription;
+                });
+            }
+        } else if (subscriber.channels.remove(channel)) {
+            networkChannels.computeIfPresent(channel, (k, subscribers) -> {
+                subscribers.remove(subscriber);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+
+        int remaining = subscriber.count();
+        if (remaining == 0) {
+            networkSubscribers.remove(context);
+            context.setClientType(CommandContext.ClientType.NORMAL);
+        }
+        return remaining;
+    }
+
+    /**
+     * @return the channels (or patterns) a connection is subscribed to
+     */
+    public List<String> getSubscriptions(CommandContext context, boolean pattern) {
+        NetworkSubscriber subscriber = networkSubscribers.get(context);
+        if (subscriber == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(pattern ? subscriber.patterns : subscriber.channels);
+    }
+
+    /**
+     * Drop every subscription of a connection (on disconnect).
+     */
+    public void unsubscribeAll(CommandContext context) {
+        for (String channel : getSubscriptions(context, false)) {
+            unsubscribe(context, channel, false);
+        }
+        for (String pattern : getSubscriptions(context, true)) {
+            unsubscribe(context, pattern, true);
         }
-        logger.info("Subscriber removed from channel: {}", channel);
+    }
+
+    /**
+     * PUBSUB CHANNELS: active channels (with at least one subscriber), optionally filtered by a glob pattern
+     */
+    public Set<String> getActiveChannels(String pattern) {
+        GlobPattern glob = pattern != null ? GlobPattern.compile(pattern) : null;
+        Set<String> channels = new TreeSet<>();
+        for (String channel : networkChannels.keySet()) {
+            if (glob == null || glob.matches(channel)) {
+                channels.add(channel);
+            }
+        }
+        for (String channel : channelSubscribers.keySet()) {
+            if (glob == null || glob.matches(channel)) {
+                channels.add(channel);
+            }
+        }
+        return channels;
+    }
+
+    /**
+     * PUBSUB NUMSUB: subscribers of a channel (pattern subscribers not included)
+     */
+    public int getSubscriberCount(String channel) {
+        Set<NetworkSubscriber> subscribers = networkChannels.get(channel);
+        Map<Consumer<String>, DeliveryQueue<String>> local = channelSubscribers.get(channel);
+        return (subscribers != null ? subscribers.size() : 0) + (local != null ? local.size() : 0);
+    }
+
+    /**
+     * PUBSUB NUMPAT: number of distinct subscribed patterns
+     */
+    public int getPatternCount() {
+        return networkPatterns.size();
+    }
+
+    /**
+     * Pub/sub figures for INFO
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pubsub_channels", getActiveChannels(null).size());
+        stats.put("pubsub_patterns", networkPatterns.size());
+        stats.put("pubsub_clients", networkSubscribers.size());
+        stats.put("pubsub_dropped_messages", droppedMessages.sum());
+        return stats;
     }
 
     /**
@@ -121,12 +384,37 @@ public class PubSubService {
         logger.info("Subscriber removed from key: {}@{}", key, region);
     }
 
+    /**
+     * Subscribe to changes in all regions
+     */
+    public void subscribeToAllChanges(Consumer<ChangeEvent> subscriber) {
+        allChangeSubscribers.add(subscriber);
+        logger.info("New subscriber added to all changes");
+    }
+
+    /**
+     * Unsubscribe from changes in all regions
+     */
+    public void unsubscribeFromAllChanges(Consumer<ChangeEvent> subscriber) {
+        allChangeSubscribers.remove(subscriber);
+        logger.info("Subscriber removed from all changes");
+    }
+
     /**
      * Publish a change event (called by CacheService)
      */
     public void publishChange(String region, String key, String operation) {
         ChangeEvent event = new ChangeEvent(region, key, operation, System.currentTimeMillis());
 
+        // Notify global subscribers
+        for (Consumer<ChangeEvent> subscriber : allChangeSubscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (Exception e) {
+                logger.error("Error notifying change subscriber", e);
+            }
+        }
+
         // Notify region subscribers
         Set<Consumer<ChangeEvent>> regionSubs = regionSubscribers.get(region);
         if (regionSubs != null) {
@@ -160,7 +448,9 @@ public class PubSubService {
      */
     public Map<String, Integer> getSubscriberCounts() {
         Map<String, Integer> counts = new HashMap<>();
-        counts.put("channels", channelSubscribers.size());
+        counts.put("channels", getActiveChannels(null).size());
+        counts.put("patterns", networkPatterns.size());
+        counts.put("clients", networkSubscribers.size());
         counts.put("regions", regionSubscribers.size());
         counts.put("keys", keySubscribers.values().stream()
                 .mapToInt(Map::size)
@@ -195,4 +485,103 @@ public class PubSubService {
                     region, key, operation, timestamp);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A subscribed connection and the channels / patterns it listens to.
+     */
+    private final class NetworkSubscriber {
+        private final CommandContext context;
+        private final Set<String> channels = ConcurrentHashMap.newKeySet();
+        private final Set<String> patterns = ConcurrentHashMap.newKeySet();
+        private final DeliveryQueue<String> queue;
+
+        NetworkSubscriber(CommandContext context) {
+            this.context = context;
+            this.queue = new DeliveryQueue<>(frames -> {
+                if (frames.size() == 1) {
+                    context.push(frames.get(0));
+                    return;
+                }
+                StringBuilder batch = new StringBuilder();
+                for (String frame : frames) {
+                    batch.append(frame);
+                }
+                context.push(batch.toString());
+            });
+        }
+
+        int count() {
+            return channels.size() + patterns.size();
+        }
+    }
+
+    private static final class PatternSubscription {
+        private final String pattern;
+        private final GlobPattern glob;
+        private final Set<NetworkSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+        PatternSubscription(String pattern) {
+            this.pattern = pattern;
+            this.glob = GlobPattern.compile(pattern);
+        }
+    }
+
+    /**
+     * Bounded FIFO of one receiver, drained by at most one delivery thread at a
+     * time so the receiver sees messages in publish order.
+     */
+    private final class DeliveryQueue<T> {
+        private final ConcurrentLinkedQueue<T> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Consumer<List<T>> sink;
+
+        DeliveryQueue(Consumer<List<T>> sink) {
+            this.sink = sink;
+        }
+
+        boolean offer(T message) {
+            if (size.incrementAndGet() > subscriberQueueSize) {
+                size.decrementAndGet();
+                return false;
+            }
+            messages.offer(message);
+            schedule();
+            return true;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    deliveryExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            List<T> batch = new ArrayList<>(Math.min(size.get(), MAX_DELIVERY_BATCH));
+            T message;
+            while (batch.size() < MAX_DELIVERY_BATCH && (message = messages.poll()) != null) {
+                batch.add(message);
+            }
+            size.addAndGet(-batch.size());
+
+            try {
+                if (!batch.isEmpty()) {
+                    sink.accept(batch);
+                }
+            } catch (Exception e) {
+                logger.error("Error delivering pub/sub messages", e);
+            } finally {
+                scheduled.set(false);
+                // Messages offered while this batch was being delivered
+                if (!messages.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+}
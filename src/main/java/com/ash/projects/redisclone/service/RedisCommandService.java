@@ -147,17 +147,8 @@ public class RedisCommandService {
 
     // ========== SCAN OPERATION ==========
 
-    public ScanResult scan(String region, int cursor, String pattern, int count) {
-        Set<String> keys = cacheService.keys(region, pattern != null ? pattern : "*");
-        List<String> keyList = new ArrayList<>(keys);
-
-        int start = cursor;
-        int end = Math.min(start + count, keyList.size());
-
-        List<String> resultKeys = keyList.subList(start, end);
-        int nextCursor = end >= keyList.size() ? 0 : end;
-
-        return new ScanResult(nextCursor, resultKeys);
+    public ScanResult scan(String region, long cursor, String pattern, int count) {
+        return cacheService.scan(region, cursor, pattern, count, null);
     }
 
     // ========== SERVER OPERATIONS ==========
@@ -171,20 +162,21 @@ public class RedisCommandService {
         info.put("version", "1.0.0");
         info.put("regions", cacheService.getAllRegions());
         info.put("uptime_seconds", System.currentTimeMillis() / 1000);
+        info.putAll(cacheService.getMemoryStats());
         return info;
     }
 
     // Helper class for SCAN result
     public static class ScanResult {
-        private int cursor;
+        private long cursor;
         private List<String> keys;
 
-        public ScanResult(int cursor, List<String> keys) {
+        public ScanResult(long cursor, List<String> keys) {
             this.cursor = cursor;
             this.keys = keys;
         }
 
-        public int getCursor() { return cursor; }
+        public long getCursor() { return cursor; }
         public List<String> getKeys() { return keys; }
     }
 }
\ No newline at end of file
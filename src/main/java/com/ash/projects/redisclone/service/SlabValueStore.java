@@ -0,0 +1,513 @@
+package com.ash.projects.redisclone.service;
+
+import com.ash.projects.redisclone.model.OffHeapValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Off-heap storage for string values: a slab allocator over direct (or
+ * memory-mapped) ByteBuffers, so a large dataset does not sit on the Java heap
+ * where the GC would have to scan and copy it.
+ *
+ * Memory is handed out in pages. A page belongs to one size class and is cut
+ * into equal chunks; the classes grow by 25% from MIN_CHUNK up to the page
+ * size, so a value wastes at most about a fifth of its chunk. Each page keeps
+ * a stack of its free chunks and each class the pages that still have some,
+ * so storing and releasing a value are O(1). A value larger than a page, or
+ * one stored while the store is full, is not taken (it stays on the heap).
+ *
+ * A released chunk is only reused after the free delay, so a reader that got
+ * hold of a value just before it was released (or moved) still reads intact
+ * bytes: reads take no lock. Defragmentation moves the values out of the
+ * sparsest page of a class with too much free space; once empty, the page
+ * goes back to the shared pool for any class to use.
+ */
+public class SlabValueStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlabValueStore.class);
+
+    static final int MIN_CHUNK = 64;
+    private static final double GROWTH_FACTOR = 1.25;
+
+    // Pages of a memory-mapped store are mapped this many at a time
+    private static final int PAGES_PER_MAPPING = 64;
+
+    private final int pageBytes;
+    private final int maxPages;
+    private final long freeDelayMs;
+    private final int defragThresholdPercent;
+    private final SizeClass[] sizeClasses;
+
+    // null = direct buffers
+    private final Path mappedPath;
+    private final FileChannel mappedFile;
+
+    // Page number -> page, replaced (never changed) when it grows, so readers need no lock
+    private volatile Page[] pages = new Page[16];
+
+    // Pool state, guarded by this; taken after (never before) a size class lock
+    private int pageCount;
+    private final ArrayDeque<Page> freePages = new ArrayDeque<>();
+    private ByteBuffer mapping;
+    private int mappingUsed;
+    private long mappedBytes;
+
+    // Released chunks waiting out the free delay, oldest first
+    private final ConcurrentLinkedQueue<PendingFree> pendingFrees = new ConcurrentLinkedQueue<>();
+    private final Object reclaimLock = new Object();
+
+    private final LongAdder values = new LongAdder();
+    private final LongAdder valueBytes = new LongAdder();
+    private final LongAdder chunkBytes = new LongAdder();
+    private final LongAdder defragMoves = new LongAdder();
+    private final LongAdder fullCount = new LongAdder();
+
+    /**
+     * @param maxBytes               memory the store may take in all
+     * @param pageBytes              page size, also the largest value taken
+     * @param freeDelayMs            how long a released chunk stays readable
+     * @param defragThresholdPercent free share of a class's pages that starts defragmentation
+     * @param mappedFile             file to map the pages from, or null/empty for direct buffers
+     */
+    public SlabValueStore(long maxBytes, int pageBytes, long freeDelayMs, int defragThresholdPercent, String mappedFile) {
+        this.pageBytes = Math.max(pageBytes, MIN_CHUNK);
+        this.maxPages = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxBytes / this.pageBytes));
+        this.freeDelayMs = freeDelayMs;
+        this.defragThresholdPercent = defragThresholdPercent;
+        this.sizeClasses = buildSizeClasses(this.pageBytes);
+
+        if (mappedFile == null || mappedFile.isBlank()) {
+            this.mappedPath = null;
+            this.mappedFile = null;
+        } else {
+            try {
+                this.mappedPath = Path.of(mappedFile);
+                if (mappedPath.getParent() != null) {
+                    Files.createDirectories(mappedPath.getParent());
+                }
+                // Values are a cache of the repository, nothing in the file outlives the process
+                this.mappedFile = FileChannel.open(mappedPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open off-heap value file " + mappedFile, e);
+            }
+        }
+    }
+
+    private static SizeClass[] buildSizeClasses(int pageBytes) {
+        List<SizeClass> classes = new ArrayList<>();
+        int size = MIN_CHUNK;
+        while (size < pageBytes) {
+            classes.add(new SizeClass(size));
+            // Chunks stay 8-byte aligned
+            size = (int) Math.min(pageBytes, ((long) (size * GROWTH_FACTOR) + 7) & ~7L);
+        }
+        classes.add(new SizeClass(pageBytes));
+        return classes.toArray(new SizeClass[0]);
+    }
+
+    private SizeClass classFor(int length) {
+        int low = 0;
+        int high = sizeClasses.length - 1;
+        if (length > sizeClasses[high].chunkSize) {
+            return null;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sizeClasses[mid].chunkSize < length) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return sizeClasses[low];
+    }
+
+    /**
+     * Copy a value into the store.
+     *
+     * @return its handle, or null if it is larger than a page or the store is full
+     */
+    public OffHeapValue store(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        SizeClass sizeClass = classFor(bytes.length);
+        if (sizeClass == null) {
+            return null;
+        }
+        synchronized (sizeClass) {
+            long address = allocate(sizeClass, true);
+            if (address < 0) {
+                fullCount.increment();
+                return null;
+            }
+            Page page = pageAt(address);
+            page.buffer.put(offsetOf(address), bytes);
+            Slot slot = new Slot(address, bytes.length);
+            page.owners[offsetOf(address) / sizeClass.chunkSize] = slot;
+            values.increment();
+            valueBytes.add(bytes.length);
+            chunkBytes.add(sizeClass.chunkSize);
+            return slot;
+        }
+    }
+
+    /**
+     * Give back the chunk of a value. Its bytes stay readable for the free delay.
+     */
+    public void release(OffHeapValue value) {
+        Slot slot = (Slot) value;
+        // A concurrent move keeps the value in the same class
+        SizeClass sizeClass = pageAt(slot.address).sizeClass;
+        synchronized (sizeClass) {
+            if (slot.released) {
+                return;
+            }
+            slot.released = true;
+            long address = slot.address;
+            Page page = pageAt(address);
+            page.owners[offsetOf(address) / sizeClass.chunkSize] = null;
+            page.live--;
+            pendingFrees.add(new PendingFree(address, System.currentTimeMillis() + freeDelayMs));
+            values.decrement();
+            valueBytes.add(-slot.length);
+            chunkBytes.add(-sizeClass.chunkSize);
+        }
+    }
+
+    /**
+     * Take a free chunk of the class. Caller holds the class lock.
+     *
+     * @param mayTakePage whether a page may be taken from the pool when the class has no free chunk
+     * @return the chunk's address, or -1 if there is none
+     */
+    private long allocate(SizeClass sizeClass, boolean mayTakePage) {
+        Page page = sizeClass.partialPages.peekFirst();
+        if (page == null) {
+            if (!mayTakePage || (page = takeFreePage(sizeClass)) == null) {
+                return -1;
+            }
+        }
+        int chunk = page.freeChunks[--page.freeCount];
+        page.live++;
+        if (page.freeCount == 0) {
+            sizeClass.partialPages.pollFirst();
+            page.partial = false;
+        }
+        return addressOf(page, chunk * sizeClass.chunkSize);
+    }
+
+    /**
+     * Assign a pooled (or new) page to a class. Caller holds the class lock.
+     */
+    private Page takeFreePage(SizeClass sizeClass) {
+        Page page;
+        synchronized (this) {
+            page = freePages.poll();
+            if (page == null) {
+                if (pageCount >= maxPages) {
+                    return null;
+                }
+                ByteBuffer buffer = newPageBuffer();
+                if (buffer == null) {
+                    return null;
+                }
+                page = new Page(pageCount, buffer);
+                Page[] current = pages;
+                if (pageCount == current.length) {
+                    current = Arrays.copyOf(current, current.length * 2);
+                }
+                current[pageCount++] = page;
+                pages = current;
+            }
+        }
+
+        int chunks = pageBytes / sizeClass.chunkSize;
+        page.sizeClass = sizeClass;
+        page.owners = new Slot[chunks];
+        page.freeChunks = new int[chunks];
+        // Hand out the chunks in address order
+        for (int i = 0; i < chunks; i++) {
+            page.freeChunks[i] = chunks - 1 - i;
+        }
+        page.freeCount = chunks;
+        page.live = 0;
+        page.draining = false;
+        page.partial = true;
+        sizeClass.pages.add(page);
+        sizeClass.partialPages.addFirst(page);
+        return page;
+    }
+
+    // Caller holds this
+    private ByteBuffer newPageBuffer() {
+        if (mappedFile == null) {
+            return ByteBuffer.allocateDirect(pageBytes);
+        }
+        if (mapping == null || mappingUsed + pageBytes > mapping.capacity()) {
+            int mappingPages = Math.min(PAGES_PER_MAPPING, maxPages - pageCount);
+            try {
+                mapping = mappedFile.map(FileChannel.MapMode.READ_WRITE, mappedBytes, (long) mappingPages * pageBytes);
+            } catch (IOException e) {
+                logger.warn("Cannot grow off-heap value file {}: {}", mappedPath, e.getMessage());
+                return null;
+            }
+            mappedBytes += (long) mappingPages * pageBytes;
+            mappingUsed = 0;
+        }
+        ByteBuffer buffer = mapping.slice(mappingUsed, pageBytes);
+        mappingUsed += pageBytes;
+        return buffer;
+    }
+
+    /**
+     * Make the chunks whose free delay is over available again, and return
+     * pages that fell empty to the pool.
+     */
+    public void reclaim() {
+        long now = System.currentTimeMillis();
+        synchronized (reclaimLock) {
+            PendingFree pending;
+            while ((pending = pendingFrees.peek()) != null && pending.reusableAt <= now) {
+                pendingFrees.poll();
+                Page page = pageAt(pending.address);
+                SizeClass sizeClass = page.sizeClass;
+                synchronized (sizeClass) {
+                    freeChunk(sizeClass, page, offsetOf(pending.address) / sizeClass.chunkSize);
+                }
+            }
+        }
+    }
+
+    // Caller holds the class lock
+    private void freeChunk(SizeClass sizeClass, Page page, int chunk) {
+        page.freeChunks[page.freeCount++] = chunk;
+        if (page.freeCount == page.owners.length && (page.draining || sizeClass.pages.size() > 1)) {
+            // Keep one empty page per class, so a class at the edge does not take and return pages all the time
+            sizeClass.pages.remove(page);
+            if (page.partial) {
+                sizeClass.partialPages.remove(page);
+            }
+            page.sizeClass = null;
+            page.owners = null;
+            page.freeChunks = null;
+            page.partial = false;
+            page.draining = false;
+            synchronized (this) {
+                freePages.push(page);
+            }
+        } else if (!page.partial && !page.draining) {
+            sizeClass.partialPages.addLast(page);
+            page.partial = true;
+        }
+    }
+
+    /**
+     * For each class whose free space is over the threshold, move the values of
+     * its sparsest page into the free chunks of its other pages, so that page
+     * can go back to the pool once the moved-from chunks are reclaimed.
+     *
+     * @return the number of values moved
+     */
+    public int defragment() {
+        int moved = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            synchronized (sizeClass) {
+                moved += defragment(sizeClass);
+            }
+        }
+        defragMoves.add(moved);
+        return moved;
+    }
+
+    private int defragment(SizeClass sizeClass) {
+        if (sizeClass.pages.size() < 2) {
+            return 0;
+        }
+        int chunksPerPage = pageBytes / sizeClass.chunkSize;
+        long capacity = (long) sizeClass.pages.size() * chunksPerPage;
+        long free = 0;
+        Page sparsest = null;
+        for (Page page : sizeClass.pages) {
+            free += page.freeCount;
+            if (!page.draining && page.live > 0 && (sparsest == null || page.live < sparsest.live)) {
+                sparsest = page;
+            }
+        }
+        // Only worth it if the other pages can take all of its values
+        if (sparsest == null || free * 100 < capacity * defragThresholdPercent
+                || free - sparsest.freeCount < sparsest.live) {
+            return 0;
+        }
+
+        sparsest.draining = true;
+        if (sparsest.partial) {
+            sizeClass.partialPages.remove(sparsest);
+            sparsest.partial = false;
+        }
+        long reusableAt = System.currentTimeMillis() + freeDelayMs;
+        int moved = 0;
+        for (int chunk = 0; chunk < sparsest.owners.length && sparsest.live > 0; chunk++) {
+            Slot slot = sparsest.owners[chunk];
+            if (slot == null) {
+                continue;
+            }
+            long target = allocate(sizeClass, false);
+            if (target < 0) {
+                break;
+            }
+            Page to = pageAt(target);
+            long from = slot.address;
+            to.buffer.put(offsetOf(target), sparsest.buffer, offsetOf(from), slot.length);
+            to.owners[offsetOf(target) / sizeClass.chunkSize] = slot;
+            slot.address = target;
+            sparsest.owners[chunk] = null;
+            sparsest.live--;
+            // Readers that picked up the old address still read intact bytes
+            pendingFrees.add(new PendingFree(from, reusableAt));
+            moved++;
+        }
+        if (sparsest.live > 0) {
+            // Ran out of room: the page keeps its remaining values and takes new ones again
+            sparsest.draining = false;
+            if (sparsest.freeCount > 0) {
+                sizeClass.partialPages.addLast(sparsest);
+                sparsest.partial = true;
+            }
+        }
+        return moved;
+    }
+
+    private Page pageAt(long address) {
+        return pages[(int) (address >>> 32)];
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    private static long addressOf(Page page, int offset) {
+        return ((long) page.number << 32) | offset;
+    }
+
+    /**
+     * Close (and delete) the mapped file, if any. The store must not be used afterwards.
+     */
+    public void close() {
+        if (mappedFile == null) {
+            return;
+        }
+        try {
+            mappedFile.close();
+            Files.deleteIfExists(mappedPath);
+        } catch (IOException e) {
+            logger.warn("Cannot remove off-heap value file {}: {}", mappedPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Figures for INFO
+     */
+    public Map<String, Object> getStats() {
+        long allocated;
+        synchronized (this) {
+            allocated = (long) pageCount * pageBytes;
+        }
+        long payload = valueBytes.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("offheap_values", values.sum());
+        stats.put("offheap_value_bytes", payload);
+        stats.put("offheap_chunk_bytes", chunkBytes.sum());
+        stats.put("offheap_allocated_bytes", allocated);
+        stats.put("offheap_max_bytes", (long) maxPages * pageBytes);
+        stats.put("offheap_fragmentation_ratio", payload > 0 ? String.format("%.2f", (double) allocated / payload) : "0.00");
+        stats.put("offheap_pending_frees", pendingFrees.size());
+        stats.put("offheap_defrag_moves", defragMoves.sum());
+        stats.put("offheap_full_count", fullCount.sum());
+        return stats;
+    }
+
+    private final class Slot extends OffHeapValue {
+        // page number << 32 | byte offset; changed only by defragmentation
+        volatile long address;
+        final int length;
+        // Guarded by the size class lock
+        boolean released;
+
+        Slot(long address, int length) {
+            this.address = address;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public ByteBuffer asByteBuffer() {
+            long current = address;
+            return pageAt(current).buffer.slice(offsetOf(current), length).asReadOnlyBuffer();
+        }
+
+        @Override
+        public String asString() {
+            byte[] bytes = new byte[length];
+            long current = address;
+            pageAt(current).buffer.get(offsetOf(current), bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Page {
+        final int number;
+        // Only absolute get/put/slice, so the buffer's position is never shared state
+        final ByteBuffer buffer;
+
+        // The rest is guarded by the lock of the page's size class
+        SizeClass sizeClass;
+        Slot[] owners;
+        int[] freeChunks;
+        int freeCount;
+        int live;
+        // Listed in sizeClass.partialPages
+        boolean partial;
+        // Being emptied by defragmentation, takes no new values
+        boolean draining;
+
+        Page(int number, ByteBuffer buffer) {
+            this.number = number;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class SizeClass {
+        final int chunkSize;
+        final List<Page> pages = new ArrayList<>();
+        // Pages with a free chunk, the next allocation comes from the first
+        final ArrayDeque<Page> partialPages = new ArrayDeque<>();
+
+        SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    private record PendingFree(long address, long reusableAt) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.ash.projects.redisclone.service;
+
+import com.ash.projects.redisclone.command.CommandContext;
+import com.ash.projects.redisclone.network.RespCommand;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Slow log (SLOWLOG GET / LEN / RESET).
+ *
+ * Commands whose execution takes at least slowlog.log.slower.than microseconds
+ * are recorded with their (truncated) arguments, the client, the duration and
+ * the number of repository calls they made, so a KEYS over a large region or a
+ * read that missed memory and went to RocksDB / the database stands out.
+ *
+ * Entries live in a fixed-size ring: a writer claims a sequence number with one
+ * atomic increment and stores its entry in slot (id % size), overwriting the
+ * oldest. Readers skip slots whose entry does not carry the id they expect, so
+ * neither side ever locks.
+ */
+@Service
+public class SlowLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowLogService.class);
+
+    // Same truncation as Redis: at most 32 arguments of at most 128 bytes each
+    private static final int MAX_ARGS = 32;
+    private static final int MAX_ARG_LENGTH = 128;
+
+    // Minimum duration to be logged; 0 logs every command, negative disables the slow log
+    @Value("${slowlog.log.slower.than:10000}")
+    private long slowerThanMicros;
+
+    @Value("${slowlog.max.len:128}")
+    private int maxLength;
+
+    private AtomicReferenceArray<Entry> ring;
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    // Entries with a smaller id were cleared by SLOWLOG RESET
+    private volatile long firstVisibleId;
+
+    @PostConstruct
+    public void initialize() {
+        ring = new AtomicReferenceArray<>(Math.max(1, maxLength));
+        logger.info("Slow log initialized (threshold: {} us, max entries: {})", slowerThanMicros, ring.length());
+    }
+
+    public boolean isSlow(long durationMicros) {
+        return slowerThanMicros >= 0 && durationMicros >= slowerThanMicros;
+    }
+
+    public void record(CommandContext context, RespCommand command, long durationMicros, int repositoryCalls) {
+        long id = nextId.getAndIncrement();
+        Entry entry = new Entry(id, System.currentTimeMillis() / 1000, durationMicros, truncateArgs(command),
+                context.getClientAddress(), context.getClientName(), repositoryCalls);
+        ring.set((int) (id % ring.length()), entry);
+    }
+
+    /**
+     * @param count maximum number of entries, negative for all
+     * @return the most recent entries, newest first
+     */
+    public List<Entry> get(int count) {
+        long newest = nextId.get() - 1;
+        long oldest = Math.max(firstVisibleId, newest - ring.length() + 1);
+        int limit = count < 0 ? ring.length() : Math.min(count, ring.length());
+
+        List<Entry> entries = new ArrayList<>(Math.min(limit, (int) Math.max(0, newest - oldest + 1)));
+        for (long id = newest; id >= oldest && entries.size() < limit; id--) {
+            Entry entry = ring.get((int) (id % ring.length()));
+            // A slot still being written (or already reused) holds a different id
+            if (entry != null && entry.getId() == id) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    public int length() {
+        long newest = nextId.get();
+        return (int) Math.min(ring.length(), newest - Math.min(firstVisibleId, newest));
+    }
+
+    public void reset() {
+        firstVisibleId = nextId.get();
+    }
+
+    public long getSlowerThanMicros() {
+        return slowerThanMicros;
+    }
+
+    public int getMaxLength() {
+        return ring.length();
+    }
+
+    private static String[] truncateArgs(RespCommand command) {
+        int argCount = Math.min(command.argCount(), MAX_ARGS);
+        String[] args = new String[argCount];
+
+        for (int i = 0; i < argCount; i++) {
+            if (i == MAX_ARGS - 1 && command.argCount() > MAX_ARGS) {
+                args[i] = "... (" + (command.argCount() - MAX_ARGS + 1) + " more arguments)";
+                break;
+            }
+            args[i] = truncate(command, i);
+        }
+        return args;
+    }
+
+    /**
+     * Decode at most MAX_ARG_LENGTH bytes of an argument, so a multi-megabyte
+     * value is never converted in full just to be logged.
+     */
+    private static String truncate(RespCommand command, int index) {
+        if (command.isRaw(index)) {
+            byte[] bytes = command.getBytes(index);
+            if (bytes.length <= MAX_ARG_LENGTH) {
+                return command.getString(index);
+            }
+            return new String(bytes, 0, MAX_ARG_LENGTH, StandardCharsets.UTF_8)
+                    + "... (" + (bytes.length - MAX_ARG_LENGTH) + " more bytes)";
+        }
+
+        String value = command.getString(index);
+        if (value.length() <= MAX_ARG_LENGTH) {
+            return value;
+        }
+        return value.substring(0, MAX_ARG_LENGTH) + "... (" + (value.length() - MAX_ARG_LENGTH) + " more bytes)";
+    }
+
+    /**
+     * One slow log entry (immutable).
+     */
+    public static class Entry {
+        private final long id;
+        private final long timestamp;
+        private final long durationMicros;
+        private final String[] args;
+        private final String clientAddress;
+        private final String clientName;
+        private final int repositoryCalls;
+
+        public Entry(long id, long timestamp, long durationMicros, String[] args,
+                     String clientAddress, String clientName, int repositoryCalls) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.durationMicros = durationMicros;
+            this.args = args;
+            this.clientAddress = clientAddress;
+            this.clientName = clientName;
+            this.repositoryCalls = repositoryCalls;
+        }
+
+        public long getId() { return id; }
+        public long getTimestamp() { return timestamp; }
+        public long getDurationMicros() { return durationMicros; }
+        public String[] getArgs() { return args; }
+        public String getClientAddress() { return clientAddress; }
+        public String getClientName() { return clientName; }
+        public int getRepositoryCalls() { return repositoryCalls; }
+
+        public Date getTime() {
+            return new Date(timestamp * 1000);
+        }
+
+        public boolean isRepositoryHit() {
+            return repositoryCalls > 0;
+        }
+
+        public String getCommandLine() {
+            return String.join(" ", args);
+        }
+    }
+}
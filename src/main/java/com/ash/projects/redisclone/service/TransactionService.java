@@ -1,16 +1,29 @@
 package com.ash.projects.redisclone.service;
 
+import com.ash.projects.redisclone.command.CommandArgs;
+import com.ash.projects.redisclone.command.CommandContext;
+import com.ash.projects.redisclone.command.CommandRegistry;
+import com.ash.projects.redisclone.network.RespCommand;
+import com.ash.projects.redisclone.network.RespReply;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Supplier;
+import java.util.function.Consumer;
+
+import static com.ash.projects.redisclone.command.CommandSpec.*;
 
 /**
  * Transaction support for MULTI, EXEC, and DISCARD commands
+ *
+ * Commands sent between MULTI and EXEC are queued by the CommandRegistry on the
+ * caller's CommandContext; EXEC replays them through the registry, so queued
+ * and immediate commands share the same dispatch path.
  */
 @Service
 public class TransactionService {
@@ -18,204 +31,115 @@ public class TransactionService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
 
     @Autowired
-    private CacheService cacheService;
+    private CommandRegistry registry;
 
-    @Autowired
-    private RedisCommandService commandService;
+    // Context ID -> context currently inside MULTI
+    private final Map<Long, CommandContext> activeTransactions = new ConcurrentHashMap<>();
 
-    // Session ID -> Transaction Context
-    private final Map<String, TransactionContext> activeTransactions = new ConcurrentHashMap<>();
+    @PostConstruct
+    public void registerCommands() {
+        registry.register("MULTI", 1, FAST | NO_QUEUE | CONNECTION, 0, 0, 0, this::multi);
+        registry.register("EXEC", 1, NO_QUEUE | CONNECTION, 0, 0, 0, this::exec);
+        registry.register("DISCARD", 1, FAST | NO_QUEUE | CONNECTION, 0, 0, 0, this::discard);
+    }
 
     /**
      * MULTI - Start a transaction
      */
-    public String multi(String sessionId) {
-        if (activeTransactions.containsKey(sessionId)) {
-            return "-ERR MULTI calls can not be nested";
+    public String multi(CommandContext context, CommandArgs args) {
+        if (context.isInTransaction()) {
+            return RespReply.error("MULTI calls can not be nested");
         }
 
-        TransactionContext context = new TransactionContext();
-        context.setSessionId(sessionId);
-        context.setStartTime(System.currentTimeMillis());
-
-        activeTransactions.put(sessionId, context);
-
-        logger.debug("Transaction started for session: {}", sessionId);
-        return "+OK";
-    }
-
-    /**
-     * Add a command to the transaction queue
-     */
-    public String queueCommand(String sessionId, Supplier<Object> command, String commandDesc) {
-        TransactionContext context = activeTransactions.get(sessionId);
-
-        if (context == null) {
-            // Not in transaction mode, execute immediately
-            try {
-                Object result = command.get();
-                return formatResult(result);
-            } catch (Exception e) {
-                return "-ERR " + e.getMessage();
-            }
-        }
+        context.beginTransaction();
+        activeTransactions.put(context.getId(), context);
 
-        // In transaction mode, queue the command
-        context.addCommand(command, commandDesc);
-        return "+QUEUED";
+        logger.debug("Transaction started for session: {}", context.getId());
+        return RespReply.OK;
     }
 
     /**
      * EXEC - Execute all queued commands
      */
-    public List<String> exec(String sessionId) {
-        TransactionContext context = activeTransactions.remove(sessionId);
+    public String exec(CommandContext context, CommandArgs args) {
+        boolean dirty = context.isTransactionDirty();
+        List<RespCommand> commands = context.endTransaction();
+        activeTransactions.remove(context.getId());
 
-        if (context == null) {
-            return List.of("-ERR EXEC without MULTI");
+        if (commands == null) {
+            return RespReply.error("EXEC without MULTI");
+        }
+        if (dirty) {
+            return RespReply.error("EXECABORT Transaction discarded because of previous errors.");
         }
-
-        List<String> results = new ArrayList<>();
 
         logger.debug("Executing transaction with {} commands for session: {}",
-                context.getCommands().size(), sessionId);
-
-        for (QueuedCommand queuedCommand : context.getCommands()) {
-            try {
-                Object result = queuedCommand.getCommand().get();
-                results.add(formatResult(result));
-            } catch (Exception e) {
-                logger.error("Error executing command in transaction: {}",
-                        queuedCommand.getDescription(), e);
-                results.add("-ERR " + e.getMessage());
+                commands.size(), context.getId());
+
+        StringBuilder results = new StringBuilder(RespReply.arrayHeader(commands.size()));
+        // The replies go into the EXEC array, so none may be written to the connection directly
+        Consumer<ByteBuffer> bulkReplyWriter = context.getBulkReplyWriter();
+        context.setBulkReplyWriter(null);
+        try {
+            for (RespCommand command : commands) {
+                results.append(registry.execute(context, command));
             }
+        } finally {
+            context.setBulkReplyWriter(bulkReplyWriter);
         }
 
         logger.debug("Transaction completed for session: {} with {} results",
-                sessionId, results.size());
+                context.getId(), commands.size());
 
-        return results;
+        return results.toString();
     }
 
     /**
      * DISCARD - Discard all queued commands
      */
-    public String discard(String sessionId) {
-        TransactionContext context = activeTransactions.remove(sessionId);
+    public String discard(CommandContext context, CommandArgs args) {
+        List<RespCommand> commands = context.endTransaction();
+        activeTransactions.remove(context.getId());
 
-        if (context == null) {
-            return "-ERR DISCARD without MULTI";
+        if (commands == null) {
+            return RespReply.error("DISCARD without MULTI");
         }
 
         logger.debug("Transaction discarded for session: {} with {} queued commands",
-                sessionId, context.getCommands().size());
+                context.getId(), commands.size());
 
-        return "+OK";
+        return RespReply.OK;
     }
 
     /**
      * Check if session is in transaction mode
      */
-    public boolean isInTransaction(String sessionId) {
+    public boolean isInTransaction(long sessionId) {
         return activeTransactions.containsKey(sessionId);
     }
 
     /**
      * Get number of queued commands for a session
      */
-    public int getQueuedCommandCount(String sessionId) {
-        TransactionContext context = activeTransactions.get(sessionId);
-        return context != null ? context.getCommands().size() : 0;
+    public int getQueuedCommandCount(long sessionId) {
+        CommandContext context = activeTransactions.get(sessionId);
+        return context != null ? context.getQueuedCommandCount() : 0;
     }
 
     /**
      * Clear transaction for session (e.g., on disconnect)
      */
-    public void clearTransaction(String sessionId) {
-        TransactionContext removed = activeTransactions.remove(sessionId);
-        if (removed != null) {
-            logger.debug("Cleared transaction for disconnected session: {}", sessionId);
+    public void clearTransaction(CommandContext context) {
+        if (activeTransactions.remove(context.getId()) != null) {
+            context.endTransaction();
+            logger.debug("Cleared transaction for disconnected session: {}", context.getId());
         }
     }
 
     /**
      * Get all active transaction sessions
      */
-    public Set<String> getActiveTransactionSessions() {
+    public Set<Long> getActiveTransactionSessions() {
         return new HashSet<>(activeTransactions.keySet());
     }
-
-    private String formatResult(Object result) {
-        if (result == null) {
-            return "$-1";
-        } else if (result instanceof String) {
-            String str = (String) result;
-            return "+" + str;
-        } else if (result instanceof Integer || result instanceof Long) {
-            return ":" + result;
-        } else if (result instanceof Boolean) {
-            return ":" + ((Boolean) result ? 1 : 0);
-        } else if (result instanceof Collection) {
-            Collection<?> collection = (Collection<?>) result;
-            return "*" + collection.size();
-        } else {
-            return "+" + result.toString();
-        }
-    }
-
-    // Transaction context
-    private static class TransactionContext {
-        private String sessionId;
-        private long startTime;
-        private final List<QueuedCommand> commands = new ArrayList<>();
-
-        public String getSessionId() {
-            return sessionId;
-        }
-
-        public void setSessionId(String sessionId) {
-            this.sessionId = sessionId;
-        }
-
-        public long getStartTime() {
-            return startTime;
-        }
-
-        public void setStartTime(long startTime) {
-            this.startTime = startTime;
-        }
-
-        public List<QueuedCommand> getCommands() {
-            return commands;
-        }
-
-        public void addCommand(Supplier<Object> command, String description) {
-            commands.add(new QueuedCommand(command, description));
-        }
-    }
-
-    // Queued command
-    private static class QueuedCommand {
-        private final Supplier<Object> command;
-        private final String description;
-        private final long queuedAt;
-
-        public QueuedCommand(Supplier<Object> command, String description) {
-            this.command = command;
-            this.description = description;
-            this.queuedAt = System.currentTimeMillis();
-        }
-
-        public Supplier<Object> getCommand() {
-            return command;
-        }
-
-        public String getDescription() {
-            return description;
-        }
-
-        public long getQueuedAt() {
-            return queuedAt;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,317 @@
+package com.ash.projects.redisclone.service;
+
+import com.ash.projects.redisclone.model.CompressedValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Optional in-memory compression of large string values, per region.
+ *
+ * The codec of every region is cache.compression.codec; individual regions can
+ * use another one with cache.compression.regions, e.g. {@code docs:high,sessions:fast}.
+ * Both codecs are deflate (java.util.zip, no native library):
+ * - fast (or lz4): level 1, for values read often
+ * - high (or zstd): level 9, plus a preset dictionary built from the first
+ *   values of the region when cache.compression.dictionary.enabled is set, which
+ *   is what makes small documents sharing field names compress well
+ *
+ * Only values of at least cache.compression.min.bytes are compressed, and they
+ * are only kept compressed if that saves at least an eighth. Reads decompress
+ * the value every time; nothing is cached decompressed.
+ */
+public class ValueCompression {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValueCompression.class);
+
+    public static final String NONE = "none";
+    public static final String FAST = "fast";
+    public static final String HIGH = "high";
+
+    // Deflate cannot look further back than this, so a longer dictionary is of no use
+    private static final int MAX_DICTIONARY_BYTES = 32 * 1024;
+    // The dictionary is built from the starts of at least this many values
+    private static final int DICTIONARY_SAMPLES = 16;
+
+    // Raw deflate streams (no header or checksum), one compressor per level and thread
+    private static final ThreadLocal<Deflater> FAST_DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private static final ThreadLocal<Deflater> HIGH_DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_COMPRESSION, true));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private final int minBytes;
+    private final boolean dictionaryEnabled;
+    private final int dictionaryBytes;
+
+    private String defaultCodec = NONE;
+    private final Map<String, String> regionCodecs = new HashMap<>();
+    private final Map<String, RegionCodec> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * @param minBytes          shortest value compressed
+     * @param dictionaryEnabled whether high regions build a preset dictionary
+     * @param dictionaryBytes   size of that dictionary (at most 32 KB)
+     */
+    public ValueCompression(int minBytes, boolean dictionaryEnabled, int dictionaryBytes) {
+        this.minBytes = minBytes;
+        this.dictionaryEnabled = dictionaryEnabled;
+        this.dictionaryBytes = Math.max(0, Math.min(dictionaryBytes, MAX_DICTIONARY_BYTES));
+    }
+
+    /**
+     * @param defaultCodec value of cache.compression.codec
+     * @param regionCodecs value of cache.compression.regions (region:codec, comma separated)
+     */
+    public ValueCompression configure(String defaultCodec, String regionCodecs) {
+        this.defaultCodec = normalize(defaultCodec);
+        if (regionCodecs != null && !regionCodecs.isBlank()) {
+            for (String mapping : regionCodecs.split(",")) {
+                int separator = mapping.lastIndexOf(':');
+                if (separator <= 0) {
+                    logger.warn("Ignoring compression mapping '{}', expected region:codec", mapping.trim());
+                    continue;
+                }
+                this.regionCodecs.put(mapping.substring(0, separator).trim(), normalize(mapping.substring(separator + 1)));
+            }
+        }
+        return this;
+    }
+
+    // Accepts the names of the codecs each one stands in for
+    static String normalize(String name) {
+        String normalized = name == null ? NONE : name.trim().toLowerCase(Locale.ROOT);
+        switch (normalized) {
+            case "":
+            case NONE:
+            case "off":
+                return NONE;
+            case FAST:
+            case "lz4":
+                return FAST;
+            case HIGH:
+            case "zstd":
+                return HIGH;
+            default:
+                logger.warn("Unknown compression codec '{}', values are not compressed", name);
+                return NONE;
+        }
+    }
+
+    public String getCodec(String region) {
+        return regionCodecs.getOrDefault(region, defaultCodec);
+    }
+
+    public String getDefaultCodec() {
+        return defaultCodec;
+    }
+
+    public Map<String, String> getRegionOverrides() {
+        return regionCodecs;
+    }
+
+    /**
+     * Compress a value entering memory.
+     *
+     * @return the compressed value, or null if the region does not compress,
+     *         the value is too short or it does not compress well enough
+     */
+    public CompressedValue compress(String region, String value) {
+        if (value.length() < minBytes) {
+            return null;
+        }
+        String codecName = getCodec(region);
+        if (NONE.equals(codecName)) {
+            return null;
+        }
+        RegionCodec codec = codecs.computeIfAbsent(region, k -> new RegionCodec(codecName));
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] dictionary = codec.dictionary;
+        if (dictionary == null && codec.high && dictionaryEnabled && dictionaryBytes > 0) {
+            codec.sample(bytes);
+        }
+
+        Deflater deflater = (codec.high ? HIGH_DEFLATER : FAST_DEFLATER).get();
+        deflater.reset();
+        if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+        }
+        deflater.setInput(bytes);
+        deflater.finish();
+        // Not worth it unless it saves an eighth
+        byte[] out = new byte[bytes.length - bytes.length / 8];
+        int length = 0;
+        while (!deflater.finished() && length < out.length) {
+            length += deflater.deflate(out, length, out.length - length);
+        }
+        if (!deflater.finished()) {
+            codec.incompressible.increment();
+            return null;
+        }
+
+        Compressed compressed = new Compressed(codec, Arrays.copyOf(out, length), bytes.length, dictionary);
+        codec.values.increment();
+        codec.rawBytes.add(bytes.length);
+        codec.compressedBytes.add(length);
+        return compressed;
+    }
+
+    /**
+     * Take a compressed value that has left memory out of the region's figures.
+     */
+    public void onRemove(String region, CompressedValue value) {
+        Compressed compressed = (Compressed) value;
+        // Only if the region was not dropped (and its codec replaced) meanwhile
+        if (codecs.get(region) == compressed.codec) {
+            compressed.codec.values.decrement();
+            compressed.codec.rawBytes.add(-compressed.length);
+            compressed.codec.compressedBytes.add(-compressed.data.length);
+        }
+    }
+
+    public void removeRegion(String region) {
+        codecs.remove(region);
+    }
+
+    /**
+     * Figures for the region stats
+     */
+    public Map<String, Object> getRegionStats(String region) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("compression", getCodec(region));
+        RegionCodec codec = codecs.get(region);
+        long raw = codec != null ? codec.rawBytes.sum() : 0;
+        long compressed = codec != null ? codec.compressedBytes.sum() : 0;
+        stats.put("compressedValues", codec != null ? codec.values.sum() : 0);
+        stats.put("compressedRawBytes", raw);
+        stats.put("compressedBytes", compressed);
+        stats.put("compressionRatio", compressed > 0 ? String.format("%.2f", (double) raw / compressed) : "0.00");
+        stats.put("compressionDictionaryBytes", codec != null && codec.dictionary != null ? codec.dictionary.length : 0);
+        stats.put("incompressibleValues", codec != null ? codec.incompressible.sum() : 0);
+        stats.put("decompressions", codec != null ? codec.decompressions.sum() : 0);
+        return stats;
+    }
+
+    /**
+     * Figures for INFO
+     */
+    public Map<String, Object> getStats() {
+        long values = 0;
+        long raw = 0;
+        long compressed = 0;
+        for (RegionCodec codec : codecs.values()) {
+            values += codec.values.sum();
+            raw += codec.rawBytes.sum();
+            compressed += codec.compressedBytes.sum();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("compression", defaultCodec);
+        stats.put("compressed_values", values);
+        stats.put("compressed_raw_bytes", raw);
+        stats.put("compressed_bytes", compressed);
+        return stats;
+    }
+
+    /**
+     * Codec and figures of one region that compresses.
+     */
+    private final class RegionCodec {
+        final boolean high;
+
+        // Preset dictionary of a high region, fixed once built; values keep the one they were compressed with
+        volatile byte[] dictionary;
+        private ByteArrayOutputStream samples;
+
+        final LongAdder values = new LongAdder();
+        final LongAdder rawBytes = new LongAdder();
+        final LongAdder compressedBytes = new LongAdder();
+        final LongAdder incompressible = new LongAdder();
+        final LongAdder decompressions = new LongAdder();
+
+        RegionCodec(String name) {
+            this.high = HIGH.equals(name);
+        }
+
+        /**
+         * Add the start of a value to the dictionary samples; once there are
+         * enough, they become the dictionary. Field names and the shape of the
+         * first documents are what later ones share most.
+         */
+        synchronized void sample(byte[] value) {
+            if (dictionary != null) {
+                return;
+            }
+            if (samples == null) {
+                samples = new ByteArrayOutputStream(dictionaryBytes);
+            }
+            int take = Math.min(value.length, Math.min(dictionaryBytes / DICTIONARY_SAMPLES + 1, dictionaryBytes - samples.size()));
+            samples.write(value, 0, take);
+            if (samples.size() >= dictionaryBytes) {
+                dictionary = samples.toByteArray();
+                samples = null;
+            }
+        }
+    }
+
+    private static final class Compressed extends CompressedValue {
+        final RegionCodec codec;
+        final byte[] data;
+        final int length;
+        final byte[] dictionary;
+
+        Compressed(RegionCodec codec, byte[] data, int length, byte[] dictionary) {
+            this.codec = codec;
+            this.data = data;
+            this.length = length;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public int compressedLength() {
+            return data.length;
+        }
+
+        @Override
+        public byte[] toBytes() {
+            Inflater inflater = INFLATER.get();
+            inflater.reset();
+            if (dictionary != null) {
+                inflater.setDictionary(dictionary);
+            }
+            inflater.setInput(data);
+            byte[] bytes = new byte[length];
+            try {
+                int read = 0;
+                while (read < length && !inflater.finished()) {
+                    int n = inflater.inflate(bytes, read, length - read);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    read += n;
+                }
+                if (read != length) {
+                    throw new IllegalStateException("Compressed value is truncated: " + read + " of " + length + " bytes");
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Compressed value is corrupt", e);
+            }
+            codec.decompressions.increment();
+            return bytes;
+        }
+    }
+}
@@ -2,57 +2,98 @@ package com.ash.projects.redisclone.client;
 
 import java.io.*;
 import java.net.Socket;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
  * Java client for AshRedis Clone
+ * Commands are sent as RESP multi-bulk requests, so keys and values may contain
+ * spaces, quotes and newlines without any escaping.
  * Usage:
  * AshRedisClient client = new AshRedisClient("localhost", 6379);
  * client.connect();
  * client.set("mykey", "myvalue");
  * String value = client.get("mykey");
  * client.close();
+ *
+ * Co-located clients can use the server's Unix domain socket instead:
+ * new AshRedisClient(Path.of("/tmp/ashredis.sock"))
+ *
+ * Hot keys can be served locally with enableNearCache(maxEntries): GETs are cached
+ * on the client and the server pushes an invalidation when a cached key changes.
  */
 public class AshRedisClient implements AutoCloseable {
 
     private final String host;
     private final int port;
+    private final Path unixSocketPath;
     private Socket socket;
-    private BufferedReader reader;
-    private PrintWriter writer;
+    private SocketChannel unixChannel;
+    private InputStream reader;
+    private OutputStream writer;
     private String defaultRegion;
 
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    // Near cache backed by server invalidations (CLIENT TRACKING); null when disabled
+    private Map<String, String> nearCache;
+    // Near cache key of the GET currently waiting for its reply, and whether it was invalidated meanwhile
+    private String pendingNearCacheKey;
+    private boolean pendingInvalidated;
+
     private final Map<String, Consumer<String>> channelSubscribers = new ConcurrentHashMap<>();
     private Thread subscriptionThread;
     private volatile boolean subscriptionActive = false;
 
     public AshRedisClient(String host, int port) {
-        this.host = host;
-        this.port = port;
-        this.defaultRegion = null;
+        this(host, port, null);
     }
 
     public AshRedisClient(String host, int port, String defaultRegion) {
         this.host = host;
         this.port = port;
+        this.unixSocketPath = null;
         this.defaultRegion = defaultRegion;
     }
 
+    /**
+     * Client for the server's Unix domain socket (network.server.unix.socket.path)
+     */
+    public AshRedisClient(Path unixSocketPath) {
+        this.host = null;
+        this.port = 0;
+        this.unixSocketPath = unixSocketPath;
+        this.defaultRegion = null;
+    }
+
     /**
      * Connect to the server
      */
     public void connect() throws IOException {
+        if (unixSocketPath != null) {
+            unixChannel = SocketChannel.open(UnixDomainSocketAddress.of(unixSocketPath));
+            reader = new BufferedInputStream(Channels.newInputStream(unixChannel));
+            writer = new BufferedOutputStream(Channels.newOutputStream(unixChannel));
+            return;
+        }
         socket = new Socket(host, port);
-        reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-        writer = new PrintWriter(socket.getOutputStream(), true);
+        reader = new BufferedInputStream(socket.getInputStream());
+        writer = new BufferedOutputStream(socket.getOutputStream());
     }
 
     /**
      * Check if connected
      */
     public boolean isConnected() {
+        if (unixChannel != null) {
+            return unixChannel.isOpen();
+        }
         return socket != null && socket.isConnected() && !socket.isClosed();
     }
 
@@ -67,7 +108,7 @@ public class AshRedisClient implements AutoCloseable {
      * PING command
      */
     public String ping() throws IOException {
-        return sendCommand("PING");
+        return (String) sendCommand(List.of("PING"));
     }
 
     /**
@@ -82,17 +123,16 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public String setInRegion(String region, String key, String value, Long ttlSeconds) throws IOException {
-        StringBuilder cmd = new StringBuilder("SET");
-        if (region != null) {
-            cmd.append(" @").append(region);
-        }
-        cmd.append(" ").append(key).append(" ").append(value);
+        List<String> cmd = command("SET", region);
+        cmd.add(key);
+        cmd.add(value);
 
         if (ttlSeconds != null && ttlSeconds > 0) {
-            cmd.append(" EX ").append(ttlSeconds);
+            cmd.add("EX");
+            cmd.add(String.valueOf(ttlSeconds));
         }
 
-        return sendCommand(cmd.toString());
+        return (String) sendCommand(cmd);
     }
 
     /**
@@ -103,13 +143,147 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public String getInRegion(String region, String key) throws IOException {
-        StringBuilder cmd = new StringBuilder("GET");
-        if (region != null) {
-            cmd.append(" @").append(region);
+        List<String> cmd = command("GET", region);
+        cmd.add(key);
+
+        if (nearCache != null) {
+            return getThroughNearCache(nearCacheKey(region, key), cmd);
+        }
+        return (String) sendCommand(cmd);
+    }
+
+    /**
+     * MGET command - one round trip; null for missing keys, in request order
+     */
+    public List<String> mget(String... keys) throws IOException {
+        return mgetInRegion(defaultRegion, keys);
+    }
+
+    public List<String> mgetInRegion(String region, String... keys) throws IOException {
+        List<String> cmd = command("MGET", region);
+        for (String key : keys) {
+            cmd.add(key);
         }
-        cmd.append(" ").append(key);
 
-        return sendCommand(cmd.toString());
+        List<String> values = new ArrayList<>();
+        Object response = sendCommand(cmd);
+        if (response instanceof List) {
+            for (Object item : (List<?>) response) {
+                values.add(item != null ? item.toString() : null);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * MSET command
+     */
+    public String mset(Map<String, String> keyValues) throws IOException {
+        return msetInRegion(defaultRegion, keyValues);
+    }
+
+    public String msetInRegion(String region, Map<String, String> keyValues) throws IOException {
+        List<String> cmd = command("MSET", region);
+        for (Map.Entry<String, String> keyValue : keyValues.entrySet()) {
+            cmd.add(keyValue.getKey());
+            cmd.add(keyValue.getValue());
+        }
+
+        return (String) sendCommand(cmd);
+    }
+
+    /**
+     * Enable the near cache: switch to RESP3 and turn on server-side tracking, so
+     * every key this client reads is invalidated by the server when it changes.
+     * Missing keys are cached too.
+     *
+     * @param maxEntries maximum number of cached keys (least recently used are dropped)
+     */
+    public synchronized void enableNearCache(int maxEntries) throws IOException {
+        sendCommand(List.of("HELLO", "3"));
+        sendCommand(List.of("CLIENT", "TRACKING", "ON"));
+        nearCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized void disableNearCache() throws IOException {
+        nearCache = null;
+        sendCommand(List.of("CLIENT", "TRACKING", "OFF"));
+    }
+
+    public synchronized int getNearCacheSize() {
+        return nearCache != null ? nearCache.size() : 0;
+    }
+
+    private synchronized String getThroughNearCache(String cacheKey, List<String> cmd) throws IOException {
+        // Apply invalidations that already arrived before trusting the cache
+        drainPushes();
+        if (nearCache.containsKey(cacheKey)) {
+            return nearCache.get(cacheKey);
+        }
+
+        pendingNearCacheKey = cacheKey;
+        pendingInvalidated = false;
+        try {
+            String value = (String) sendCommand(cmd);
+            // An invalidation that raced with this read means the value may already be stale
+            if (!pendingInvalidated && nearCache != null) {
+                nearCache.put(cacheKey, value);
+            }
+            return value;
+        } finally {
+            pendingNearCacheKey = null;
+        }
+    }
+
+    private void drainPushes() throws IOException {
+        while (reader.available() > 0) {
+            Object message = readValue();
+            if (message instanceof Push) {
+                handlePush(((Push) message).items);
+            }
+        }
+    }
+
+    /**
+     * Invalidation push: ["invalidate", [key, ...] or null for the whole region, region]
+     */
+    private void handlePush(List<Object> items) {
+        if (nearCache == null || items.isEmpty() || !"invalidate".equals(items.get(0))) {
+            return;
+        }
+
+        String region = items.size() > 2 ? (String) items.get(2) : null;
+        Object keys = items.size() > 1 ? items.get(1) : null;
+
+        if (keys instanceof List) {
+            for (Object key : (List<?>) keys) {
+                // The server reports the resolved region, so also drop the default-region alias
+                invalidateNearCache(nearCacheKey(region, (String) key));
+                invalidateNearCache(nearCacheKey(null, (String) key));
+            }
+        } else {
+            String prefix = nearCacheKey(region, "");
+            nearCache.keySet().removeIf(cacheKey -> cacheKey.startsWith(prefix));
+            if (pendingNearCacheKey != null && pendingNearCacheKey.startsWith(prefix)) {
+                pendingInvalidated = true;
+            }
+        }
+    }
+
+    private void invalidateNearCache(String cacheKey) {
+        nearCache.remove(cacheKey);
+        if (cacheKey.equals(pendingNearCacheKey)) {
+            pendingInvalidated = true;
+        }
+    }
+
+    private static String nearCacheKey(String region, String key) {
+        return (region != null ? region : "") + '\0' + key;
     }
 
     /**
@@ -120,15 +294,12 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public long delInRegion(String region, String... keys) throws IOException {
-        StringBuilder cmd = new StringBuilder("DEL");
-        if (region != null) {
-            cmd.append(" @").append(region);
-        }
+        List<String> cmd = command("DEL", region);
         for (String key : keys) {
-            cmd.append(" ").append(key);
+            cmd.add(key);
         }
 
-        String response = sendCommand(cmd.toString());
+        Object response = sendCommand(cmd);
         return parseInteger(response);
     }
 
@@ -140,15 +311,12 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public long existsInRegion(String region, String... keys) throws IOException {
-        StringBuilder cmd = new StringBuilder("EXISTS");
-        if (region != null) {
-            cmd.append(" @").append(region);
-        }
+        List<String> cmd = command("EXISTS", region);
         for (String key : keys) {
-            cmd.append(" ").append(key);
+            cmd.add(key);
         }
 
-        String response = sendCommand(cmd.toString());
+        Object response = sendCommand(cmd);
         return parseInteger(response);
     }
 
@@ -160,13 +328,11 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public boolean expireInRegion(String region, String key, long seconds) throws IOException {
-        StringBuilder cmd = new StringBuilder("EXPIRE");
-        if (region != null) {
-            cmd.append(" @").append(region);
-        }
-        cmd.append(" ").append(key).append(" ").append(seconds);
+        List<String> cmd = command("EXPIRE", region);
+        cmd.add(key);
+        cmd.add(String.valueOf(seconds));
 
-        String response = sendCommand(cmd.toString());
+        Object response = sendCommand(cmd);
         return parseInteger(response) == 1;
     }
 
@@ -178,13 +344,10 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public long ttlInRegion(String region, String key) throws IOException {
-        StringBuilder cmd = new StringBuilder("TTL");
-        if (region != null) {
-            cmd.append(" @").append(region);
-        }
-        cmd.append(" ").append(key);
+        List<String> cmd = command("TTL", region);
+        cmd.add(key);
 
-        String response = sendCommand(cmd.toString());
+        Object response = sendCommand(cmd);
         return parseInteger(response);
     }
 
@@ -196,13 +359,10 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public boolean persistInRegion(String region, String key) throws IOException {
-        StringBuilder cmd = new StringBuilder("PERSIST");
-        if (region != null) {
-            cmd.append(" @").append(region);
-        }
-        cmd.append(" ").append(key);
+        List<String> cmd = command("PERSIST", region);
+        cmd.add(key);
 
-        String response = sendCommand(cmd.toString());
+        Object response = sendCommand(cmd);
         return parseInteger(response) == 1;
     }
 
@@ -214,16 +374,43 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public Set<String> keysInRegion(String region, String pattern) throws IOException {
-        StringBuilder cmd = new StringBuilder("KEYS");
-        if (region != null) {
-            cmd.append(" @").append(region);
-        }
-        cmd.append(" ").append(pattern);
+        List<String> cmd = command("KEYS", region);
+        cmd.add(pattern);
 
-        String response = sendCommand(cmd.toString());
+        Object response = sendCommand(cmd);
         return parseArray(response);
     }
 
+    /**
+     * SCAN command - walks the whole region count keys per round trip, so unlike
+     * KEYS it never makes the server build the full key list
+     */
+    public Set<String> scan(String pattern, int count) throws IOException {
+        return scanInRegion(defaultRegion, pattern, count);
+    }
+
+    public Set<String> scanInRegion(String region, String pattern, int count) throws IOException {
+        Set<String> keys = new HashSet<>();
+        String cursor = "0";
+        do {
+            List<String> cmd = command("SCAN", region);
+            cmd.add(cursor);
+            cmd.add("MATCH");
+            cmd.add(pattern);
+            cmd.add("COUNT");
+            cmd.add(String.valueOf(count));
+
+            Object response = sendCommand(cmd);
+            if (!(response instanceof List) || ((List<?>) response).size() != 2) {
+                break;
+            }
+            List<?> page = (List<?>) response;
+            cursor = page.get(0).toString();
+            keys.addAll(parseArray(page.get(1)));
+        } while (!"0".equals(cursor));
+        return keys;
+    }
+
     /**
      * INCR command
      */
@@ -232,13 +419,10 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public long incrInRegion(String region, String key) throws IOException {
-        StringBuilder cmd = new StringBuilder("INCR");
-        if (region != null) {
-            cmd.append(" @").append(region);
-        }
-        cmd.append(" ").append(key);
+        List<String> cmd = command("INCR", region);
+        cmd.add(key);
 
-        String response = sendCommand(cmd.toString());
+        Object response = sendCommand(cmd);
         return parseInteger(response);
     }
 
@@ -250,13 +434,10 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public long decrInRegion(String region, String key) throws IOException {
-        StringBuilder cmd = new StringBuilder("DECR");
-        if (region != null) {
-            cmd.append(" @").append(region);
-        }
-        cmd.append(" ").append(key);
+        List<String> cmd = command("DECR", region);
+        cmd.add(key);
 
-        String response = sendCommand(cmd.toString());
+        Object response = sendCommand(cmd);
         return parseInteger(response);
     }
 
@@ -268,21 +449,35 @@ public class AshRedisClient implements AutoCloseable {
     }
 
     public long appendInRegion(String region, String key, String value) throws IOException {
-        StringBuilder cmd = new StringBuilder("APPEND");
-        if (region != null) {
-            cmd.append(" @").append(region);
-        }
-        cmd.append(" ").append(key).append(" ").append(value);
+        List<String> cmd = command("APPEND", region);
+        cmd.add(key);
+        cmd.add(value);
 
-        String response = sendCommand(cmd.toString());
+        Object response = sendCommand(cmd);
         return parseInteger(response);
     }
 
     /**
-     * Subscribe to a channel
+     * PUBLISH command - returns the number of receivers the message was queued for
      */
-    public void subscribe(String channel, Consumer<String> callback) {
+    public long publish(String channel, String message) throws IOException {
+        List<String> cmd = new ArrayList<>();
+        cmd.add("PUBLISH");
+        cmd.add(channel);
+        cmd.add(message);
+
+        Object response = sendCommand(cmd);
+        return parseInteger(response);
+    }
+
+    /**
+     * Subscribe to a channel. From then on the connection only receives messages,
+     * so use a separate client for other commands.
+     */
+    public synchronized void subscribe(String channel, Consumer<String> callback) throws IOException {
         channelSubscribers.put(channel, callback);
+        writeCommand(List.of("SUBSCRIBE", channel));
+        writer.flush();
 
         if (!subscriptionActive) {
             startSubscriptionThread();
@@ -292,8 +487,33 @@ public class AshRedisClient implements AutoCloseable {
     /**
      * Unsubscribe from a channel
      */
-    public void unsubscribe(String channel) {
+    public synchronized void unsubscribe(String channel) throws IOException {
         channelSubscribers.remove(channel);
+        writeCommand(List.of("UNSUBSCRIBE", channel));
+        writer.flush();
+    }
+
+    /**
+     * Send several commands in one write and read all the replies afterwards.
+     * Each command is a list of arguments, e.g. List.of("SET", "k1", "v1").
+     * Replies are returned in command order; an error reply appears in place
+     * as an IOException rather than aborting the rest of the batch.
+     */
+    public synchronized List<Object> pipeline(List<List<String>> commands) throws IOException {
+        if (!isConnected()) {
+            throw new IOException("Not connected to server");
+        }
+
+        for (List<String> args : commands) {
+            writeCommand(args);
+        }
+        writer.flush();
+
+        List<Object> replies = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            replies.add(readReplyOrError());
+        }
+        return replies;
     }
 
     private void startSubscriptionThread() {
@@ -301,9 +521,9 @@ public class AshRedisClient implements AutoCloseable {
         subscriptionThread = new Thread(() -> {
             try {
                 while (subscriptionActive && isConnected()) {
-                    String message = reader.readLine();
-                    if (message != null) {
-                        processSubscriptionMessage(message);
+                    Object message = readReply();
+                    if (message instanceof List) {
+                        processSubscriptionMessage((List<?>) message);
                     }
                 }
             } catch (IOException e) {
@@ -316,82 +536,157 @@ public class AshRedisClient implements AutoCloseable {
         subscriptionThread.start();
     }
 
-    private void processSubscriptionMessage(String message) {
+    private void processSubscriptionMessage(List<?> message) {
         // Parse and dispatch to appropriate callback
-        // Format expected: CHANNEL:channel_name:message
-        if (message.startsWith("CHANNEL:")) {
-            String[] parts = message.split(":", 3);
-            if (parts.length == 3) {
-                String channel = parts[1];
-                String content = parts[2];
-
-                Consumer<String> callback = channelSubscribers.get(channel);
-                if (callback != null) {
-                    callback.accept(content);
-                }
+        // Format expected: ["message", channel, payload]
+        if (message.size() == 3 && "message".equals(message.get(0))) {
+            String channel = (String) message.get(1);
+            String content = (String) message.get(2);
+
+            Consumer<String> callback = channelSubscribers.get(channel);
+            if (callback != null) {
+                callback.accept(content);
             }
         }
     }
 
+    private List<String> command(String name, String region) {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(name);
+        if (region != null) {
+            cmd.add("@" + region);
+        }
+        return cmd;
+    }
+
     /**
-     * Send command and get response
+     * Send command as a RESP multi-bulk request and read the reply
      */
-    private synchronized String sendCommand(String command) throws IOException {
+    private synchronized Object sendCommand(List<String> args) throws IOException {
         if (!isConnected()) {
             throw new IOException("Not connected to server");
         }
 
-        writer.println(command);
-        String response = reader.readLine();
+        writeCommand(args);
+        writer.flush();
 
-        if (response == null) {
-            throw new IOException("Connection closed by server");
+        return readReply();
+    }
+
+    private void writeCommand(List<String> args) throws IOException {
+        writeLine("*" + args.size());
+        for (String arg : args) {
+            byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+            writeLine("$" + bytes.length);
+            writer.write(bytes);
+            writer.write(CRLF);
         }
+    }
 
-        return parseResponse(response);
+    /**
+     * Read one RESP reply.
+     * Simple strings and bulk strings become String, integers Long, arrays List.
+     */
+    private Object readReply() throws IOException {
+        Object reply = readReplyOrError();
+        if (reply instanceof IOException) {
+            throw (IOException) reply;
+        }
+        return reply;
     }
 
-    private String parseResponse(String response) throws IOException {
-        if (response.startsWith("+")) {
-            return response.substring(1);
-        } else if (response.startsWith("-")) {
-            throw new IOException("Error: " + response.substring(1));
-        } else if (response.startsWith(":")) {
-            return response.substring(1);
-        } else if (response.startsWith("$")) {
-            int length = Integer.parseInt(response.substring(1));
-            if (length == -1) {
-                return null;
+    /**
+     * Same as readReply, but an error reply is returned as an IOException
+     * instead of thrown, so the rest of a pipelined batch can still be read.
+     */
+    private Object readReplyOrError() throws IOException {
+        while (true) {
+            Object reply = readValue();
+            if (!(reply instanceof Push)) {
+                return reply;
             }
-            return reader.readLine();
-        } else if (response.startsWith("*")) {
-            return response; // Return array response as is for further parsing
+            // Out-of-band message (e.g. tracking invalidation) ahead of the reply
+            handlePush(((Push) reply).items);
         }
+    }
 
-        return response;
+    /**
+     * Read one RESP value; RESP3 pushes (">") are returned wrapped in Push.
+     */
+    private Object readValue() throws IOException {
+        String line = readLine();
+
+        switch (line.charAt(0)) {
+            case '+':
+                return line.substring(1);
+            case '-':
+                return new IOException("Error: " + line.substring(1));
+            case ':':
+                return Long.parseLong(line.substring(1));
+            case '_':
+                return null;
+            case '$': {
+                int length = Integer.parseInt(line.substring(1));
+                if (length == -1) {
+                    return null;
+                }
+                byte[] data = reader.readNBytes(length + 2);
+                if (data.length < length + 2) {
+                    throw new IOException("Connection closed by server");
+                }
+                return new String(data, 0, length, StandardCharsets.UTF_8);
+            }
+            case '*':
+            case '%':
+            case '>': {
+                int count = Integer.parseInt(line.substring(1));
+                if (count == -1) {
+                    return null;
+                }
+                if (line.charAt(0) == '%') {
+                    count *= 2;
+                }
+                List<Object> items = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    items.add(readValue());
+                }
+                return line.charAt(0) == '>' ? new Push(items) : items;
+            }
+            default:
+                return line;
+        }
     }
 
-    private long parseInteger(String response) {
-        try {
-            return Long.parseLong(response);
-        } catch (NumberFormatException e) {
-            return 0;
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = reader.read()) != -1) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            line.write(b);
         }
+        throw new IOException("Connection closed by server");
     }
 
-    private Set<String> parseArray(String response) throws IOException {
-        Set<String> result = new HashSet<>();
+    private void writeLine(String line) throws IOException {
+        writer.write(line.getBytes(StandardCharsets.UTF_8));
+        writer.write(CRLF);
+    }
+
+    private long parseInteger(Object response) {
+        return response instanceof Long ? (Long) response : 0;
+    }
 
-        if (response.startsWith("*")) {
-            int count = Integer.parseInt(response.substring(1).split("\r\n")[0]);
+    private Set<String> parseArray(Object response) {
+        Set<String> result = new HashSet<>();
 
-            for (int i = 0; i < count; i++) {
-                String lengthLine = reader.readLine();
-                if (lengthLine.startsWith("$")) {
-                    int length = Integer.parseInt(lengthLine.substring(1));
-                    if (length > 0) {
-                        result.add(reader.readLine());
-                    }
+        if (response instanceof List) {
+            for (Object item : (List<?>) response) {
+                if (item != null) {
+                    result.add(item.toString());
                 }
             }
         }
@@ -418,6 +713,18 @@ public class AshRedisClient implements AutoCloseable {
         if (socket != null) {
             socket.close();
         }
+
+        if (unixChannel != null) {
+            unixChannel.close();
+        }
+    }
+
+    private static final class Push {
+        private final List<Object> items;
+
+        private Push(List<Object> items) {
+            this.items = items;
+        }
     }
 
     /**